@@ -0,0 +1,32 @@
+package io.quarkiverse.chicory.deployment;
+
+import io.quarkiverse.chicory.runtime.WasmQuarkusConfig;
+import io.quarkiverse.chicory.runtime.devui.ChicoryJsonRPCService;
+import io.quarkus.deployment.IsDevelopment;
+import io.quarkus.deployment.annotations.BuildStep;
+import io.quarkus.devui.spi.JsonRPCProvidersBuildItem;
+import io.quarkus.devui.spi.page.CardPageBuildItem;
+import io.quarkus.devui.spi.page.Page;
+
+/**
+ * Adds the Chicory card to the Dev UI, with a page listing the configured Wasm modules along with their execution mode
+ * and performance statistics, which can run micro-benchmarks of the exported functions.
+ */
+class ChicoryDevUIProcessor {
+
+    @BuildStep(onlyIf = IsDevelopment.class)
+    CardPageBuildItem createCard(WasmQuarkusConfig config) {
+        final CardPageBuildItem card = new CardPageBuildItem();
+        card.addPage(Page.webComponentPageBuilder()
+                .title("Wasm Modules")
+                .icon("font-awesome-solid:cubes")
+                .componentLink("qwc-chicory-modules.js")
+                .staticLabel(String.valueOf(config.modules().size())));
+        return card;
+    }
+
+    @BuildStep(onlyIf = IsDevelopment.class)
+    JsonRPCProvidersBuildItem createJsonRPCService() {
+        return new JsonRPCProvidersBuildItem(ChicoryJsonRPCService.class);
+    }
+}
@@ -1,32 +1,55 @@
 package io.quarkiverse.chicory.deployment;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
 
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.jboss.logging.Logger;
 
 import com.dylibso.chicory.build.time.compiler.Config;
 import com.dylibso.chicory.build.time.compiler.Generator;
+import com.dylibso.chicory.runtime.Instance;
 
 import io.quarkiverse.chicory.deployment.items.GeneratedWasmCodeBuildItem;
 import io.quarkiverse.chicory.deployment.items.WasmContextRegistrationCompleted;
 import io.quarkiverse.chicory.runtime.WasmQuarkusConfig;
 import io.quarkiverse.chicory.runtime.WasmQuarkusUtils;
+import io.quarkiverse.chicory.runtime.wasm.ExecutionMode;
+import io.quarkiverse.chicory.runtime.wasm.InstanceScope;
+import io.quarkiverse.chicory.runtime.wasm.WasmExport;
+import io.quarkiverse.chicory.runtime.wasm.WasmExportHandle;
+import io.quarkiverse.chicory.runtime.wasm.WasmInstance;
+import io.quarkiverse.chicory.runtime.wasm.WasmInstanceDestroyer;
 import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
 import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContextRecorder;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
+import io.quarkus.deployment.GeneratedClassGizmoAdaptor;
 import io.quarkus.deployment.IsDevelopment;
 import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
@@ -34,21 +57,38 @@ import io.quarkus.deployment.annotations.Consume;
 import io.quarkus.deployment.annotations.ExecutionTime;
 import io.quarkus.deployment.annotations.Produce;
 import io.quarkus.deployment.annotations.Record;
+import io.quarkus.deployment.builditem.CombinedIndexBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
 import io.quarkus.deployment.builditem.GeneratedClassBuildItem;
 import io.quarkus.deployment.builditem.GeneratedResourceBuildItem;
 import io.quarkus.deployment.builditem.HotDeploymentWatchedFileBuildItem;
+import io.quarkus.deployment.builditem.LaunchModeBuildItem;
+import io.quarkus.deployment.builditem.ShutdownContextBuildItem;
 import io.quarkus.deployment.builditem.nativeimage.NativeImageResourceBuildItem;
-import io.quarkus.deployment.builditem.nativeimage.NativeImageResourcePatternsBuildItem;
-import io.quarkus.deployment.builditem.nativeimage.ReflectiveClassBuildItem;
+import io.quarkus.deployment.pkg.builditem.JvmStartupOptimizerArchiveRequestedBuildItem;
 import io.quarkus.deployment.pkg.builditem.OutputTargetBuildItem;
+import io.quarkus.deployment.pkg.steps.NativeOrNativeSourcesBuild;
+import io.quarkus.deployment.recording.RecorderContext;
+import io.quarkus.gizmo.ClassCreator;
+import io.quarkus.gizmo.ClassOutput;
+import io.quarkus.gizmo.MethodCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+import io.quarkus.runtime.LaunchMode;
+import io.quarkus.runtime.RuntimeValue;
 
 /**
  * The Quarkus Chicory deployment processor provides the following features:
  * <ul>
  * <li>Produce a collection of injectable named beans, each representing a configured Wasm module</li>
+ * <li>Produce injectable named {@link WasmInstance} beans, for the Wasm modules that configure an instance scope</li>
+ * <li>Produce injectable {@link WasmExportHandle} beans, for the {@link WasmExport} qualifiers used by the
+ * application</li>
  * <li>Replace the Chicory Maven plugin functionality to generate bytecode, Wasm meta files and raw Java sources</li>
- * <li>Watch statically configured Wasm module files to trigger a rebuild in <i>dev mode</i></li>
+ * <li>Write a JSON build report describing the code generated for each Wasm module</li>
+ * <li>Generate reflection free machine factories for the build time compiled Wasm modules</li>
+ * <li>Parse the build time compiled Wasm modules into the image heap when a native image is built</li>
+ * <li>Watch statically configured Wasm module files to swap them, or trigger a rebuild, in <i>dev mode</i></li>
  * </ul>
  * <p>
  * The first build step creates a collection of application scoped named beans, each representing a statically
@@ -76,40 +116,126 @@ class QuarkusWasmProcessor {
     /**
      * Creates a collection of {@link WasmQuarkusContext} application scoped named beans, for each statically
      * configured Wasm module.
+     * <p>
+     * Additionally, a {@link WasmInstance} named bean is created for each Wasm module that configures an
+     * {@link InstanceScope} other than {@link InstanceScope#None}. Such bean is {@link RequestScoped} and backed by the
+     * Wasm module instance pool for {@link InstanceScope#Request}, or {@link ApplicationScoped} and confining an
+     * instance to each thread for {@link InstanceScope#PerThread}.
+     * </p>
+     * <p>
+     * Finally, a {@link WasmExportHandle} singleton bean is created for each distinct {@link WasmExport} qualifier used
+     * by the application. Exports are resolved against the export section of the Wasm modules here, so that missing
+     * exports fail the build.
+     * </p>
      *
      * @param syntheticBeans The {@link BuildProducer} instance that creates the synthetic beans
      * @param recorder The {@link WasmQuarkusContextRecorder} instance that provides the logic to create the runtime
      *        instances of the required beans
      * @param config The application configuration, storing all the configured modules.
+     * @param combinedIndex The application index, used to find the {@link WasmExport} qualifiers
+     * @param launchMode The launch mode, since Wasm modules are only watched at runtime in dev mode
+     * @param shutdownContext The shutdown context, that stops watching the Wasm modules and the plugin directories
      */
     @BuildStep
     @Record(ExecutionTime.RUNTIME_INIT)
     @Produce(WasmContextRegistrationCompleted.class)
     void registerWasmContextBeans(BuildProducer<SyntheticBeanBuildItem> syntheticBeans, WasmQuarkusContextRecorder recorder,
-            WasmQuarkusConfig config, OutputTargetBuildItem outputTarget) {
+            WasmQuarkusConfig config, OutputTargetBuildItem outputTarget, CombinedIndexBuildItem combinedIndex,
+            LaunchModeBuildItem launchMode, ShutdownContextBuildItem shutdownContext) {
+        final Map<String, RuntimeValue<WasmQuarkusContext>> contexts = new HashMap<>();
         // Produce synthetic WasmQuarkusContext beans for related Wasm modules
         for (Map.Entry<String, WasmQuarkusConfig.ModuleConfig> moduleConfigEntry : config.modules().entrySet()) {
             final String key = moduleConfigEntry.getKey();
             final Optional<String> packageType = ConfigProvider.getConfig().getOptionalValue("quarkus.package.type",
                     String.class);
             final boolean isNativePackageType = packageType.isPresent() && packageType.get().equals("native");
+            final RuntimeValue<WasmQuarkusContext> context = recorder.createContext(key, config, isNativePackageType,
+                    outputTarget.getOutputDirectory().getParent().toString());
+            contexts.put(key, context);
+            // Static modules are parsed in the background right away, rather than by the first caller
+            recorder.preloadWasmModule(context);
+            // Dynamic modules deploy the plugins of their plugin directory, which is configured at runtime, if any
+            recorder.watchPluginDir(key, context, shutdownContext);
+            final WasmQuarkusConfig.ModuleConfig moduleConfig = moduleConfigEntry.getValue();
             syntheticBeans.produce(
                     SyntheticBeanBuildItem.configure(WasmQuarkusContext.class)
                             .scope(ApplicationScoped.class)
-                            .runtimeValue(recorder.createContext(key, config, isNativePackageType,
-                                    outputTarget.getOutputDirectory().getParent().toString()))
+                            .runtimeValue(context)
                             .setRuntimeInit()
                             .named(key)
                             .done());
+
+            // Produce a synthetic WasmInstance bean, if an instance scope is configured
+            final InstanceScope instanceScope = moduleConfig.instanceScope();
+            if (instanceScope != InstanceScope.None) {
+                LOG.info("Registering a " + instanceScope + " scoped WasmInstance bean for Wasm module " + key);
+                syntheticBeans.produce(
+                        SyntheticBeanBuildItem.configure(WasmInstance.class)
+                                .scope(instanceScope == InstanceScope.Request ? RequestScoped.class
+                                        : ApplicationScoped.class)
+                                .supplier(recorder.createWasmInstanceSupplier(context, instanceScope))
+                                .destroyer(WasmInstanceDestroyer.class)
+                                .setRuntimeInit()
+                                // qualifier only, the bean name is already taken by the WasmQuarkusContext bean
+                                .addQualifier().annotation(Named.class).addValue("value", key).done()
+                                .done());
+            }
+        }
+
+        // Produce synthetic WasmExportHandle beans for the exports injected by the application
+        final WasmExportResolver exportResolver = new WasmExportResolver(config,
+                outputTarget.getOutputDirectory().getParent());
+        for (WasmExportResolver.ResolvedExport export : exportResolver.resolve(combinedIndex.getIndex())) {
+            LOG.info("Registering a WasmExportHandle bean for export " + export.getName() + " (function "
+                    + export.getFunctionIndex() + ") of Wasm module " + export.getModuleKey());
+            syntheticBeans.produce(
+                    SyntheticBeanBuildItem.configure(WasmExportHandle.class)
+                            .scope(Singleton.class)
+                            .supplier(recorder.createExportHandleSupplier(contexts.get(export.getModuleKey()),
+                                    export.getName(), export.getFunctionIndex()))
+                            .setRuntimeInit()
+                            .addQualifier().annotation(WasmExportResolver.WASM_EXPORT)
+                            .addValue("value", export.getName())
+                            .addValue("module", export.getModule())
+                            .done()
+                            .done());
+        }
+
+        // In dev mode, the Wasm modules that can be swapped are watched at runtime, rather than restarting the application
+        if (launchMode.getLaunchMode() == LaunchMode.DEVELOPMENT) {
+            final Set<String> exportingModules = WasmExportResolver.moduleKeys(combinedIndex.getIndex(), config);
+            for (Map.Entry<String, RuntimeValue<WasmQuarkusContext>> context : contexts.entrySet()) {
+                if (isSwappable(context.getKey(), config.modules().get(context.getKey()), exportingModules)) {
+                    recorder.watchWasmModule(context.getValue(), shutdownContext);
+                }
+            }
         }
     }
 
+    /**
+     * Tells whether a Wasm module is swapped within its context in dev mode, when its payload changes. That's the case
+     * of statically configured Wasm modules enabling {@code dev-swap}, unless they run the code generated by the build
+     * time compiler, which must be generated again, or their exports are injected, since the function indexes are
+     * resolved at build time.
+     *
+     * @param key The configuration key of the Wasm module
+     * @param moduleConfig The configuration of the Wasm module
+     * @param exportingModules The keys of the Wasm modules whose exports are injected
+     * @return {@code true} if the Wasm module can be swapped, {@code false} if the application must be restarted
+     */
+    private static boolean isSwappable(final String key, final WasmQuarkusConfig.ModuleConfig moduleConfig,
+            final Set<String> exportingModules) {
+        return moduleConfig.devSwap()
+                && (moduleConfig.wasmFile().isPresent() || moduleConfig.wasmResource().isPresent())
+                && moduleConfig.compiler().executionMode() != ExecutionMode.BuildTimeCompiler
+                && !exportingModules.contains(key);
+    }
+
     /**
      * Use the Chicory build time compiler {@link Generator} to generate bytecode from configured {@code Wasm} modules.
      *
      * @param config The application configuration, storing all the configured modules.
      * @param outputTarget The build output target providing the directory where generated files will be written.
-     * @param nativeImageResourcePatternsBuildItemBuildProducer The producer for registering native image resource patterns.
      * @return A collection of {@link GeneratedWasmCodeBuildItem} items, each of them storing the name of the
      *         generated Wasm module, a list of paths referencing the generated {@code .class} files,
      *         a reference to the generated {@code .meta} Wasm file, and a reference to the generated {@code .java}
@@ -119,8 +245,7 @@ class QuarkusWasmProcessor {
     @BuildStep
     @Consume(WasmContextRegistrationCompleted.class)
     public List<GeneratedWasmCodeBuildItem> generate(WasmQuarkusConfig config,
-            OutputTargetBuildItem outputTarget,
-            BuildProducer<NativeImageResourcePatternsBuildItem> nativeImageResourcePatternsBuildItemBuildProducer)
+            OutputTargetBuildItem outputTarget)
             throws IOException {
 
         final List<GeneratedWasmCodeBuildItem> result = new ArrayList<>();
@@ -144,76 +269,167 @@ class QuarkusWasmProcessor {
             }
             // generate when a Wasm file exists
             if (wasmFile != null) {
-                final Optional<List<Integer>> interpretedFunctionsConfig = moduleConfig.compiler().interpretedFunctions();
-
-                LOG.info("Generating bytecode and resources into " + classesDir.toFile().getAbsolutePath() + " for "
-                        + key + " from "
-                        + wasmFile);
-                final Config generatorConfig = Config.builder()
-                        .withWasmFile(wasmFile)
-                        .withName(name)
-                        .withTargetClassFolder(classesDir)
-                        .withTargetWasmFolder(classesDir)
-                        .withTargetSourceFolder(generatedSourcesDir)
-                        .withInterpreterFallback(moduleConfig.compiler().interpreterFallback())
-                        .withInterpretedFunctions(
-                                interpretedFunctionsConfig.isPresent() ? new HashSet<>(interpretedFunctionsConfig.get())
-                                        : Set.of())
-                        .build();
-                final Generator generator = new Generator(generatorConfig);
-                final Set<Integer> finalInterpretedFunctions = generator.generateResources();
-                generator.generateMetaWasm(finalInterpretedFunctions);
-                generator.generateSources();
-
-                // Track the generated *.class and .meta Wasm files
-                final List<Path> generatedClasses = new ArrayList<>();
-                Path generatedMetaWasm = null;
-                Path generatedJava = null;
-                // N .class files
-                LOG.debug("Tracking the generated .class files in " + classesDir.toAbsolutePath());
-                try (Stream<Path> pathStream = Files.walk(classesDir.toAbsolutePath())) {
-                    ArrayList<Path> files = pathStream
-                            .filter(p -> p.toString().contains("/" + WasmQuarkusUtils.getWasmModuleClassName(name))
-                                    && p.toString().endsWith(".class"))
-                            .collect(Collectors.toCollection(ArrayList::new));
-                    for (Path file : files) {
-                        LOG.debug("Tracking the generated .class file: " + file);
-                        generatedClasses.add(file);
-                    }
-                }
-                // 1 .meta Wasm file
-                LOG.debug("Tracking the generated .meta file in " + classesDir.toFile().getAbsolutePath());
-                try (Stream<Path> pathStream = Files.walk(classesDir.toAbsolutePath())) {
-                    generatedMetaWasm = pathStream
-                            .filter(p -> p.toString().endsWith(".meta"))
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalStateException(".meta Wasm file not found"));
-                    LOG.debug("Tracking the generated .meta file: " + generatedMetaWasm);
+                final String classPath = WasmQuarkusUtils.getWasmModuleClassPath(name);
+                final String className = WasmQuarkusUtils.getWasmModuleClassName(name);
+                final Path generatedMetaWasm = classesDir.resolve(classPath).resolve(className + ".meta");
+                final Path generatedJava = generatedSourcesDir.resolve(classPath).resolve(className + ".java");
+                // the code is only generated again when the Wasm module or its compiler configuration changed, so
+                // that unchanged classes don't trigger a restart in dev mode
+                final Path hashFile = targetDirectory.resolve("chicory").resolve(key + ".sha256");
+                final String hash = inputHash(name, wasmFile, moduleConfig.compiler());
+                if (Files.exists(generatedMetaWasm) && Files.exists(generatedJava) && Files.exists(hashFile)
+                        && Files.readString(hashFile).equals(hash)) {
+                    LOG.info("Wasm module " + key + " is unchanged, reusing the code generated by a previous build");
+                } else {
+                    Files.deleteIfExists(hashFile);
+                    generateCode(key, moduleConfig, wasmFile, targetDirectory, classesDir, generatedSourcesDir);
+                    Files.createDirectories(hashFile.getParent());
+                    Files.writeString(hashFile, hash);
                 }
-                // 1 .java source file
-                LOG.debug("Tracking the generated .java file in " + generatedSourcesDir.toFile().getAbsolutePath());
-                try (Stream<Path> pathStream = Files.walk(generatedSourcesDir.toAbsolutePath())) {
-                    generatedJava = pathStream
-                            .filter(p -> p.toString().endsWith(".java"))
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalStateException(".java Wasm file not found"));
-                    LOG.debug("Tracking the generated .java file: " + generatedJava);
-                }
-                result.add(new GeneratedWasmCodeBuildItem(name, generatedClasses, generatedMetaWasm, generatedJava));
+                result.add(new GeneratedWasmCodeBuildItem(name, findGeneratedClasses(classesDir, name), generatedMetaWasm,
+                        generatedJava));
             }
         }
-        // register *.wasm files for Native mode (although they are not be used...)
-        if (config.modules().entrySet().stream().anyMatch(m -> m.getValue().wasmFile().isPresent())) {
-            nativeImageResourcePatternsBuildItemBuildProducer.produce(NativeImageResourcePatternsBuildItem.builder()
-                    .includeGlobs("**/*.wasm")
-                    .build());
-        }
+        // the Wasm payloads of static modules are not registered for native mode, since the .meta Wasm files are used
+        // at runtime instead
         return result;
     }
 
+    /**
+     * Generates the bytecode, the {@code .meta} Wasm file, the raw Java sources and the build report of a Wasm module.
+     *
+     * @param key The configuration key of the Wasm module
+     * @param moduleConfig The configuration of the Wasm module
+     * @param wasmFile The Wasm module
+     * @param targetDirectory The build output directory
+     * @param classesDir The directory where the {@code .class} and {@code .meta} files are written
+     * @param generatedSourcesDir The directory where the {@code .java} files are written
+     * @throws IOException If the generation fails
+     */
+    private static void generateCode(final String key, final WasmQuarkusConfig.ModuleConfig moduleConfig, Path wasmFile,
+            final Path targetDirectory, final Path classesDir, final Path generatedSourcesDir) throws IOException {
+        final String name = moduleConfig.name();
+        if (moduleConfig.compiler().deadCodeElimination()) {
+            // compile a copy of the Wasm module, whose unreachable functions are replaced by stubs
+            wasmFile = WasmDeadCodeEliminator.eliminate(key, wasmFile, moduleConfig.compiler().keepExports(),
+                    targetDirectory.resolve("chicory").resolve(key + ".wasm"));
+        }
+        final Optional<List<Integer>> interpretedFunctionsConfig = moduleConfig.compiler().interpretedFunctions();
+        final Set<Integer> interpretedFunctions = interpretedFunctionsConfig.isPresent()
+                ? new HashSet<>(interpretedFunctionsConfig.get())
+                : Set.of();
+
+        LOG.info("Generating bytecode and resources into " + classesDir.toFile().getAbsolutePath() + " for "
+                + key + " from "
+                + wasmFile);
+        final Config generatorConfig = Config.builder()
+                .withWasmFile(wasmFile)
+                .withName(name)
+                .withTargetClassFolder(classesDir)
+                .withTargetWasmFolder(classesDir)
+                .withTargetSourceFolder(generatedSourcesDir)
+                .withInterpreterFallback(moduleConfig.compiler().interpreterFallback())
+                .withInterpretedFunctions(interpretedFunctions)
+                .build();
+        final long start = System.nanoTime();
+        deleteFunctionGroups(classesDir, name);
+        final Generator generator = new Generator(generatorConfig);
+        final OptionalInt maxFunctionsPerClass = moduleConfig.compiler().maxFunctionsPerClass();
+        final Set<Integer> finalInterpretedFunctions = maxFunctionsPerClass.isPresent()
+                ? WasmFunctionGroupCompiler.compile(generatorConfig, maxFunctionsPerClass.getAsInt())
+                : generator.generateResources();
+        generator.generateMetaWasm(finalInterpretedFunctions);
+        generator.generateSources();
+        final long compileTimeMillis = (System.nanoTime() - start) / 1_000_000;
+
+        final Path generatedMetaWasm = classesDir.resolve(WasmQuarkusUtils.getWasmModuleClassPath(name))
+                .resolve(WasmQuarkusUtils.getWasmModuleClassName(name) + ".meta");
+        LOG.info("Generated code for " + key + " in " + compileTimeMillis + "ms, the "
+                + ".meta file is " + Files.size(generatedMetaWasm) + " bytes, from a " + Files.size(wasmFile)
+                + " bytes Wasm module");
+        WasmBuildReport.write(key, name, wasmFile, compileTimeMillis, findGeneratedClasses(classesDir, name),
+                interpretedFunctions, finalInterpretedFunctions,
+                targetDirectory.resolve("chicory").resolve(key + "-build-report.json"));
+    }
+
+    /**
+     * Finds the {@code .class} files generated for a Wasm module.
+     *
+     * @param classesDir The directory containing the generated {@code .class} files
+     * @param name The configured name of the Wasm module
+     * @return The generated {@code .class} files
+     * @throws IOException If the directory cannot be read
+     */
+    private static List<Path> findGeneratedClasses(final Path classesDir, final String name) throws IOException {
+        LOG.debug("Tracking the generated .class files in " + classesDir.toAbsolutePath());
+        try (Stream<Path> pathStream = Files.walk(classesDir.toAbsolutePath())) {
+            final List<Path> files = pathStream
+                    .filter(p -> p.toString().contains("/" + WasmQuarkusUtils.getWasmModuleClassName(name))
+                            && p.toString().endsWith(".class"))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            for (Path file : files) {
+                LOG.debug("Tracking the generated .class file: " + file);
+            }
+            return files;
+        }
+    }
+
+    /**
+     * Computes a hash of everything the code generated for a Wasm module depends on: the Wasm module itself, its
+     * compiler configuration, and the versions of the extension and of the Chicory compiler.
+     *
+     * @param name The configured name of the Wasm module
+     * @param wasmFile The Wasm module
+     * @param compilerConfig The compiler configuration of the Wasm module
+     * @return The hexadecimal SHA-256 hash
+     * @throws IOException If the Wasm module cannot be read
+     */
+    private static String inputHash(final String name, final Path wasmFile,
+            final WasmQuarkusConfig.ModuleConfig.CompilerConfig compilerConfig) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(Files.readAllBytes(wasmFile));
+        final String inputs = String.join("\n", name,
+                String.valueOf(QuarkusWasmProcessor.class.getPackage().getImplementationVersion()),
+                String.valueOf(Generator.class.getPackage().getImplementationVersion()),
+                String.valueOf(compilerConfig.interpreterFallback()),
+                String.valueOf(compilerConfig.interpretedFunctions().orElse(List.of())),
+                String.valueOf(compilerConfig.maxFunctionsPerClass()),
+                String.valueOf(compilerConfig.deadCodeElimination()),
+                String.valueOf(compilerConfig.keepExports().orElse(List.of())));
+        digest.update(inputs.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Deletes the function group classes generated by a previous build for a Wasm module, since the functions may have
+     * been split into a different number of groups, and the stale classes would otherwise be collected as well.
+     *
+     * @param classesDir The directory containing the generated {@code .class} files
+     * @param name The configured name of the Wasm module
+     * @throws IOException If the stale classes cannot be deleted
+     */
+    private static void deleteFunctionGroups(final Path classesDir, final String name) throws IOException {
+        final Path packageDir = classesDir.resolve(WasmQuarkusUtils.getWasmModuleClassPath(name));
+        if (!Files.isDirectory(packageDir)) {
+            return;
+        }
+        final String prefix = WasmQuarkusUtils.getWasmModuleClassName(name) + "MachineFuncGroup_";
+        try (Stream<Path> pathStream = Files.list(packageDir)) {
+            for (Path file : pathStream.filter(p -> p.getFileName().toString().startsWith(prefix))
+                    .collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
     /**
      * A build step that consumes the build items generated by
-     * {@link #generate(WasmQuarkusConfig, OutputTargetBuildItem, BuildProducer)}
+     * {@link #generate(WasmQuarkusConfig, OutputTargetBuildItem)}
      * to collect a list of {@link GeneratedClassBuildItem} referencing the generated {@code .class} files.
      *
      * @param generatedWasmCodeBuildItems The list of {@link GeneratedWasmCodeBuildItem} items that will be used
@@ -221,13 +437,10 @@ class QuarkusWasmProcessor {
      *
      * @param generatedClassBuildItemBuildProducer The producer that produces instances of
      *        {@link GeneratedClassBuildItem} items, referencing the generated {@code .class} files
-     * @param reflectiveClassBuildItemBuildProducer The producer that produces instances of
-     *        {@link ReflectiveClassBuildItem} items, referencing the generated {@code .class} files
      */
     @BuildStep
     public void collectGeneratedClasses(List<GeneratedWasmCodeBuildItem> generatedWasmCodeBuildItems,
-            BuildProducer<GeneratedClassBuildItem> generatedClassBuildItemBuildProducer,
-            BuildProducer<ReflectiveClassBuildItem> reflectiveClassBuildItemBuildProducer)
+            BuildProducer<GeneratedClassBuildItem> generatedClassBuildItemBuildProducer)
             throws IOException {
 
         for (GeneratedWasmCodeBuildItem buildItem : generatedWasmCodeBuildItems) {
@@ -240,51 +453,221 @@ class QuarkusWasmProcessor {
                 // register as an application class
                 generatedClassBuildItemBuildProducer.produce(
                         new GeneratedClassBuildItem(true, className, Files.readAllBytes(file)));
-                // register for reflection
-                reflectiveClassBuildItemBuildProducer.produce(
-                        ReflectiveClassBuildItem.builder(className)
-                                .constructors()
-                                .methods()
-                                .fields()
-                                .build());
             }
         }
     }
 
     /**
      * A build step that consumes the build items generated by
-     * {@link #generate(WasmQuarkusConfig, OutputTargetBuildItem, BuildProducer)}
+     * {@link #generate(WasmQuarkusConfig, OutputTargetBuildItem)}
+     * to generate a machine factory for each Wasm module, i.e. a {@code Function<Instance, Machine>} which directly
+     * instantiates the build time compiled {@code <name>Machine} class.
+     * <p>
+     * The factories are instantiated and registered by recorded bytecode, therefore neither the factories nor the
+     * generated machine classes need to be registered for reflection, which keeps them out of the native image
+     * reflection metadata and lets dead code elimination work on them.
+     * </p>
+     * <p>
+     * When an AppCDS archive or an AOT cache is requested, the Wasm modules are also warmed up while the archive is
+     * generated, so that the generated classes are stored in it.
+     * </p>
+     *
+     * @param generatedWasmCodeBuildItems The list of {@link GeneratedWasmCodeBuildItem} items, one for each Wasm module
+     *        that has been compiled at build time
+     * @param generatedClassBuildItemBuildProducer The producer that produces instances of
+     *        {@link GeneratedClassBuildItem} items, referencing the generated machine factories
+     * @param startupArchiveRequested Present when an AppCDS archive or an AOT cache is requested
+     * @param recorder The {@link WasmQuarkusContextRecorder} that registers the machine factories at runtime
+     * @param recorderContext The {@link RecorderContext} used to instantiate the machine factories
+     */
+    @BuildStep
+    @Record(ExecutionTime.STATIC_INIT)
+    public void generateMachineFactories(List<GeneratedWasmCodeBuildItem> generatedWasmCodeBuildItems,
+            BuildProducer<GeneratedClassBuildItem> generatedClassBuildItemBuildProducer,
+            Optional<JvmStartupOptimizerArchiveRequestedBuildItem> startupArchiveRequested,
+            WasmQuarkusContextRecorder recorder, RecorderContext recorderContext) {
+
+        final ClassOutput classOutput = new GeneratedClassGizmoAdaptor(generatedClassBuildItemBuildProducer, true);
+        for (GeneratedWasmCodeBuildItem buildItem : generatedWasmCodeBuildItems) {
+            final String name = buildItem.getName();
+            final String machineClassName = name + "Machine";
+            final String factoryClassName = machineClassName + "Factory";
+            LOG.info("Generating the machine factory " + factoryClassName + " for " + name);
+            try (ClassCreator classCreator = ClassCreator.builder()
+                    .classOutput(classOutput)
+                    .className(factoryClassName)
+                    .interfaces(Function.class)
+                    .build()) {
+                try (MethodCreator apply = classCreator.getMethodCreator("apply", Object.class, Object.class)) {
+                    final ResultHandle instance = apply.checkCast(apply.getMethodParam(0), Instance.class);
+                    apply.returnValue(apply.newInstance(
+                            MethodDescriptor.ofConstructor(machineClassName, Instance.class), instance));
+                }
+            }
+            recorder.registerMachineFactory(name, recorderContext.newInstance(factoryClassName));
+            if (startupArchiveRequested.isPresent()) {
+                final String classPackage = name.substring(0, name.lastIndexOf('.'));
+                final List<String> classNames = buildItem.getClasses().stream()
+                        .map(file -> classPackage + "." + file.getFileName().toString().replace(".class", ""))
+                        .collect(Collectors.toCollection(ArrayList::new));
+                classNames.add(factoryClassName);
+                recorder.warmUpForStartupArchive(name, classNames);
+            }
+        }
+    }
+
+    /**
+     * A build step that consumes the build items generated by
+     * {@link #generate(WasmQuarkusConfig, OutputTargetBuildItem)}
+     * to parse the generated {@code .meta} files during static initialization when a native image is built.
+     * <p>
+     * Static initialization is run by the native image builder, therefore the parsed Wasm modules are stored in the
+     * image heap, and {@link WasmQuarkusContext#getWasmModule()} returns them without any parsing at runtime.
+     * </p>
+     *
+     * @param config The application configuration, storing all the configured Wasm modules
+     * @param generatedWasmCodeBuildItems The list of {@link GeneratedWasmCodeBuildItem} items, one for each Wasm module
+     *        that has been compiled at build time
+     * @param recorder The {@link WasmQuarkusContextRecorder} that parses the Wasm modules during static initialization
+     */
+    @BuildStep(onlyIf = NativeOrNativeSourcesBuild.class)
+    @Record(ExecutionTime.STATIC_INIT)
+    public void storeWasmModulesInImageHeap(WasmQuarkusConfig config,
+            List<GeneratedWasmCodeBuildItem> generatedWasmCodeBuildItems,
+            WasmQuarkusContextRecorder recorder) {
+
+        final Set<String> storedNames = config.modules().values().stream()
+                .filter(WasmQuarkusConfig.ModuleConfig::nativeImageHeap)
+                .map(WasmQuarkusConfig.ModuleConfig::name)
+                .collect(Collectors.toSet());
+        for (GeneratedWasmCodeBuildItem buildItem : generatedWasmCodeBuildItems) {
+            final String name = buildItem.getName();
+            if (storedNames.contains(name)) {
+                LOG.info("Wasm module " + name + " will be stored in the native image heap");
+                recorder.storeWasmModuleInImageHeap(name);
+            }
+        }
+    }
+
+    /**
+     * A build step that consumes the build items generated by
+     * {@link #generate(WasmQuarkusConfig, OutputTargetBuildItem)}
      * to collect a list of {@link GeneratedResourceBuildItem} referencing the generated {@code .meta} files.
+     * <p>
+     * The {@code .meta} files of the Wasm modules that enable {@code compress-meta} are compressed with deflate, and
+     * the {@code .meta} files of the Wasm modules that are stored in the native image heap are not registered as
+     * native image resources, since they are not read at runtime.
+     * </p>
      *
+     * @param config The application configuration, storing all the configured Wasm modules
      * @param generatedWasmCodeBuildItems The list of {@link GeneratedWasmCodeBuildItem} items that will be used
      *        to collect all the generated {@code .meta} files
      * @param generatedResourceBuildItemBuildProducer The producer that will generate {@link GeneratedResourceBuildItem}
      *        instances, referencing the generated {@code .meta} files.
+     * @param nativeImageResourceBuildItemBuildProducer The producer that registers the {@code .meta} files as native
+     *        image resources
      */
     @BuildStep
-    public void collectGeneratedMetaWasm(
+    public void collectGeneratedMetaWasm(WasmQuarkusConfig config,
             List<GeneratedWasmCodeBuildItem> generatedWasmCodeBuildItems,
             BuildProducer<GeneratedResourceBuildItem> generatedResourceBuildItemBuildProducer,
             BuildProducer<NativeImageResourceBuildItem> nativeImageResourceBuildItemBuildProducer)
             throws IOException {
 
+        final Map<String, WasmQuarkusConfig.ModuleConfig> moduleConfigs = config.modules().values().stream()
+                .collect(Collectors.toMap(WasmQuarkusConfig.ModuleConfig::name, Function.identity(), (a, b) -> a));
         for (GeneratedWasmCodeBuildItem buildItem : generatedWasmCodeBuildItems) {
             final String name = buildItem.getName();
+            final WasmQuarkusConfig.ModuleConfig moduleConfig = moduleConfigs.get(name);
             final Path metaWasm = buildItem.getMetaWasm();
             final String resourcePath = WasmQuarkusUtils.getWasmModuleClassPath(name);
             final String resource = resourcePath + "/" + metaWasm.getFileName();
             LOG.info("Collecting the generated .meta file: " + metaWasm + " for " + buildItem.getName() + ", as a resource "
                     + resource);
-            generatedResourceBuildItemBuildProducer.produce(new GeneratedResourceBuildItem(resource,
-                    Files.readAllBytes(metaWasm)));
-            // register meta Wasm for Native mode
+            byte[] content = Files.readAllBytes(metaWasm);
+            if (moduleConfig.compressMeta()) {
+                final int size = content.length;
+                content = deflate(content);
+                LOG.info("Compressed the .meta file for " + name + " from " + size + " to " + content.length + " bytes");
+            }
+            generatedResourceBuildItemBuildProducer.produce(new GeneratedResourceBuildItem(resource, content));
+            // register meta Wasm for Native mode, unless the parsed Wasm module is stored in the image heap
+            if (!moduleConfig.nativeImageHeap()) {
+                nativeImageResourceBuildItemBuildProducer.produce(new NativeImageResourceBuildItem(resource));
+            }
+        }
+    }
+
+    /**
+     * Embeds the files and directories configured via {@code quarkus.chicory.modules.<module-key>.wasi.embed} into a
+     * zip archive resource, which is loaded at runtime into the in-memory WASI filesystem of the Wasm module, so that
+     * the guests read them without any disk access.
+     *
+     * @param config The application configuration, storing all the configured Wasm modules
+     * @param outputTarget The build output target providing the base directory for resolving file paths
+     * @param generatedResourceBuildItemBuildProducer The producer that will generate {@link GeneratedResourceBuildItem}
+     *        instances, referencing the embedded files archives
+     * @param nativeImageResourceBuildItemBuildProducer The producer that registers the embedded files archives as native
+     *        image resources
+     */
+    @BuildStep
+    public void embedWasiFiles(WasmQuarkusConfig config, OutputTargetBuildItem outputTarget,
+            BuildProducer<GeneratedResourceBuildItem> generatedResourceBuildItemBuildProducer,
+            BuildProducer<NativeImageResourceBuildItem> nativeImageResourceBuildItemBuildProducer)
+            throws IOException {
+
+        final Path baseDir = outputTarget.getOutputDirectory().getParent().toAbsolutePath();
+        for (Map.Entry<String, WasmQuarkusConfig.ModuleConfig> entry : config.modules().entrySet()) {
+            final WasmQuarkusConfig.ModuleConfig moduleConfig = entry.getValue();
+            if (moduleConfig.wasi().embed().isEmpty()) {
+                continue;
+            }
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (ZipOutputStream zip = new ZipOutputStream(content)) {
+                for (String embedded : moduleConfig.wasi().embed().get()) {
+                    final Path path = baseDir.resolve(embedded).normalize();
+                    if (!Files.exists(path)) {
+                        throw new IllegalStateException("Embedded WASI file " + path + " of Wasm module "
+                                + entry.getKey() + " is not found");
+                    }
+                    final Path parent = path.getParent();
+                    // sorted, so that the archive is reproducible
+                    try (Stream<Path> files = Files.walk(path).sorted()) {
+                        for (Path file : files.collect(Collectors.toList())) {
+                            final String name = parent.relativize(file).toString().replace('\\', '/');
+                            if (Files.isDirectory(file)) {
+                                zip.putNextEntry(new ZipEntry(name + "/"));
+                            } else {
+                                zip.putNextEntry(new ZipEntry(name));
+                                Files.copy(file, zip);
+                            }
+                            zip.closeEntry();
+                        }
+                    }
+                }
+            }
+            final String resource = WasmQuarkusUtils.getWasiFilesResource(moduleConfig.name());
+            LOG.info("Embedding " + content.size() + " bytes of WASI files for " + entry.getKey() + ", as a resource "
+                    + resource);
+            generatedResourceBuildItemBuildProducer.produce(new GeneratedResourceBuildItem(resource, content.toByteArray()));
             nativeImageResourceBuildItemBuildProducer.produce(new NativeImageResourceBuildItem(resource));
         }
     }
 
+    private static byte[] deflate(final byte[] content) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream(content.length / 2);
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream os = new DeflaterOutputStream(result, deflater)) {
+            os.write(content);
+        } finally {
+            deflater.end();
+        }
+        return result.toByteArray();
+    }
+
     /**
      * A build step that consumes the build items generated by
-     * {@link #generate(WasmQuarkusConfig, OutputTargetBuildItem, BuildProducer)}
+     * {@link #generate(WasmQuarkusConfig, OutputTargetBuildItem)}
      * to collect a list of {@link GeneratedResourceBuildItem} referencing the generated {@code .java} files.
      *
      * @param generatedWasmCodeBuildItems The list of {@link GeneratedWasmCodeBuildItem} items that will be used
@@ -309,27 +692,40 @@ class QuarkusWasmProcessor {
     }
 
     /**
-     * Only in dev mode, the configured Wasm modules that define a filesystem path are added to the watched resources.
+     * Only in dev mode, the statically configured Wasm modules are added to the watched resources, i.e. the ones that
+     * define a filesystem path, and the ones that define a resource.
+     * <p>
+     * A change to a Wasm module that enables {@code dev-swap} and can be swapped within its context doesn't restart the
+     * application, since the Wasm module is watched and swapped at runtime. Any other change restarts the application.
+     * </p>
      *
      * @param wasmQuarkusConfig The application configuration, storing all the configured modules.
      * @param outputTarget The build output target providing the base directory for resolving file paths.
+     * @param combinedIndex The application index, used to find the Wasm modules whose exports are injected
      * @return A list of {@link HotDeploymentWatchedFileBuildItem}, representing the collection of
      *         Wasm module files that will be watched in dev mode.
      */
     @BuildStep(onlyIf = IsDevelopment.class)
     List<HotDeploymentWatchedFileBuildItem> addWatchedResources(WasmQuarkusConfig wasmQuarkusConfig,
-            OutputTargetBuildItem outputTarget) {
+            OutputTargetBuildItem outputTarget, CombinedIndexBuildItem combinedIndex) {
 
         List<HotDeploymentWatchedFileBuildItem> result = new ArrayList<>();
 
+        final Set<String> exportingModules = WasmExportResolver.moduleKeys(combinedIndex.getIndex(), wasmQuarkusConfig);
         for (Map.Entry<String, WasmQuarkusConfig.ModuleConfig> entry : wasmQuarkusConfig.modules().entrySet()) {
             final WasmQuarkusConfig.ModuleConfig moduleConfig = entry.getValue();
-            final Path wasmFile;
+            final boolean restartNeeded = !isSwappable(entry.getKey(), moduleConfig, exportingModules);
+            final String location;
             if (moduleConfig.wasmFile().isPresent()) {
-                wasmFile = moduleConfig.wasmFileAbsolutePath(outputTarget.getOutputDirectory().getParent());
-                LOG.info("Adding " + wasmFile + " to the collection of watched resources (dev mode)");
-                result.add(new HotDeploymentWatchedFileBuildItem(wasmFile.toAbsolutePath().toString()));
+                location = moduleConfig.wasmFileAbsolutePath(outputTarget.getOutputDirectory().getParent()).toString();
+            } else if (moduleConfig.wasmResource().isPresent()) {
+                location = moduleConfig.wasmResource().get();
+            } else {
+                continue;
             }
+            LOG.info("Adding " + location + " to the collection of watched resources (dev mode), "
+                    + (restartNeeded ? "a change restarts the application" : "a change swaps Wasm module " + entry.getKey()));
+            result.add(new HotDeploymentWatchedFileBuildItem(location, restartNeeded));
         }
         return result;
     }
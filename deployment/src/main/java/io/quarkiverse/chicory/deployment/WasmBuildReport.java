@@ -0,0 +1,242 @@
+package io.quarkiverse.chicory.deployment;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jboss.logging.Logger;
+
+import com.dylibso.chicory.wasm.Parser;
+import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.Export;
+import com.dylibso.chicory.wasm.types.ExportSection;
+import com.dylibso.chicory.wasm.types.ExternalType;
+import com.dylibso.chicory.wasm.types.FunctionImport;
+import com.dylibso.chicory.wasm.types.FunctionType;
+
+/**
+ * Writes a JSON report describing the code generated at build time for a Wasm module, so that code size and
+ * performance regressions can be tracked by a pipeline.
+ * <p>
+ * The report contains the compile time, the generated classes and their sizes, the generated methods whose bytecode
+ * is close to the 64KB JVM limit, the functions that are interpreted, either because they are configured as such or
+ * because the compiler fell back to the interpreter, and the signatures of the exported functions.
+ */
+final class WasmBuildReport {
+
+    private static final Logger LOG = Logger.getLogger(WasmBuildReport.class);
+    // the JVM rejects methods whose bytecode is larger than 64KB
+    private static final int MAX_METHOD_SIZE = 65535;
+    private static final int LARGE_METHOD_SIZE = MAX_METHOD_SIZE * 3 / 4;
+
+    private WasmBuildReport() {
+    }
+
+    /**
+     * Writes the build report of a Wasm module.
+     *
+     * @param key The configuration key of the Wasm module
+     * @param name The configured name of the Wasm module
+     * @param wasmFile The compiled Wasm module
+     * @param compileTimeMillis The time spent generating the code, in milliseconds
+     * @param generatedClasses The generated {@code .class} files
+     * @param configuredInterpretedFunctions The indexes of the functions configured to be interpreted
+     * @param interpretedFunctions The indexes of all the functions that are interpreted
+     * @param target The file where the report is written
+     * @throws IOException If the Wasm module or the generated classes cannot be read, or the report cannot be written
+     */
+    static void write(final String key, final String name, final Path wasmFile, final long compileTimeMillis,
+            final List<Path> generatedClasses, final Set<Integer> configuredInterpretedFunctions,
+            final Set<Integer> interpretedFunctions, final Path target) throws IOException {
+        final WasmModule module = Parser.parse(wasmFile);
+        final int importedFunctions = module.importSection().count(ExternalType.FUNCTION);
+
+        final StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"module\": ").append(quote(key)).append(",\n");
+        json.append("  \"name\": ").append(quote(name)).append(",\n");
+        json.append("  \"wasmFile\": ").append(quote(wasmFile.toString())).append(",\n");
+        json.append("  \"wasmSize\": ").append(Files.size(wasmFile)).append(",\n");
+        json.append("  \"compileTimeMillis\": ").append(compileTimeMillis).append(",\n");
+        json.append("  \"importedFunctions\": ").append(importedFunctions).append(",\n");
+        json.append("  \"functions\": ").append(module.functionSection().functionCount()).append(",\n");
+
+        long totalClassSize = 0;
+        final List<String> classes = new ArrayList<>();
+        final List<String> largeMethods = new ArrayList<>();
+        for (Path classFile : generatedClasses) {
+            final byte[] bytes = Files.readAllBytes(classFile);
+            totalClassSize += bytes.length;
+            final String className = classFile.getFileName().toString().replace(".class", "");
+            classes.add("{ \"name\": " + quote(className) + ", \"size\": " + bytes.length + " }");
+            collectLargeMethods(className, bytes, largeMethods);
+        }
+        json.append("  \"classCount\": ").append(generatedClasses.size()).append(",\n");
+        json.append("  \"classSize\": ").append(totalClassSize).append(",\n");
+        appendArray(json, "classes", classes);
+        json.append(",\n");
+        appendArray(json, "largeMethods", largeMethods);
+        json.append(",\n");
+
+        final Set<Integer> fallbackFunctions = new TreeSet<>(interpretedFunctions);
+        fallbackFunctions.removeAll(configuredInterpretedFunctions);
+        json.append("  \"interpretedFunctions\": ").append(new TreeSet<>(configuredInterpretedFunctions)).append(",\n");
+        json.append("  \"fallbackFunctions\": ").append(fallbackFunctions).append(",\n");
+
+        final List<String> exports = new ArrayList<>();
+        final ExportSection exportSection = module.exportSection();
+        for (int i = 0; i < exportSection.exportCount(); i++) {
+            final Export export = exportSection.getExport(i);
+            if (export.exportType() == ExternalType.FUNCTION) {
+                exports.add("{ \"name\": " + quote(export.name()) + ", \"index\": " + export.index()
+                        + ", \"signature\": " + quote(functionType(module, importedFunctions, export.index()).toString())
+                        + " }");
+            }
+        }
+        appendArray(json, "exports", exports);
+        json.append("\n}\n");
+
+        Files.createDirectories(target.getParent());
+        Files.writeString(target, json);
+        if (!fallbackFunctions.isEmpty()) {
+            LOG.warn("The compiler fell back to the interpreter for " + fallbackFunctions.size() + " functions of "
+                    + key + ", see " + target);
+        }
+        LOG.info("Build report of " + key + " written to " + target);
+    }
+
+    private static FunctionType functionType(final WasmModule module, final int importedFunctions, final int index) {
+        if (index < importedFunctions) {
+            return module.typeSection().getType(module.importSection().stream()
+                    .filter(FunctionImport.class::isInstance)
+                    .map(FunctionImport.class::cast)
+                    .skip(index)
+                    .findFirst()
+                    .orElseThrow()
+                    .typeIndex());
+        }
+        return module.functionSection().getFunctionType(index - importedFunctions, module.typeSection());
+    }
+
+    /**
+     * Collects the methods of a class file whose bytecode is larger than {@link #LARGE_METHOD_SIZE}.
+     */
+    private static void collectLargeMethods(final String className, final byte[] bytes, final List<String> largeMethods)
+            throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        // magic number and version
+        in.skipBytes(8);
+        final int constantPoolCount = in.readUnsignedShort();
+        final String[] utf8 = new String[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            final int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[i] = in.readUTF();
+                    break;
+                case 5:
+                case 6:
+                    // long and double constants take two entries
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    in.skipBytes(4);
+                    break;
+                case 15:
+                    in.skipBytes(3);
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    in.skipBytes(2);
+                    break;
+                default:
+                    throw new IOException("Unexpected constant pool tag " + tag + " in class " + className);
+            }
+        }
+        // access flags, this class and super class
+        in.skipBytes(6);
+        in.skipBytes(2 * in.readUnsignedShort());
+        final int fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            in.skipBytes(6);
+            skipAttributes(in);
+        }
+        final int methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            in.skipBytes(2);
+            final String methodName = utf8[in.readUnsignedShort()];
+            in.skipBytes(2);
+            final int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                final String attributeName = utf8[in.readUnsignedShort()];
+                final int length = in.readInt();
+                if ("Code".equals(attributeName)) {
+                    // max stack and max locals
+                    in.skipBytes(4);
+                    final int codeSize = in.readInt();
+                    if (codeSize > LARGE_METHOD_SIZE) {
+                        largeMethods.add("{ \"class\": " + quote(className) + ", \"method\": " + quote(methodName)
+                                + ", \"codeSize\": " + codeSize + " }");
+                    }
+                    in.skipBytes(length - 8);
+                } else {
+                    in.skipBytes(length);
+                }
+            }
+        }
+    }
+
+    private static void skipAttributes(final DataInputStream in) throws IOException {
+        final int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private static void appendArray(final StringBuilder json, final String name, final Collection<String> values) {
+        json.append("  ").append(quote(name)).append(": [");
+        if (!values.isEmpty()) {
+            json.append("\n    ").append(String.join(",\n    ", values)).append("\n  ");
+        }
+        json.append("]");
+    }
+
+    private static String quote(final String value) {
+        final StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
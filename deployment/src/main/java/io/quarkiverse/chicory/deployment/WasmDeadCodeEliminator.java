@@ -0,0 +1,193 @@
+package io.quarkiverse.chicory.deployment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jboss.logging.Logger;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.wasm.Parser;
+import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.Element;
+import com.dylibso.chicory.wasm.types.Export;
+import com.dylibso.chicory.wasm.types.ExportSection;
+import com.dylibso.chicory.wasm.types.ExternalType;
+import com.dylibso.chicory.wasm.types.Global;
+import com.dylibso.chicory.wasm.types.Instruction;
+
+/**
+ * Replaces the functions of a Wasm module that can't be reached by stubs that trap, before the Wasm module is compiled
+ * at build time, so that no bytecode is generated for them.
+ * <p>
+ * A function is reachable if it is called, directly or via {@code ref.func}, by a reachable function, starting from
+ * the kept exported functions, the start function, the exported {@code _start} function, the table elements and the global
+ * initializers. Function indexes
+ * are left unchanged, therefore the exports, the tables and the {@code interpreted-functions} configuration are still
+ * valid.
+ */
+final class WasmDeadCodeEliminator {
+
+    private static final Logger LOG = Logger.getLogger(WasmDeadCodeEliminator.class);
+    private static final int CODE_SECTION_ID = 10;
+    // no locals, unreachable, end
+    private static final byte[] UNREACHABLE_BODY = { 0x00, 0x00, 0x0b };
+
+    private WasmDeadCodeEliminator() {
+    }
+
+    /**
+     * Writes a copy of a Wasm module in which the unreachable functions are replaced by stubs that trap.
+     *
+     * @param key The configuration key of the Wasm module
+     * @param wasmFile The Wasm module
+     * @param keepExports The names of the exported functions that are kept, or all of them if empty
+     * @param target The file where the copy of the Wasm module is written
+     * @return The {@code target} file
+     * @throws IOException If the Wasm module cannot be read or written
+     * @throws IllegalStateException If one of the kept exports is not an exported function of the Wasm module
+     */
+    static Path eliminate(final String key, final Path wasmFile, final Optional<List<String>> keepExports,
+            final Path target) throws IOException {
+        final byte[] wasm = Files.readAllBytes(wasmFile);
+        final WasmModule module = Parser.parse(wasm);
+        final int importedFunctions = module.importSection().count(ExternalType.FUNCTION);
+        final BitSet reachable = reachableFunctions(key, module, keepExports);
+        final int functionCount = importedFunctions + module.functionSection().functionCount();
+        final int stubbed = functionCount - importedFunctions
+                - reachable.get(importedFunctions, functionCount).cardinality();
+        LOG.info("Dead code elimination replaced " + stubbed + " out of " + (functionCount - importedFunctions)
+                + " functions with stubs for " + key);
+        Files.createDirectories(target.getParent());
+        Files.write(target, stubUnreachableFunctions(wasm, reachable, importedFunctions));
+        return target;
+    }
+
+    private static BitSet reachableFunctions(final String key, final WasmModule module,
+            final Optional<List<String>> keepExports) {
+        final int importedFunctions = module.importSection().count(ExternalType.FUNCTION);
+        final Deque<Integer> pending = new ArrayDeque<>();
+        final ExportSection exports = module.exportSection();
+        final Set<String> missingExports = new HashSet<>(keepExports.orElse(List.of()));
+        for (int i = 0; i < exports.exportCount(); i++) {
+            final Export export = exports.getExport(i);
+            // the _start function is run when the Wasm module is instantiated
+            if (export.exportType() == ExternalType.FUNCTION && (keepExports.isEmpty()
+                    || keepExports.get().contains(export.name()) || export.name().equals(Instance.START_FUNCTION_NAME))) {
+                pending.add(export.index());
+                missingExports.remove(export.name());
+            }
+        }
+        if (!missingExports.isEmpty()) {
+            throw new IllegalStateException("Wasm module " + key + " has no exported functions named " + missingExports
+                    + ", check the keep-exports configuration");
+        }
+        module.startSection().ifPresent(start -> pending.add((int) start.startIndex()));
+        for (Element element : module.elementSection().elements()) {
+            for (List<Instruction> initializer : element.initializers()) {
+                addReferencedFunctions(initializer, pending);
+            }
+        }
+        for (Global global : module.globalSection().globals()) {
+            addReferencedFunctions(global.initInstructions(), pending);
+        }
+
+        final BitSet reachable = new BitSet();
+        while (!pending.isEmpty()) {
+            final int index = pending.pop();
+            if (reachable.get(index)) {
+                continue;
+            }
+            reachable.set(index);
+            if (index >= importedFunctions) {
+                addReferencedFunctions(module.codeSection().getFunctionBody(index - importedFunctions).instructions(),
+                        pending);
+            }
+        }
+        return reachable;
+    }
+
+    private static void addReferencedFunctions(final List<? extends Instruction> instructions,
+            final Deque<Integer> pending) {
+        for (Instruction instruction : instructions) {
+            switch (instruction.opcode()) {
+                case CALL:
+                case RETURN_CALL:
+                case REF_FUNC:
+                    pending.add((int) instruction.operand(0));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static byte[] stubUnreachableFunctions(final byte[] wasm, final BitSet reachable,
+            final int importedFunctions) {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream(wasm.length);
+        // magic number and version
+        result.write(wasm, 0, 8);
+        final int[] position = { 8 };
+        while (position[0] < wasm.length) {
+            final int sectionStart = position[0];
+            final int sectionId = wasm[position[0]++] & 0xff;
+            final int sectionSize = (int) readVarUInt(wasm, position);
+            final int sectionEnd = position[0] + sectionSize;
+            if (sectionId != CODE_SECTION_ID) {
+                result.write(wasm, sectionStart, sectionEnd - sectionStart);
+            } else {
+                final ByteArrayOutputStream code = new ByteArrayOutputStream(sectionSize);
+                final int bodyCount = (int) readVarUInt(wasm, position);
+                writeVarUInt(code, bodyCount);
+                for (int i = 0; i < bodyCount; i++) {
+                    final int bodyStart = position[0];
+                    final int bodySize = (int) readVarUInt(wasm, position);
+                    final int bodyEnd = position[0] + bodySize;
+                    if (reachable.get(importedFunctions + i)) {
+                        code.write(wasm, bodyStart, bodyEnd - bodyStart);
+                    } else {
+                        writeVarUInt(code, UNREACHABLE_BODY.length);
+                        code.write(UNREACHABLE_BODY, 0, UNREACHABLE_BODY.length);
+                    }
+                    position[0] = bodyEnd;
+                }
+                result.write(CODE_SECTION_ID);
+                writeVarUInt(result, code.size());
+                result.write(code.toByteArray(), 0, code.size());
+            }
+            position[0] = sectionEnd;
+        }
+        return result.toByteArray();
+    }
+
+    private static long readVarUInt(final byte[] bytes, final int[] position) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            result |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    private static void writeVarUInt(final ByteArrayOutputStream out, long value) {
+        do {
+            byte b = (byte) (value & 0x7f);
+            value >>>= 7;
+            if (value != 0) {
+                b |= (byte) 0x80;
+            }
+            out.write(b);
+        } while (value != 0);
+    }
+}
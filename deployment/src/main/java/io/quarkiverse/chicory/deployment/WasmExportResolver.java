@@ -0,0 +1,172 @@
+package io.quarkiverse.chicory.deployment;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationValue;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+import org.jboss.logging.Logger;
+
+import com.dylibso.chicory.wasm.Parser;
+import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.Export;
+import com.dylibso.chicory.wasm.types.ExportSection;
+import com.dylibso.chicory.wasm.types.ExternalType;
+
+import io.quarkiverse.chicory.runtime.WasmQuarkusConfig;
+import io.quarkiverse.chicory.runtime.WasmQuarkusUtils;
+import io.quarkiverse.chicory.runtime.wasm.WasmExport;
+
+/**
+ * Resolves the {@link WasmExport} injection points of an application against the export section of the statically
+ * configured Wasm modules.
+ */
+final class WasmExportResolver {
+
+    static final DotName WASM_EXPORT = DotName.createSimple(WasmExport.class.getName());
+    private static final Logger LOG = Logger.getLogger(WasmExportResolver.class);
+
+    private final WasmQuarkusConfig config;
+    private final Path baseDir;
+    private final Map<String, WasmModule> parsedModules = new HashMap<>();
+
+    WasmExportResolver(final WasmQuarkusConfig config, final Path baseDir) {
+        this.config = config;
+        this.baseDir = baseDir;
+    }
+
+    /**
+     * Resolves all the distinct {@link WasmExport} qualifiers used by the application.
+     *
+     * @param index The application index
+     * @return The list of resolved exports
+     * @throws IllegalStateException listing all the injection points that can't be resolved
+     */
+    List<ResolvedExport> resolve(final IndexView index) {
+        final Map<String, ResolvedExport> resolved = new LinkedHashMap<>();
+        final List<String> errors = new ArrayList<>();
+        for (AnnotationInstance annotation : index.getAnnotations(WASM_EXPORT)) {
+            final String name = annotation.value().asString();
+            final AnnotationValue moduleValue = annotation.value("module");
+            final String module = moduleValue == null ? "" : moduleValue.asString();
+            final String id = module + "/" + name;
+            if (resolved.containsKey(id)) {
+                continue;
+            }
+            try {
+                resolved.put(id, resolve(module, name));
+            } catch (IllegalStateException e) {
+                errors.add(e.getMessage() + ", at " + annotation.target());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Cannot resolve @WasmExport injection points:\n\t- "
+                    + String.join("\n\t- ", errors));
+        }
+        return new ArrayList<>(resolved.values());
+    }
+
+    /**
+     * Returns the keys of the Wasm modules whose exports are injected by the application, without resolving the
+     * exports.
+     *
+     * @param index The application index
+     * @param config The application configuration, storing all the configured Wasm modules
+     * @return The keys of the Wasm modules referenced by a {@link WasmExport} qualifier
+     */
+    static Set<String> moduleKeys(final IndexView index, final WasmQuarkusConfig config) {
+        final Set<String> result = new HashSet<>();
+        for (AnnotationInstance annotation : index.getAnnotations(WASM_EXPORT)) {
+            final AnnotationValue moduleValue = annotation.value("module");
+            if (moduleValue != null && !moduleValue.asString().isEmpty()) {
+                result.add(moduleValue.asString());
+            } else if (config.modules().size() == 1) {
+                result.add(config.modules().keySet().iterator().next());
+            }
+        }
+        return result;
+    }
+
+    private ResolvedExport resolve(final String module, final String name) {
+        final String key;
+        if (module.isEmpty()) {
+            if (config.modules().size() != 1) {
+                throw new IllegalStateException("The module of export " + name + " must be set, since "
+                        + config.modules().size() + " Wasm modules are configured");
+            }
+            key = config.modules().keySet().iterator().next();
+        } else {
+            key = module;
+        }
+        final WasmQuarkusConfig.ModuleConfig moduleConfig = config.modules().get(key);
+        if (moduleConfig == null) {
+            throw new IllegalStateException("No Wasm module is configured with key " + key);
+        }
+        if (moduleConfig.wasmFile().isEmpty() && moduleConfig.wasmResource().isEmpty()) {
+            throw new IllegalStateException("Wasm module " + key + " is loaded dynamically, its exports can't be resolved");
+        }
+        final ExportSection exports = parsedModules.computeIfAbsent(key, k -> parse(k, moduleConfig)).exportSection();
+        for (int i = 0; i < exports.exportCount(); i++) {
+            final Export export = exports.getExport(i);
+            if (export.name().equals(name)) {
+                if (export.exportType() != ExternalType.FUNCTION) {
+                    throw new IllegalStateException("Export " + name + " of Wasm module " + key + " is a "
+                            + export.exportType() + ", not a function");
+                }
+                return new ResolvedExport(module, key, name, export.index());
+            }
+        }
+        throw new IllegalStateException("Wasm module " + key + " has no export named " + name);
+    }
+
+    private WasmModule parse(final String key, final WasmQuarkusConfig.ModuleConfig moduleConfig) {
+        LOG.debug("Parsing Wasm module " + key + " to resolve its exports");
+        return moduleConfig.wasmFile().isPresent()
+                ? Parser.parse(moduleConfig.wasmFileAbsolutePath(baseDir))
+                : Parser.parse(WasmQuarkusUtils.getWasmPathFromResource(moduleConfig.wasmResource().get()));
+    }
+
+    /**
+     * An exported function resolved at build time.
+     */
+    static final class ResolvedExport {
+        private final String module;
+        private final String moduleKey;
+        private final String name;
+        private final int functionIndex;
+
+        ResolvedExport(final String module, final String moduleKey, final String name, final int functionIndex) {
+            this.module = module;
+            this.moduleKey = moduleKey;
+            this.name = name;
+            this.functionIndex = functionIndex;
+        }
+
+        /**
+         * @return The module as set on the {@link WasmExport} qualifier, possibly empty
+         */
+        String getModule() {
+            return module;
+        }
+
+        String getModuleKey() {
+            return moduleKey;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getFunctionIndex() {
+            return functionIndex;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.quarkiverse.chicory.deployment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.jboss.logging.Logger;
+
+import com.dylibso.chicory.build.time.compiler.Config;
+import com.dylibso.chicory.build.time.compiler.Generator;
+import com.dylibso.chicory.compiler.internal.ByteClassCollector;
+import com.dylibso.chicory.compiler.internal.Compiler;
+import com.dylibso.chicory.compiler.internal.CompilerResult;
+import com.dylibso.chicory.wasm.Parser;
+
+/**
+ * Compiles a Wasm module like {@link Generator#generateResources()} does, but splits the compiled functions into groups
+ * of at most {@code max-functions-per-class} functions, each group being compiled into its own class.
+ * <p>
+ * Neither {@link Generator} nor the public {@code MachineFactoryCompiler} expose the number of functions per class,
+ * therefore this class is the only one of the extension that depends on the internal compiler API of Chicory
+ * ({@link Compiler} and {@link ByteClassCollector}). This API may change in any Chicory release, so it is only used when
+ * {@code max-functions-per-class} is configured, and only with the Chicory version the extension is built and tested
+ * against, see {@link #CHICORY_VERSION}. The {@code dylibso.version} property of the parent POM must be updated
+ * together with this constant.
+ */
+final class WasmFunctionGroupCompiler {
+
+    private static final Logger LOG = Logger.getLogger(WasmFunctionGroupCompiler.class);
+
+    /**
+     * The Chicory version whose internal compiler API this class is written against.
+     */
+    static final String CHICORY_VERSION = "1.6.1";
+
+    private static final String COMPILER_POM_PROPERTIES = "META-INF/maven/com.dylibso.chicory/compiler/pom.properties";
+
+    private WasmFunctionGroupCompiler() {
+    }
+
+    /**
+     * Compiles a Wasm module into groups of at most {@code maxFunctionsPerClass} functions.
+     *
+     * @param generatorConfig The configuration of the Chicory build time compiler
+     * @param maxFunctionsPerClass The maximum number of functions compiled into each generated class
+     * @return The indexes of the functions that will be interpreted
+     * @throws IOException If the generated {@code .class} files cannot be written
+     * @throws IllegalStateException If the Chicory compiler on the classpath is not {@link #CHICORY_VERSION}
+     */
+    static Set<Integer> compile(final Config generatorConfig, final int maxFunctionsPerClass) throws IOException {
+        if (maxFunctionsPerClass <= 0) {
+            throw new IllegalArgumentException("max-functions-per-class must be positive: " + maxFunctionsPerClass);
+        }
+        final String version = compilerVersion();
+        if (version != null && !CHICORY_VERSION.equals(version)) {
+            throw new IllegalStateException("max-functions-per-class relies on the internal compiler API of Chicory "
+                    + CHICORY_VERSION + ", but Chicory " + version + " is used to compile " + generatorConfig.name()
+                    + ". Remove max-functions-per-class or use Chicory " + CHICORY_VERSION);
+        }
+        final CompilerResult compilerResult = Compiler.builder(Parser.parse(generatorConfig.wasmFile()))
+                .withClassName(generatorConfig.name() + "Machine")
+                .withClassCollectorFactory(ByteClassCollector::new)
+                .withMaxFunctionsPerClass(maxFunctionsPerClass)
+                .withInterpreterFallback(generatorConfig.interpreterFallback())
+                .withInterpretedFunctions(generatorConfig.interpretedFunctions())
+                .build()
+                .compile();
+        for (Map.Entry<String, byte[]> entry : compilerResult.classBytes().entrySet()) {
+            final Path classFile = generatorConfig.targetClassFolder().resolve(entry.getKey().replace('.', '/') + ".class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, entry.getValue());
+        }
+        LOG.info("Compiled " + generatorConfig.name() + " into " + compilerResult.classBytes().size() + " classes, with at "
+                + "most " + maxFunctionsPerClass + " functions per class");
+        return compilerResult.interpretedFunctions();
+    }
+
+    /**
+     * Reads the version of the Chicory compiler on the classpath from the Maven metadata of its jar.
+     *
+     * @return The version, or {@code null} if the compiler isn't loaded from a Maven built jar
+     * @throws IOException If the Maven metadata cannot be read
+     */
+    static String compilerVersion() throws IOException {
+        try (InputStream in = Compiler.class.getClassLoader().getResourceAsStream(COMPILER_POM_PROPERTIES)) {
+            if (in == null) {
+                return null;
+            }
+            final Properties properties = new Properties();
+            properties.load(in);
+            return properties.getProperty("version");
+        }
+    }
+}
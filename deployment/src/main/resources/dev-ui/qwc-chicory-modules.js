@@ -0,0 +1,179 @@
+import { LitElement, html, css} from 'lit';
+import { JsonRpc } from 'jsonrpc';
+import { columnBodyRenderer } from '@vaadin/grid/lit.js';
+import '@vaadin/grid';
+import '@vaadin/button';
+import '@vaadin/details';
+import '@vaadin/text-field';
+import '@vaadin/integer-field';
+import 'qui-badge';
+
+/**
+ * This component shows the configured Wasm modules, with their execution mode and performance statistics, and runs
+ * micro-benchmarks of their exported functions
+ */
+export class QwcChicoryModules extends LitElement {
+    jsonRpc = new JsonRpc(this);
+
+    static styles = css`
+        .menubar {
+            display: flex;
+            justify-content: flex-start;
+            align-items: baseline;
+            gap: 10px;
+            padding-left: 5px;
+        }
+        .button {
+            background-color: transparent;
+            cursor: pointer;
+        }
+        .badges {
+            display: flex;
+            flex-wrap: wrap;
+            gap: 5px;
+            padding-bottom: 5px;
+        }
+        .histogram {
+            display: flex;
+            align-items: flex-end;
+            gap: 2px;
+            height: 24px;
+        }
+        .bar {
+            width: 10px;
+            background-color: var(--lumo-primary-color);
+        }
+        .result {
+            padding: 5px;
+            font-size: 85%;
+        }
+        .error {
+            color: var(--lumo-error-text-color);
+        }`;
+
+    static properties = {
+        _modules: {state: true},
+        _buckets: {state: true},
+        _arguments: {state: true},
+        _iterations: {state: true},
+        _benchmarks: {state: true}
+    };
+
+    constructor() {
+        super();
+        this._arguments = '';
+        this._iterations = 10000;
+        this._benchmarks = {};
+    }
+
+    connectedCallback() {
+        super.connectedCallback();
+        this.jsonRpc.getLatencyBuckets().then(jsonRpcResponse => {
+            this._buckets = jsonRpcResponse.result;
+        });
+        this._refresh();
+    }
+
+    render() {
+        if (this._modules) {
+            return html`<div class="menubar">
+                    <vaadin-button theme="small" @click=${() => this._refresh()} class="button">
+                        <vaadin-icon icon="font-awesome-solid:rotate"></vaadin-icon> Refresh
+                    </vaadin-button>
+                    <vaadin-text-field label="Benchmark arguments" placeholder="e.g. 41, 1" theme="small"
+                        .value="${this._arguments}" @value-changed=${e => this._arguments = e.detail.value}>
+                    </vaadin-text-field>
+                    <vaadin-integer-field label="Iterations" min="1" max="1000000" theme="small"
+                        .value="${this._iterations}" @value-changed=${e => this._iterations = e.detail.value}>
+                    </vaadin-integer-field>
+                </div>
+                ${this._modules.map(module => this._renderModule(module))}`;
+        } else {
+            return html`<span>Loading Wasm modules...</span>`;
+        }
+    }
+
+    _renderModule(module) {
+        return html`<vaadin-details opened>
+                <span slot="summary"><b>${module.key}</b> <code>${module.name}</code></span>
+                <div class="badges">
+                    <qui-badge small>${module.executionMode}</qui-badge>
+                    ${module.dynamic ? html`<qui-badge small level="contrast">Dynamic</qui-badge>` : ''}
+                    <qui-badge small level="contrast">Parsed in ${this._millis(module.parsing.averageMicros)}</qui-badge>
+                    <qui-badge small level="contrast">${module.machineCreations.count} machines, ${this._millis(module.machineCreations.averageMicros)} on average</qui-badge>
+                    <qui-badge small level="contrast">${module.instantiations.count} pooled instances, ${this._millis(module.instantiations.averageMicros)} on average</qui-badge>
+                    <qui-badge small level="contrast">${module.memoryPages} memory pages in use, ${module.maxMemoryPages} at most</qui-badge>
+                </div>
+                <vaadin-grid .items="${module.exports}" theme="no-border compact" all-rows-visible>
+                    <vaadin-grid-column auto-width header="Export" path="name" resizable></vaadin-grid-column>
+                    <vaadin-grid-column auto-width header="Calls" path="count" resizable></vaadin-grid-column>
+                    <vaadin-grid-column auto-width header="Average (µs)" path="averageMicros" resizable></vaadin-grid-column>
+                    <vaadin-grid-column auto-width header="Max (µs)" path="maxMicros" resizable></vaadin-grid-column>
+                    <vaadin-grid-column auto-width header="Latency histogram"
+                        ${columnBodyRenderer(this._histogramRenderer, [])}></vaadin-grid-column>
+                    <vaadin-grid-column auto-width header="Benchmark"
+                        ${columnBodyRenderer(e => this._benchmarkRenderer(module, e), [this._benchmarks])}></vaadin-grid-column>
+                </vaadin-grid>
+            </vaadin-details>`;
+    }
+
+    _histogramRenderer(e) {
+        const max = Math.max(1, ...e.histogram);
+        return html`<div class="histogram">
+                ${e.histogram.map((count, i) => html`<div class="bar"
+                    title="${this._buckets ? this._buckets[i] : i}: ${count}"
+                    style="height: ${count === 0 ? 0 : Math.max(2, Math.round(24 * count / max))}px"></div>`)}
+            </div>`;
+    }
+
+    _benchmarkRenderer(module, e) {
+        const id = module.key + '/' + e.name;
+        const result = this._benchmarks[id];
+        return html`<vaadin-button theme="small" @click=${() => this._benchmark(module.key, e.name, id)}
+                    ?disabled=${module.dynamic || (result && result.running)}>
+                    <vaadin-icon icon="font-awesome-solid:gauge-high"></vaadin-icon> Run
+                </vaadin-button>
+                ${this._renderBenchmarkResult(result)}`;
+    }
+
+    _renderBenchmarkResult(result) {
+        if (!result) {
+            return '';
+        }
+        if (result.running) {
+            return html`<span class="result">Running...</span>`;
+        }
+        if (result.error) {
+            return html`<span class="result error">${result.error}</span>`;
+        }
+        return html`<span class="result">p50 ${result.p50Micros}µs, p90 ${result.p90Micros}µs,
+                p99 ${result.p99Micros}µs, max ${result.maxMicros}µs, ${result.callsPerSecond} calls/s</span>`;
+    }
+
+    _benchmark(module, exportName, id) {
+        this._benchmarks = {...this._benchmarks, [id]: {running: true}};
+        this.jsonRpc.benchmark({
+            module: module,
+            export: exportName,
+            arguments: this._arguments,
+            iterations: this._iterations
+        }).then(jsonRpcResponse => {
+            this._benchmarks = {...this._benchmarks, [id]: jsonRpcResponse.result};
+            this._refresh();
+        }).catch(error => {
+            const message = error.error && error.error.message ? error.error.message : 'Benchmark failed';
+            this._benchmarks = {...this._benchmarks, [id]: {error: message}};
+        });
+    }
+
+    _millis(micros) {
+        return micros >= 1000 ? (micros / 1000).toFixed(1) + 'ms' : micros + 'µs';
+    }
+
+    _refresh() {
+        this.jsonRpc.getModules().then(jsonRpcResponse => {
+            this._modules = jsonRpcResponse.result;
+        });
+    }
+}
+customElements.define('qwc-chicory-modules', QwcChicoryModules);
@@ -0,0 +1,60 @@
+package io.quarkiverse.chicory.test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify a JSON build report is written for a build time compiled Wasm module.
+ */
+public class ChicoryBuildReportTest {
+
+    private static final String SPIN_WASM = Paths.get("src/test/resources/limits/spin.wasm").toAbsolutePath()
+            .toString();
+    private static final String REPORT_MESSAGE = "Build report of reported written to ";
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.reported.name", "io.quarkiverse.chicory.test.ReportedModule")
+            .overrideConfigKey("quarkus.chicory.modules.reported.wasm-file", SPIN_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.reported.compiler.max-functions-per-class", "1")
+            .overrideConfigKey("quarkus.chicory.modules.reported.compiler.interpreter-fallback", "FAIL")
+            .overrideConfigKey("quarkus.chicory.modules.reported.compiler.interpreted-functions", "1")
+            .setLogRecordPredicate(r -> r.getMessage().startsWith(REPORT_MESSAGE))
+            .assertLogRecords(records -> {
+                Assertions.assertEquals(1, records.size());
+                final Path report = Paths.get(records.get(0).getMessage().substring(REPORT_MESSAGE.length()));
+                Assertions.assertEquals("reported-build-report.json", report.getFileName().toString());
+                final String json;
+                try {
+                    json = Files.readString(report);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                Assertions.assertTrue(json.contains("\"module\": \"reported\""), json);
+                Assertions.assertTrue(json.contains("\"functions\": 2"), json);
+                Assertions.assertTrue(json.contains("\"name\": \"ReportedModuleMachineFuncGroup_0\""), json);
+                Assertions.assertTrue(json.contains("\"interpretedFunctions\": [1]"), json);
+                Assertions.assertTrue(json.contains("\"fallbackFunctions\": []"), json);
+                Assertions.assertTrue(json.contains("\"largeMethods\": []"), json);
+                Assertions.assertTrue(
+                        json.contains("{ \"name\": \"answer\", \"index\": 1, \"signature\": \"() -> (I32)\" }"),
+                        json);
+            });
+
+    @Test
+    public void testBuildReport() {
+        // the build report is verified by the log record assertion, once the application is stopped
+    }
+}
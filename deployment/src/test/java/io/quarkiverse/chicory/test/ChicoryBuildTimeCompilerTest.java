@@ -0,0 +1,52 @@
+package io.quarkiverse.chicory.test;
+
+import java.nio.file.Paths;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.TrapException;
+
+import io.quarkiverse.chicory.runtime.wasm.ExecutionMode;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the {@link ExecutionMode#BuildTimeCompiler} execution mode runs the code generated at build time in
+ * test mode, like in production mode.
+ */
+public class ChicoryBuildTimeCompilerTest {
+
+    private static final String DCE_WASM = Paths.get("src/test/resources/dce/dce.wasm").toAbsolutePath().toString();
+    private static final String MODULE_NAME = "io.quarkiverse.chicory.test.BuildTimeCompiledModule";
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.build-time.name", MODULE_NAME)
+            .overrideConfigKey("quarkus.chicory.modules.build-time.wasm-file", DCE_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.build-time.compiler.execution-mode", "BuildTimeCompiler")
+            .overrideConfigKey("quarkus.chicory.modules.build-time.compiler.dead-code-elimination", "true")
+            .overrideConfigKey("quarkus.chicory.modules.build-time.compiler.keep-exports", "answer");
+
+    @Inject
+    @Named("build-time")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testGeneratedMachineIsUsed() throws Exception {
+        Assertions.assertEquals(ExecutionMode.BuildTimeCompiler, context.getExecutionMode());
+        final Instance instance = context.instanceBuilder().build();
+        Assertions.assertEquals(MODULE_NAME + "Machine", context.getMachineFactory().apply(instance).getClass().getName());
+        Assertions.assertEquals(42L, instance.export("answer").apply()[0]);
+        // the eliminated export only traps in the build time compiled module
+        Assertions.assertThrows(TrapException.class, () -> instance.export("other").apply());
+    }
+}
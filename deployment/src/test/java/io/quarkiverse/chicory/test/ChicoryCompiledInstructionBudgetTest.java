@@ -0,0 +1,42 @@
+package io.quarkiverse.chicory.test;
+
+import java.nio.file.Paths;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify an instruction budget set for a compiled Wasm module, which couldn't be enforced, fails the
+ * startup.
+ */
+public class ChicoryCompiledInstructionBudgetTest {
+
+    private static final String SPIN_WASM = Paths.get("src/test/resources/limits/spin.wasm").toAbsolutePath()
+            .toString();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.spin.name", "io.quarkiverse.chicory.test.SpinBudgetModule")
+            .overrideConfigKey("quarkus.chicory.modules.spin.wasm-file", SPIN_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.spin.compiler.execution-mode", "RuntimeCompiler")
+            .overrideConfigKey("quarkus.chicory.modules.spin.limits.max-instructions", "10000")
+            .assertException(t -> {
+                Throwable cause = t;
+                while (cause.getCause() != null && !(cause instanceof IllegalStateException)) {
+                    cause = cause.getCause();
+                }
+                Assertions.assertTrue(cause.getMessage().contains("limits.max-instructions can't be enforced"),
+                        cause.getMessage());
+            });
+
+    @Test
+    public void testStartupFails() {
+        Assertions.fail("The startup should have failed");
+    }
+}
@@ -0,0 +1,69 @@
+package io.quarkiverse.chicory.test;
+
+import java.io.InputStream;
+import java.nio.file.Paths;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Machine;
+import com.dylibso.chicory.runtime.TrapException;
+import com.dylibso.chicory.wasm.Parser;
+import com.dylibso.chicory.wasm.WasmModule;
+
+import io.quarkiverse.chicory.runtime.WasmQuarkusUtils;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the functions that are not reachable from the kept exports are replaced by stubs that trap in the
+ * build time compiled Wasm module, while the reachable ones still work.
+ */
+public class ChicoryDeadCodeEliminationTest {
+
+    private static final String DCE_WASM = Paths.get("src/test/resources/dce/dce.wasm").toAbsolutePath().toString();
+    private static final String MODULE_NAME = "io.quarkiverse.chicory.test.DceModule";
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.dce.name", MODULE_NAME)
+            .overrideConfigKey("quarkus.chicory.modules.dce.wasm-file", DCE_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.dce.compiler.dead-code-elimination", "true")
+            .overrideConfigKey("quarkus.chicory.modules.dce.compiler.keep-exports", "answer");
+
+    private Instance instance;
+
+    @BeforeEach
+    public void instantiate() throws Exception {
+        // test mode runs the original Wasm module, so the build time compiled one is instantiated explicitly
+        final WasmModule wasmModule;
+        try (InputStream is = WasmQuarkusUtils.getMetaWasmResourceStream(MODULE_NAME)) {
+            wasmModule = Parser.parse(is.readAllBytes());
+        }
+        final Class<?> machineClass = Thread.currentThread().getContextClassLoader().loadClass(MODULE_NAME + "Machine");
+        instance = Instance.builder(wasmModule)
+                .withMachineFactory(i -> {
+                    try {
+                        return (Machine) machineClass.getConstructor(Instance.class).newInstance(i);
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .build();
+    }
+
+    @Test
+    public void testKeptExport() {
+        Assertions.assertEquals(42L, instance.export("answer").apply()[0]);
+    }
+
+    @Test
+    public void testEliminatedExport() {
+        Assertions.assertThrows(TrapException.class, () -> instance.export("other").apply());
+    }
+}
@@ -0,0 +1,51 @@
+package io.quarkiverse.chicory.test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.chicory.test.devmode.DevUIResource;
+import io.quarkus.test.QuarkusDevModeTest;
+
+/**
+ * Tests that verify the statistics and the micro-benchmarks exposed to the Dev UI in development mode.
+ */
+public class ChicoryDevUITest {
+
+    @RegisterExtension
+    static final QuarkusDevModeTest devModeTest = new QuarkusDevModeTest()
+            .withApplicationRoot((jar) -> jar
+                    .addClass(DevUIResource.class)
+                    .addAsResource("dev-mode-test-application.properties", "application.properties"))
+            .setBuildSystemProperty("project.basedir",
+                    Paths.get("").toAbsolutePath().toString());
+
+    @Test
+    public void testStatistics() {
+        given()
+                .when().get("/test/dev-ui/modules")
+                .then()
+                .statusCode(200)
+                .body(containsString("key=math-module"),
+                        containsString("executionMode=Interpreter"),
+                        matchesPattern(".*machineCreations=\\{count=[1-9].*"),
+                        matchesPattern(".*\\{count=[1-9][^}]*name=operation}.*"));
+    }
+
+    @Test
+    public void testBenchmark() {
+        given()
+                .queryParam("export", "operation")
+                .queryParam("arguments", "10, 5")
+                .when().get("/test/dev-ui/benchmark")
+                .then()
+                .statusCode(200)
+                .body(containsString("iterations=100"),
+                        containsString("callsPerSecond="));
+    }
+}
@@ -0,0 +1,134 @@
+package io.quarkiverse.chicory.test;
+
+import java.nio.file.Paths;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.function.Executable;
+
+import com.dylibso.chicory.runtime.Instance;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmExport;
+import io.quarkiverse.chicory.runtime.wasm.WasmExportHandle;
+import io.quarkiverse.chicory.runtime.wasm.WasmInstance;
+import io.quarkiverse.chicory.runtime.wasm.WasmInstancePool;
+import io.quarkiverse.chicory.runtime.wasm.WasmLimitExceededException;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify guest calls exceeding the configured execution limits are aborted, and that the instances running
+ * them are discarded.
+ */
+public class ChicoryExecutionLimitsTest {
+
+    private static final String SPIN_WASM = Paths.get("src/test/resources/limits/spin.wasm").toAbsolutePath()
+            .toString();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.spin-timeout.name", "io.quarkiverse.chicory.test.SpinTimeoutModule")
+            .overrideConfigKey("quarkus.chicory.modules.spin-timeout.wasm-file", SPIN_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.spin-timeout.instance-scope", "request")
+            .overrideConfigKey("quarkus.chicory.modules.spin-timeout.limits.timeout", "200ms")
+            .overrideConfigKey("quarkus.chicory.modules.spin-compiled.name", "io.quarkiverse.chicory.test.SpinCompiledModule")
+            .overrideConfigKey("quarkus.chicory.modules.spin-compiled.wasm-file", SPIN_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.spin-compiled.compiler.execution-mode", "RuntimeCompiler")
+            .overrideConfigKey("quarkus.chicory.modules.spin-compiled.limits.timeout", "200ms")
+            .overrideConfigKey("quarkus.chicory.modules.spin-fuel.name", "io.quarkiverse.chicory.test.SpinFuelModule")
+            .overrideConfigKey("quarkus.chicory.modules.spin-fuel.wasm-file", SPIN_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.spin-fuel.limits.max-instructions", "10000");
+
+    @Inject
+    @Named("spin-timeout")
+    WasmQuarkusContext timeoutContext;
+
+    @Inject
+    @Named("spin-timeout")
+    WasmInstance timeoutInstance;
+
+    @Inject
+    @WasmExport(module = "spin-timeout", value = "spin")
+    WasmExportHandle spin;
+
+    @Inject
+    @Named("spin-compiled")
+    WasmQuarkusContext compiledContext;
+
+    @Inject
+    @Named("spin-fuel")
+    WasmQuarkusContext fuelContext;
+
+    @Test
+    public void testTimeout() {
+        assertLimitExceeded(timeoutContext.getInstancePool(), WasmLimitExceededException.Limit.Timeout);
+    }
+
+    @Test
+    public void testCompiledTimeout() {
+        assertLimitExceeded(compiledContext.getInstancePool(), WasmLimitExceededException.Limit.Timeout);
+    }
+
+    @Test
+    public void testInstructionBudget() {
+        assertLimitExceeded(fuelContext.getInstancePool(), WasmLimitExceededException.Limit.Instructions);
+    }
+
+    @Test
+    public void testRequestScopedInstanceIsDiscarded() {
+        final ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            final Instance spinning = timeoutInstance.get();
+            final WasmLimitExceededException e = Assertions.assertThrows(WasmLimitExceededException.class,
+                    () -> timeoutInstance.export("spin").apply());
+            Assertions.assertEquals(WasmLimitExceededException.Limit.Timeout, e.limit());
+            Assertions.assertNotSame(spinning, timeoutInstance.get());
+            Assertions.assertEquals(42L, timeoutInstance.export("answer").apply()[0]);
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    @Test
+    public void testEveryCallPathIsBounded() {
+        final Instance instance = timeoutContext.instanceBuilder().build();
+        assertTimeout(() -> instance.export("spin").apply());
+        assertTimeout(() -> spin.apply(instance));
+        assertTimeout(() -> spin.bind(instance).apply());
+        final ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            assertTimeout(() -> timeoutInstance.get().export("spin").apply());
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    private static void assertTimeout(final Executable call) {
+        final WasmLimitExceededException e = Assertions.assertThrows(WasmLimitExceededException.class, call);
+        Assertions.assertEquals(WasmLimitExceededException.Limit.Timeout, e.limit());
+        Assertions.assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    private static void assertLimitExceeded(final WasmInstancePool pool, final WasmLimitExceededException.Limit limit) {
+        final WasmLimitExceededException e = Assertions.assertThrows(WasmLimitExceededException.class,
+                () -> pool.execute(instance -> instance.export("spin").apply()));
+        Assertions.assertEquals(limit, e.limit());
+        Assertions.assertFalse(Thread.currentThread().isInterrupted());
+        // the instance is not given back to the pool
+        Assertions.assertEquals(0, pool.idleCount());
+        // ... and the following calls are not affected
+        Assertions.assertEquals(42L, (long) pool.execute(instance -> instance.export("answer").apply()[0]));
+        Assertions.assertEquals(1, pool.idleCount());
+    }
+}
@@ -0,0 +1,83 @@
+package io.quarkiverse.chicory.test;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Memory;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmInstancePool;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the instances released to the pool of a Wasm module are reset in place to their state right after
+ * instantiation, when {@code pool.reset} is enabled.
+ */
+public class ChicoryInstanceResetTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = MathModule.unitTest("reset", "ResetModule")
+            .overrideConfigKey("quarkus.chicory.modules.reset.pool.reset", "true");
+
+    @Inject
+    @Named("reset")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testInstanceReset() {
+        final WasmInstancePool pool = context.getInstancePool();
+        final Instance instance = pool.borrow();
+        final Memory memory = instance.memory();
+        final int pages = memory.pages();
+        // math.wasm defines the stack pointer as its only mutable global
+        final long stackPointer = instance.global(0).getValue();
+        // the pages written by the instantiation of a new instance are restored by its first reset
+        pool.release(instance);
+        // the most recently released instance is handed out first
+        Assertions.assertSame(instance, pool.borrow());
+        final long restoredPages = context.getRestoredPages();
+
+        memory.writeI32(0, 42);
+        memory.grow(2);
+        memory.writeLong((pages + 1) * Memory.PAGE_SIZE, 7L);
+        instance.global(0).setValue(stackPointer - 16);
+        pool.release(instance);
+
+        // only the two written pages are restored
+        Assertions.assertEquals(restoredPages + 2, context.getRestoredPages());
+        final Instance reset = pool.borrow();
+        Assertions.assertSame(instance, reset);
+        Assertions.assertEquals(pages, memory.pages());
+        Assertions.assertEquals(0, memory.readInt(0));
+        Assertions.assertEquals(stackPointer, reset.global(0).getValue());
+
+        // the pages grown again are zeroed
+        memory.grow(2);
+        Assertions.assertEquals(0L, memory.readLong((pages + 1) * Memory.PAGE_SIZE));
+        pool.release(reset);
+    }
+
+    @Test
+    public void testInstancesShareTheirBaseline() {
+        final WasmInstancePool pool = context.getInstancePool();
+        final Instance first = pool.borrow();
+        final Instance second = pool.borrow();
+        final long stackPointer = first.global(0).getValue();
+
+        // the second instance is reset to the state captured from the first one
+        second.memory().writeI32(Memory.PAGE_SIZE, 42);
+        second.global(0).setValue(stackPointer - 32);
+        pool.release(first);
+        pool.release(second);
+
+        Assertions.assertSame(second, pool.borrow());
+        Assertions.assertEquals(0, second.memory().readInt(Memory.PAGE_SIZE));
+        Assertions.assertEquals(stackPointer, second.global(0).getValue());
+        pool.release(second);
+    }
+}
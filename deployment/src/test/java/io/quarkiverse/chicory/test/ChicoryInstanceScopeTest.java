@@ -0,0 +1,85 @@
+package io.quarkiverse.chicory.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.runtime.Instance;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmInstance;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify injectable {@link WasmInstance} beans honor the configured instance scope.
+ */
+public class ChicoryInstanceScopeTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = MathModule.addTo(MathModule.unitTest("math-request", "MathRequestModule"),
+            "math-thread", "MathThreadModule")
+            .overrideConfigKey("quarkus.chicory.modules.math-request.instance-scope", "request")
+            .overrideConfigKey("quarkus.chicory.modules.math-thread.instance-scope", "per-thread");
+
+    @Inject
+    @Named("math-request")
+    WasmInstance requestInstance;
+
+    @Inject
+    @Named("math-request")
+    WasmQuarkusContext requestContext;
+
+    @Inject
+    @Named("math-thread")
+    WasmInstance threadInstance;
+
+    @Test
+    public void testRequestScopedInstanceIsPooled() {
+        final ManagedContext requestContextController = Arc.container().requestContext();
+        requestContextController.activate();
+        final Instance borrowed;
+        try {
+            borrowed = requestInstance.get();
+            // the same instance is used for the whole request
+            Assertions.assertSame(borrowed, requestInstance.get());
+            Assertions.assertEquals(15L, requestInstance.export("operation").apply(10, 5)[0]);
+        } finally {
+            requestContextController.terminate();
+        }
+        // ... and it is given back to the pool when the request ends
+        Assertions.assertEquals(1, requestContext.getInstancePool().idleCount());
+        Assertions.assertSame(borrowed, requestContext.getInstancePool().borrow());
+    }
+
+    @Test
+    public void testPerThreadInstanceIsConfined() throws ExecutionException, InterruptedException {
+        final Instance current = threadInstance.get();
+        Assertions.assertSame(current, threadInstance.get());
+        Assertions.assertEquals(15L, threadInstance.export("operation").apply(10, 5)[0]);
+
+        final Instance other = CompletableFuture.supplyAsync(() -> threadInstance.get()).get();
+        Assertions.assertNotSame(current, other);
+    }
+
+    @Test
+    public void testEndedThreadInstanceIsGivenBack() throws InterruptedException {
+        final Instance[] instances = new Instance[2];
+        final Thread ended = new Thread(() -> instances[0] = threadInstance.get());
+        ended.start();
+        ended.join();
+
+        // the instance of the ended thread is given back to the pool, then borrowed by the next thread
+        final Thread next = new Thread(() -> instances[1] = threadInstance.get());
+        next.start();
+        next.join();
+        Assertions.assertSame(instances[0], instances[1]);
+    }
+}
@@ -0,0 +1,83 @@
+package io.quarkiverse.chicory.test;
+
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.compiler.internal.Compiler;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Machine;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the build time compiled functions are split into groups of at most
+ * {@code max-functions-per-class} functions, and that the resulting machine works.
+ */
+public class ChicoryMaxFunctionsPerClassTest {
+
+    private static final String SPIN_WASM = Paths.get("src/test/resources/limits/spin.wasm").toAbsolutePath()
+            .toString();
+    // max-functions-per-class uses the internal compiler API of this Chicory version only
+    private static final String CHICORY_VERSION = "1.6.1";
+    private static final String MACHINE_CLASS_NAME = "io.quarkiverse.chicory.test.GroupedModuleMachine";
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.grouped.name", "io.quarkiverse.chicory.test.GroupedModule")
+            .overrideConfigKey("quarkus.chicory.modules.grouped.wasm-file", SPIN_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.grouped.compiler.max-functions-per-class", "1");
+
+    @Inject
+    @Named("grouped")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testChicoryVersion() throws Exception {
+        try (InputStream in = Compiler.class.getClassLoader()
+                .getResourceAsStream("META-INF/maven/com.dylibso.chicory/compiler/pom.properties")) {
+            Assertions.assertNotNull(in);
+            final Properties properties = new Properties();
+            properties.load(in);
+            Assertions.assertEquals(CHICORY_VERSION, properties.getProperty("version"),
+                    "Check that the internal compiler API used for max-functions-per-class is unchanged, then update "
+                            + "WasmFunctionGroupCompiler.CHICORY_VERSION");
+        }
+    }
+
+    @Test
+    public void testFunctionsAreSplitIntoGroups() throws Exception {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        // spin.wasm defines two functions
+        Assertions.assertNotNull(classLoader.loadClass(MACHINE_CLASS_NAME + "FuncGroup_0"));
+        Assertions.assertNotNull(classLoader.loadClass(MACHINE_CLASS_NAME + "FuncGroup_1"));
+        Assertions.assertThrows(ClassNotFoundException.class,
+                () -> classLoader.loadClass(MACHINE_CLASS_NAME + "FuncGroup_2"));
+    }
+
+    @Test
+    public void testGroupedMachine() throws Exception {
+        final Class<?> machineClass = Thread.currentThread().getContextClassLoader().loadClass(MACHINE_CLASS_NAME);
+        final Instance instance = Instance.builder(context.getWasmModule())
+                .withMachineFactory(i -> {
+                    try {
+                        return (Machine) machineClass.getConstructor(Instance.class).newInstance(i);
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .build();
+        Assertions.assertEquals(42L, instance.export("answer").apply()[0]);
+    }
+}
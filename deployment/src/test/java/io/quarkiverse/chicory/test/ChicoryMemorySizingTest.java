@@ -0,0 +1,49 @@
+package io.quarkiverse.chicory.test;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.runtime.Memory;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the memory sizing policy of a Wasm module applies to the instances created via its context, and
+ * that {@code max-pages} caps the memory of a module that declares no maximum size.
+ */
+public class ChicoryMemorySizingTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = MathModule.unitTest("sized", "SizedModule")
+            // math.wasm declares 16 initial pages, and no maximum
+            .overrideConfigKey("quarkus.chicory.modules.sized.memory.reserved-pages", "17")
+            .overrideConfigKey("quarkus.chicory.modules.sized.memory.max-pages", "18")
+            .overrideConfigKey("quarkus.chicory.modules.sized.memory.growth", "Exact");
+
+    @Inject
+    @Named("sized")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testMemorySizing() {
+        final Memory memory = context.instanceBuilder().build().memory();
+        Assertions.assertEquals(16, memory.pages());
+        memory.writeI32(16 * Memory.PAGE_SIZE - 4, 42);
+
+        // within the reservation, then beyond it
+        Assertions.assertEquals(16, memory.grow(1));
+        Assertions.assertEquals(17, memory.grow(1));
+        Assertions.assertEquals(42, memory.readInt(16 * Memory.PAGE_SIZE - 4));
+        memory.writeI32(18 * Memory.PAGE_SIZE - 4, 7);
+        Assertions.assertEquals(7, memory.readInt(18 * Memory.PAGE_SIZE - 4));
+
+        // max-pages caps the memory
+        Assertions.assertEquals(-1, memory.grow(1));
+        Assertions.assertEquals(18, memory.pages());
+    }
+}
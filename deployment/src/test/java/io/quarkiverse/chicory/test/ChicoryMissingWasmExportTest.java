@@ -0,0 +1,51 @@
+package io.quarkiverse.chicory.test;
+
+import java.nio.file.Paths;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmExport;
+import io.quarkiverse.chicory.runtime.wasm.WasmExportHandle;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify an injection point referencing a missing export fails the build.
+ */
+public class ChicoryMissingWasmExportTest {
+
+    private static final String MATH_WASM = Paths.get("src/test/resources/dev-mode/wasm/math.wasm").toAbsolutePath()
+            .toString();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class).addClasses(MissingExportBean.class))
+            .overrideConfigKey("quarkus.chicory.modules.math.name", "io.quarkiverse.chicory.test.MathMissingExportModule")
+            .overrideConfigKey("quarkus.chicory.modules.math.wasm-file", MATH_WASM)
+            .assertException(t -> {
+                Throwable cause = t;
+                while (cause.getCause() != null && !(cause instanceof IllegalStateException)) {
+                    cause = cause.getCause();
+                }
+                Assertions.assertTrue(cause.getMessage().contains("Wasm module math has no export named missing"),
+                        cause.getMessage());
+            });
+
+    @Test
+    public void testBuildFails() {
+        Assertions.fail("The build should have failed");
+    }
+
+    @ApplicationScoped
+    static class MissingExportBean {
+        @Inject
+        @WasmExport(module = "math", value = "missing")
+        WasmExportHandle missing;
+    }
+}
@@ -0,0 +1,75 @@
+package io.quarkiverse.chicory.test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmModuleVersion;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify new versions of a dynamic Wasm module are promoted atomically, while in-flight calls drain on the
+ * previous version.
+ */
+public class ChicoryModuleVersionTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.plugin.name", "io.quarkiverse.chicory.test.PluginModule");
+
+    @Inject
+    @Named("plugin")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testVersionIsPromotedWhileInFlightCallsDrain() throws Exception {
+        final byte[] payload = Files.readAllBytes(Paths.get("src/test/resources/dce/dce.wasm"));
+        Assertions.assertNull(context.getCurrentVersion());
+        Assertions.assertThrows(IllegalStateException.class, () -> context.execute(instance -> null));
+
+        final WasmModuleVersion first = context.deploy(payload);
+        Assertions.assertEquals(1, first.version());
+        Assertions.assertEquals(1, first.instancePool().idleCount(), "The version should be warmed up");
+        Assertions.assertEquals(42L, context.execute(instance -> instance.export("answer").apply()[0]));
+
+        // keep a call in-flight on the first version while the second one is promoted
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch promoted = new CountDownLatch(1);
+        final CompletableFuture<Long> inFlight = CompletableFuture.supplyAsync(() -> context.execute(instance -> {
+            started.countDown();
+            try {
+                promoted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return instance.export("answer").apply()[0];
+        }));
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        final WasmModuleVersion second = context.deploy(payload);
+        Assertions.assertEquals(2, second.version());
+        Assertions.assertSame(second, context.getCurrentVersion());
+        Assertions.assertTrue(first.isRetired());
+        Assertions.assertFalse(first.drained().isDone(), "The in-flight call should still run on the first version");
+        Assertions.assertEquals(7L, context.execute(instance -> instance.export("other").apply()[0]));
+
+        promoted.countDown();
+        Assertions.assertEquals(42L, inFlight.get(10, TimeUnit.SECONDS));
+        first.drained().get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(0, first.instancePool().idleCount());
+        Assertions.assertFalse(second.isRetired());
+    }
+}
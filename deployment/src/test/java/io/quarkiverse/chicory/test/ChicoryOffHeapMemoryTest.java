@@ -0,0 +1,82 @@
+package io.quarkiverse.chicory.test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Memory;
+import com.dylibso.chicory.runtime.TrapException;
+
+import io.quarkiverse.chicory.runtime.wasm.MemoryBackend;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the {@link MemoryBackend#OffHeap} memory backend stores the linear memory of the instances created
+ * via the Wasm module context off the Java heap.
+ */
+public class ChicoryOffHeapMemoryTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = MathModule.unitTest("off-heap", "OffHeapModule")
+            .overrideConfigKey("quarkus.chicory.modules.off-heap.memory.backend", "OffHeap");
+
+    @Inject
+    @Named("off-heap")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testOffHeapMemory() {
+        final long directMemory = directMemoryUsed();
+        final Instance instance = context.instanceBuilder().build();
+        final Memory memory = instance.memory();
+        // the memory is allocated off the Java heap, as a direct buffer
+        Assertions.assertTrue(directMemoryUsed() - directMemory >= (long) memory.pages() * Memory.PAGE_SIZE,
+                "The linear memory is a direct buffer");
+
+        final int pages = memory.pages();
+        Assertions.assertEquals(pages, memory.grow(1));
+        Assertions.assertEquals(pages + 1, memory.pages());
+        final int last = pages * Memory.PAGE_SIZE;
+        memory.writeI32(last, 42);
+        Assertions.assertEquals(42, memory.readInt(last));
+
+        // overlapping copies behave like memmove
+        memory.write(last, new byte[] { 1, 2, 3, 4, 5 });
+        memory.copy(last + 1, last, 4);
+        Assertions.assertArrayEquals(new byte[] { 1, 1, 2, 3, 4 }, memory.readBytes(last, 5));
+        memory.copy(last, last + 1, 4);
+        Assertions.assertArrayEquals(new byte[] { 1, 2, 3, 4, 4 }, memory.readBytes(last, 5));
+
+        Assertions.assertThrows(TrapException.class, () -> memory.readInt((pages + 1) * Memory.PAGE_SIZE - 2));
+    }
+
+    @Test
+    public void testDiscardedMemoryFailsFast() {
+        final Instance instance = context.getInstancePool().borrow();
+        final Memory memory = instance.memory();
+        final long directMemory = directMemoryUsed();
+        context.getInstancePool().discard(instance);
+        // the direct buffer is freed right away, rather than when the garbage collector reclaims it
+        Assertions.assertTrue(directMemory - directMemoryUsed() >= (long) memory.pages() * Memory.PAGE_SIZE,
+                "The linear memory is freed");
+
+        Assertions.assertThrows(IllegalStateException.class, () -> memory.readInt(0));
+        Assertions.assertThrows(IllegalStateException.class, () -> memory.writeI32(0, 42));
+        Assertions.assertThrows(IllegalStateException.class, () -> memory.grow(1));
+    }
+
+    private static long directMemoryUsed() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
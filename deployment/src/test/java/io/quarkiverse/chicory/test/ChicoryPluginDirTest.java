@@ -0,0 +1,85 @@
+package io.quarkiverse.chicory.test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.function.BooleanSupplier;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmModuleVersion;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the payloads dropped into the plugin directory of a dynamic Wasm module are deployed as plugins.
+ */
+public class ChicoryPluginDirTest {
+
+    private static final Path PLUGIN_DIR = Paths.get("target/chicory-plugins").toAbsolutePath();
+    private static final Path DCE_WASM = Paths.get("src/test/resources/dce/dce.wasm").toAbsolutePath();
+    private static final Path MATH_WASM = Paths.get("src/test/resources/dev-mode/wasm/math.wasm").toAbsolutePath();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> {
+                // a payload already present when the application starts
+                try {
+                    Files.createDirectories(PLUGIN_DIR);
+                    Files.copy(DCE_WASM, PLUGIN_DIR.resolve("dce.wasm"), StandardCopyOption.REPLACE_EXISTING);
+                    Files.deleteIfExists(PLUGIN_DIR.resolve("math.wasm"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return ShrinkWrap.create(JavaArchive.class);
+            })
+            .overrideConfigKey("quarkus.chicory.modules.plugins.name", "io.quarkiverse.chicory.test.PluginsModule")
+            .overrideConfigKey("quarkus.chicory.modules.plugins.plugin-dir", PLUGIN_DIR.toString());
+
+    @Inject
+    @Named("plugins")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testPluginsAreDeployedFromTheDirectory() throws Exception {
+        await(() -> context.getPlugins().containsKey("dce"));
+        Assertions.assertEquals(42L, context.execute("dce", instance -> instance.export("answer").apply()[0]));
+
+        // a new payload is deployed as a new plugin
+        Files.copy(MATH_WASM, PLUGIN_DIR.resolve("math.wasm"));
+        await(() -> context.getPlugins().containsKey("math"));
+        Assertions.assertEquals(15L, context.execute("math", instance -> instance.export("operation").apply(10, 5)[0]));
+
+        // a changed payload is deployed as a new version of its plugin
+        final WasmModuleVersion first = context.getPlugins().get("dce");
+        Files.copy(DCE_WASM, PLUGIN_DIR.resolve("dce.wasm"), StandardCopyOption.REPLACE_EXISTING);
+        await(() -> context.getPlugins().get("dce") != first);
+        Assertions.assertTrue(first.isRetired());
+
+        // a deleted payload removes its plugin
+        Files.delete(PLUGIN_DIR.resolve("math.wasm"));
+        await(() -> !context.getPlugins().containsKey("math"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> context.execute("math", instance -> instance.export("operation").apply(10, 5)));
+    }
+
+    private static void await(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assertions.fail("Timed out waiting for the plugin directory to be applied");
+            }
+            Thread.sleep(100);
+        }
+    }
+}
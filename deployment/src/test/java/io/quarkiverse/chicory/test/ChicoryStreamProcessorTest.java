@@ -0,0 +1,113 @@
+package io.quarkiverse.chicory.test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmExecutionLimits;
+import io.quarkiverse.chicory.runtime.wasm.WasmInstancePool;
+import io.quarkiverse.chicory.runtime.wasm.WasmStreamProcessor;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+
+/**
+ * Tests that verify {@link WasmStreamProcessor} streams a payload through a guest via a window in its linear memory.
+ * The upper.wasm guest upper cases its input, see upper.wat.
+ */
+public class ChicoryStreamProcessorTest {
+
+    private static final String UPPER_WASM = Paths.get("src/test/resources/stream/upper.wasm").toAbsolutePath()
+            .toString();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.upper.name", "io.quarkiverse.chicory.test.UpperModule")
+            .overrideConfigKey("quarkus.chicory.modules.upper.wasm-file", UPPER_WASM);
+
+    @Inject
+    @Named("upper")
+    WasmQuarkusContext context;
+
+    private final WasmStreamProcessor processor = WasmStreamProcessor.builder("upper")
+            .withWindowSize(4)
+            .build();
+
+    @Test
+    public void testStream() {
+        final List<byte[]> output = processor
+                .process(context, Multi.createFrom().items(bytes("hello "), bytes("streaming world")))
+                .collect().asList()
+                .await().indefinitely();
+
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        for (byte[] chunk : output) {
+            Assertions.assertTrue(chunk.length <= 4, "Output chunks are bounded by the window");
+            result.writeBytes(chunk);
+        }
+        Assertions.assertEquals("HELLO STREAMING WORLD", result.toString(StandardCharsets.UTF_8));
+        Assertions.assertTrue(context.getInstancePool().idleCount() > 0, "The instance is given back once completed");
+
+        // the window is freed, so the instance can run another stream
+        final List<byte[]> again = processor.process(context, Multi.createFrom().item(bytes("again")))
+                .collect().asList()
+                .await().indefinitely();
+        Assertions.assertEquals(List.of("AGAI", "N"), strings(again));
+    }
+
+    @Test
+    public void testCancelledStream() throws InterruptedException {
+        final CountDownLatch discarded = new CountDownLatch(1);
+        final AtomicReference<String> discardingThread = new AtomicReference<>();
+        final WasmInstancePool pool = new WasmInstancePool(() -> context.instanceBuilder().build(),
+                WasmInstancePool.DEFAULT_MAX_IDLE, WasmExecutionLimits.NONE, instance -> {
+                    discardingThread.set(Thread.currentThread().getName());
+                    discarded.countDown();
+                });
+        final ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "stream-worker"));
+        try {
+            final AssertSubscriber<byte[]> subscriber = WasmStreamProcessor.builder("upper")
+                    .withWindowSize(4)
+                    .withExecutor(executor)
+                    .build()
+                    .process(pool, Multi.createFrom().item(bytes("cancelled stream")))
+                    .subscribe().withSubscriber(AssertSubscriber.create(1));
+            subscriber.awaitItems(1);
+            Assertions.assertEquals(List.of("CANC"), strings(subscriber.getItems()));
+            subscriber.cancel();
+
+            // the instance holds pending output, so it is discarded, on the worker rather than the cancelling thread
+            Assertions.assertTrue(discarded.await(5, TimeUnit.SECONDS), "The instance is discarded once cancelled");
+            Assertions.assertEquals("stream-worker", discardingThread.get());
+            Assertions.assertEquals(0, pool.idleCount(), "The instance is not given back once cancelled");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] bytes(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(final List<byte[]> chunks) {
+        return chunks.stream().map(chunk -> new String(chunk, StandardCharsets.UTF_8)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+package io.quarkiverse.chicory.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.runtime.HostFunction;
+import com.dylibso.chicory.runtime.ImportValues;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.wasm.types.FunctionType;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the WASI integration declared for a Wasm module is applied to the instances created via its
+ * context.
+ */
+public class ChicoryWasiConfigTest {
+
+    private static final Path WASI_FILES = Paths.get("src/test/resources/wasi-files").toAbsolutePath();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = WasiEchoModule.unitTest("wasi", "WasiModule")
+            .overrideConfigKey("quarkus.chicory.modules.wasi.wasi.args", "echo,--verbose")
+            .overrideConfigKey("quarkus.chicory.modules.wasi.wasi.env.GREETING", "hello")
+            .overrideConfigKey("quarkus.chicory.modules.wasi.wasi.preopens.\"/data\"", WASI_FILES.toString());
+
+    @Inject
+    @Named("wasi")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testArguments() {
+        Assertions.assertEquals(List.of("echo", "--verbose"),
+                context.getInstancePool().execute(WasiEchoModule::args));
+    }
+
+    @Test
+    public void testEnvironment() {
+        Assertions.assertEquals(List.of("GREETING=hello"), context.getInstancePool().execute(WasiEchoModule::environ));
+    }
+
+    @Test
+    public void testPreopenedDirectory() throws IOException {
+        Assertions.assertEquals(Files.readString(WASI_FILES.resolve("rules.yaml")),
+                context.getInstancePool().execute(instance -> WasiEchoModule.read(instance, "rules.yaml")));
+    }
+
+    @Test
+    public void testHostFunctionsAreCombinedWithWasi() {
+        final HostFunction hostFunction = new HostFunction("env", "unused", FunctionType.of(List.of(), List.of()),
+                (instance, args) -> null);
+        final Instance instance = context.instanceBuilder(hostFunction).build();
+        Assertions.assertEquals(List.of("GREETING=hello"), WasiEchoModule.environ(instance));
+
+        final Instance combined = context.instanceBuilder()
+                .withImportValues(ImportValues.builder()
+                        .addFunction(context.getWasiHostFunctions())
+                        .addFunction(hostFunction)
+                        .build())
+                .build();
+        Assertions.assertEquals(List.of("GREETING=hello"), WasiEchoModule.environ(combined));
+    }
+}
@@ -0,0 +1,69 @@
+package io.quarkiverse.chicory.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.ReadOnlyFileSystemException;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.wasi.WasiOptions;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the files embedded at build time into the WASI filesystem of a Wasm module are served from an
+ * in-memory filesystem, shared by the instances created via its context.
+ */
+public class ChicoryWasiEmbeddedFilesTest {
+
+    private static final String MATH_WASM = Paths.get("src/test/resources/dev-mode/wasm/math.wasm").toAbsolutePath()
+            .toString();
+    private static final Path WASI_FILES = Paths.get("src/test/resources/wasi-files").toAbsolutePath();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.embedded.name", "io.quarkiverse.chicory.test.EmbeddedModule")
+            .overrideConfigKey("quarkus.chicory.modules.embedded.wasm-file", MATH_WASM)
+            .overrideConfigKey("quarkus.chicory.modules.embedded.wasi.embed",
+                    WASI_FILES.resolve("templates") + "," + WASI_FILES.resolve("rules.yaml"))
+            .overrideConfigKey("quarkus.chicory.modules.embedded.wasi.embed-mount", "/data");
+
+    @Inject
+    @Named("embedded")
+    WasmQuarkusContext context;
+
+    @Test
+    public void testEmbeddedFiles() throws IOException {
+        final WasiOptions options = context.getWasiOptions();
+        Assertions.assertSame(options, context.getWasiOptions());
+
+        final Path root = options.directories().get("/data");
+        Assertions.assertNotNull(root);
+        Assertions.assertNotEquals(WASI_FILES.getFileSystem(), root.getFileSystem());
+        Assertions.assertEquals("Hello, %s!\n", Files.readString(root.resolve("templates/greeting.txt")));
+        Assertions.assertEquals("rule: allow\n", Files.readString(root.resolve("rules.yaml")));
+
+        // the embedded files are shared by the instances, so they can't be changed
+        Assertions.assertTrue(root.getFileSystem().isReadOnly());
+        Assertions.assertThrows(ReadOnlyFileSystemException.class,
+                () -> Files.writeString(root.resolve("rules.yaml"), "rule: deny\n"));
+        Assertions.assertThrows(ReadOnlyFileSystemException.class, () -> Files.delete(root.resolve("rules.yaml")));
+        Assertions.assertThrows(ReadOnlyFileSystemException.class, () -> Files.createFile(root.resolve("new.txt")));
+        Assertions.assertEquals("rule: allow\n", Files.readString(root.resolve("rules.yaml")));
+
+        // the instances get the WASI host functions
+        Assertions.assertEquals(15L,
+                context.getInstancePool().execute(instance -> instance.export("operation").apply(10, 5)[0]));
+    }
+}
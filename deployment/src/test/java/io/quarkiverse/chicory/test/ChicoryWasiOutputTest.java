@@ -0,0 +1,90 @@
+package io.quarkiverse.chicory.test;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.LogRecord;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.chicory.runtime.wasm.WasiRingBuffer;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify the WASI standard streams of a Wasm module go to the configured bounded sinks.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ChicoryWasiOutputTest {
+
+    private static final String STDERR_CATEGORY = "io.quarkiverse.chicory.wasi.output";
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = WasiEchoModule.unitTest("output", "OutputModule")
+            .overrideConfigKey("quarkus.chicory.modules.output.wasi.stdout", "RingBuffer")
+            .overrideConfigKey("quarkus.chicory.modules.output.wasi.output-buffer-size", "8")
+            .setLogRecordPredicate(r -> STDERR_CATEGORY.equals(r.getLoggerName()) && r.getMessage().startsWith("Hello"));
+
+    @Inject
+    @Named("output")
+    WasmQuarkusContext context;
+
+    @Test
+    @Order(1)
+    public void testRingBufferOutput() {
+        final WasiRingBuffer stdout = (WasiRingBuffer) context.getWasiStdout();
+        context.getInstancePool().execute(instance -> {
+            Assertions.assertEquals(0L, WasiEchoModule.write(instance, 1, "Hello "));
+            Assertions.assertEquals("Hello ", stdout.toString(StandardCharsets.UTF_8));
+
+            // only the latest bytes are kept
+            Assertions.assertEquals(0L, WasiEchoModule.write(instance, 1, "Chicory!\n"));
+            return null;
+        });
+        Assertions.assertEquals("hicory!\n", stdout.toString(StandardCharsets.UTF_8));
+        Assertions.assertEquals(15, stdout.written());
+
+        stdout.reset();
+        Assertions.assertEquals(0, stdout.toByteArray().length);
+    }
+
+    @Test
+    @Order(2)
+    public void testLogOutput() throws InterruptedException {
+        Assertions.assertEquals(0L, (long) context.getInstancePool()
+                .execute(instance -> WasiEchoModule.write(instance, 2, "Hello\r\nHello")));
+        // the lines are forwarded asynchronously, and a pending line is only logged once it's complete
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (unitTest.getLogRecords().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        final List<LogRecord> records = unitTest.getLogRecords();
+        Assertions.assertEquals(1, records.size());
+        Assertions.assertEquals("Hello", records.get(0).getMessage());
+        Assertions.assertEquals("WARN", records.get(0).getLevel().getName());
+    }
+
+    @Test
+    @Order(3)
+    public void testLogOutputDoesNotBlock() {
+        // a chatty guest is never blocked, the lines being dropped instead, which is tested last since it also drops
+        // the lines of the other tests
+        final OutputStream stderr = context.getWasiStderr();
+        final byte[] line = "A line which is longer than the output buffer\n".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 100_000; i++) {
+                stderr.write(line);
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package io.quarkiverse.chicory.test;
+
+import java.nio.file.Paths;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmExport;
+import io.quarkiverse.chicory.runtime.wasm.WasmExportHandle;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * Tests that verify {@link WasmExport} injection points are resolved at build time, and bound to instances at runtime.
+ */
+public class ChicoryWasmExportTest {
+
+    private static final String MATH_WASM = Paths.get("src/test/resources/dev-mode/wasm/math.wasm").toAbsolutePath()
+            .toString();
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+            .overrideConfigKey("quarkus.chicory.modules.math.name", "io.quarkiverse.chicory.test.MathExportModule")
+            .overrideConfigKey("quarkus.chicory.modules.math.wasm-file", MATH_WASM);
+
+    @Inject
+    @WasmExport(module = "math", value = "operation")
+    WasmExportHandle operation;
+
+    // the module can be omitted when a single one is configured
+    @Inject
+    @WasmExport("operation")
+    WasmExportHandle defaultModuleOperation;
+
+    @Inject
+    @Named("math")
+    WasmQuarkusContext wasmQuarkusContext;
+
+    @Test
+    public void testPooledInvocation() {
+        Assertions.assertEquals("operation", operation.name());
+        Assertions.assertEquals(15L, operation.apply(10, 5)[0]);
+        Assertions.assertEquals(15L, defaultModuleOperation.apply(10, 5)[0]);
+        Assertions.assertEquals(1, wasmQuarkusContext.getInstancePool().idleCount());
+    }
+
+    @Test
+    public void testBoundInvocation() {
+        final Instance instance = wasmQuarkusContext.instanceBuilder().build();
+        final ExportFunction bound = operation.bind(instance);
+        Assertions.assertEquals(15L, bound.apply(10, 5)[0]);
+        Assertions.assertEquals(15L, operation.apply(instance, 10, 5)[0]);
+    }
+}
@@ -0,0 +1,49 @@
+package io.quarkiverse.chicory.test;
+
+import java.nio.file.Paths;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * The math.wasm Wasm module shared by the tests of the per module configuration, which declares 16 initial memory
+ * pages, no maximum, and a stack pointer as its only mutable global.
+ */
+final class MathModule {
+
+    static final String MATH_WASM = Paths.get("src/test/resources/dev-mode/wasm/math.wasm").toAbsolutePath()
+            .toString();
+
+    private MathModule() {
+    }
+
+    /**
+     * Creates a {@link QuarkusUnitTest} which configures math.wasm as a Wasm module, whose context can be injected with
+     * {@code @Named(moduleKey)}. The configuration specific to the test is added with
+     * {@link QuarkusUnitTest#overrideConfigKey(String, String)}.
+     *
+     * @param moduleKey The key of the Wasm module in {@code quarkus.chicory.modules}
+     * @param name The simple name of the class generated for the Wasm module
+     * @return A {@link QuarkusUnitTest} instance
+     */
+    static QuarkusUnitTest unitTest(final String moduleKey, final String name) {
+        return addTo(new QuarkusUnitTest().setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)), moduleKey,
+                name);
+    }
+
+    /**
+     * Configures math.wasm as another Wasm module of a {@link QuarkusUnitTest}.
+     *
+     * @param unitTest The {@link QuarkusUnitTest} instance
+     * @param moduleKey The key of the Wasm module in {@code quarkus.chicory.modules}
+     * @param name The simple name of the class generated for the Wasm module
+     * @return The given {@link QuarkusUnitTest} instance
+     */
+    static QuarkusUnitTest addTo(final QuarkusUnitTest unitTest, final String moduleKey, final String name) {
+        return unitTest
+                .overrideConfigKey("quarkus.chicory.modules." + moduleKey + ".name", "io.quarkiverse.chicory.test." + name)
+                .overrideConfigKey("quarkus.chicory.modules." + moduleKey + ".wasm-file", MATH_WASM);
+    }
+}
@@ -0,0 +1,110 @@
+package io.quarkiverse.chicory.test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+
+import com.dylibso.chicory.runtime.Instance;
+
+import io.quarkus.test.QuarkusUnitTest;
+
+/**
+ * The echo.wasm WASI guest shared by the tests of the WASI integration, which calls the WASI host functions on behalf
+ * of the tests. Its data is written to, and read from, a buffer of its linear memory.
+ */
+final class WasiEchoModule {
+
+    static final String ECHO_WASM = Paths.get("src/test/resources/wasi/echo.wasm").toAbsolutePath().toString();
+
+    // the guest memory below is used by the guest itself, to call the WASI host functions
+    private static final int BUFFER = 1024;
+    private static final int BUFFER_SIZE = 60 * 1024;
+
+    private WasiEchoModule() {
+    }
+
+    /**
+     * Creates a {@link QuarkusUnitTest} which configures echo.wasm as a Wasm module with WASI enabled, whose context
+     * can be injected with {@code @Named(moduleKey)}. The configuration specific to the test is added with
+     * {@link QuarkusUnitTest#overrideConfigKey(String, String)}.
+     *
+     * @param moduleKey The key of the Wasm module in {@code quarkus.chicory.modules}
+     * @param name The simple name of the class generated for the Wasm module
+     * @return A {@link QuarkusUnitTest} instance
+     */
+    static QuarkusUnitTest unitTest(final String moduleKey, final String name) {
+        return new QuarkusUnitTest()
+                .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class))
+                .overrideConfigKey("quarkus.chicory.modules." + moduleKey + ".name", "io.quarkiverse.chicory.test." + name)
+                .overrideConfigKey("quarkus.chicory.modules." + moduleKey + ".wasm-file", ECHO_WASM)
+                .overrideConfigKey("quarkus.chicory.modules." + moduleKey + ".wasi.enabled", "true");
+    }
+
+    /**
+     * Makes the guest write a text to one of its file descriptors, via {@code fd_write}.
+     *
+     * @param instance An instance of echo.wasm
+     * @param fd The file descriptor, e.g. 1 for {@code stdout}
+     * @param text The text to be written
+     * @return The WASI errno, 0 on success
+     */
+    static long write(final Instance instance, final int fd, final String text) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        instance.memory().write(BUFFER, bytes);
+        return instance.export("write").apply(fd, BUFFER, bytes.length)[0];
+    }
+
+    /**
+     * Makes the guest read its arguments, via {@code args_get}.
+     *
+     * @param instance An instance of echo.wasm
+     * @return The arguments of the guest
+     */
+    static List<String> args(final Instance instance) {
+        return strings(instance, instance.export("args").apply(BUFFER)[0]);
+    }
+
+    /**
+     * Makes the guest read its environment, via {@code environ_get}.
+     *
+     * @param instance An instance of echo.wasm
+     * @return The environment variables of the guest, as {@code NAME=value} strings
+     */
+    static List<String> environ(final Instance instance) {
+        return strings(instance, instance.export("environ").apply(BUFFER)[0]);
+    }
+
+    /**
+     * Makes the guest read a file of its first preopened directory, via {@code path_open} and {@code fd_read}.
+     *
+     * @param instance An instance of echo.wasm
+     * @param path The path of the file, relative to the preopened directory
+     * @return The content of the file, up to the size of the buffer
+     */
+    static String read(final Instance instance, final String path) {
+        final byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        instance.memory().write(BUFFER, bytes);
+        final int content = BUFFER + bytes.length;
+        final long length = instance.export("read").apply(BUFFER, bytes.length, content, BUFFER_SIZE - bytes.length)[0];
+        if (length < 0) {
+            throw new IllegalStateException("The guest failed to read " + path + ": " + length);
+        }
+        return new String(instance.memory().readBytes(content, (int) length), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(final Instance instance, final long size) {
+        if (size < 0) {
+            throw new IllegalStateException("The guest failed to read its strings");
+        }
+        if (size == 0) {
+            return List.of();
+        }
+        // the strings are NUL terminated
+        final byte[] strings = instance.memory().readBytes(BUFFER, (int) size - 1);
+        return Arrays.asList(new String(strings, StandardCharsets.UTF_8).split("\0", -1));
+    }
+}
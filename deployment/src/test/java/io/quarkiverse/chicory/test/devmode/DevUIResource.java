@@ -0,0 +1,40 @@
+package io.quarkiverse.chicory.test.devmode;
+
+import java.io.IOException;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.QueryParam;
+
+import io.quarkiverse.chicory.runtime.devui.ChicoryJsonRPCService;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+
+/**
+ * Exposes the Dev UI JSON-RPC methods as plain text, so that tests don't need the Dev UI.
+ */
+@Path("/test/dev-ui")
+public class DevUIResource {
+
+    private final ChicoryJsonRPCService service = new ChicoryJsonRPCService();
+
+    @Inject
+    @Named("math-module")
+    WasmQuarkusContext wasmQuarkusContext;
+
+    @GET
+    @Path("/modules")
+    public String modules() throws IOException {
+        // called within the same request, since the application may be restarted between requests
+        wasmQuarkusContext.instanceBuilder().build().export("operation").apply(10, 5);
+        return service.getModules().toString();
+    }
+
+    @GET
+    @Path("/benchmark")
+    public String benchmark(@QueryParam("export") String export, @QueryParam("arguments") String arguments)
+            throws IOException {
+        return service.benchmark("math-module", export, arguments, 100).toString();
+    }
+}
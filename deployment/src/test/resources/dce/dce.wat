@@ -0,0 +1,13 @@
+;; Compiled to dce.wasm via: wat2wasm dce.wat -o dce.wasm
+(module
+  ;; reachable from the "answer" export
+  (func $answer (export "answer") (result i32)
+    call $helper)
+  (func $helper (result i32)
+    i32.const 42)
+  ;; only reachable from the "other" export
+  (func $other (export "other") (result i32)
+    i32.const 7)
+  ;; never reachable
+  (func $dead (result i32)
+    i32.const 1))
@@ -0,0 +1,8 @@
+;; Compiled to spin.wasm via: wat2wasm spin.wat -o spin.wasm
+(module
+  ;; never returns
+  (func (export "spin")
+    (loop $forever
+      (br $forever)))
+  (func (export "answer") (result i32)
+    (i32.const 42)))
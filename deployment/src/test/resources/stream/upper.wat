@@ -0,0 +1,44 @@
+;; A guest implementing the streaming protocol of WasmStreamProcessor, which upper cases its input
+(module
+  (memory (export "memory") 3)
+  ;; a bump allocator, whose allocations are freed in the reverse order
+  (global $heap (mut i32) (i32.const 1024))
+  ;; the length of the pending output, which is stored from the third page
+  (global $pending (mut i32) (i32.const 0))
+
+  (func (export "malloc") (param $size i32) (result i32)
+    (global.get $heap)
+    (global.set $heap (i32.add (global.get $heap) (local.get $size))))
+
+  (func (export "free") (param $ptr i32)
+    (global.set $heap (local.get $ptr)))
+
+  (func (export "upper_write") (param $ptr i32) (param $len i32) (result i32)
+    (local $i i32)
+    (local $b i32)
+    (if (i32.gt_u (i32.add (global.get $pending) (local.get $len)) (i32.const 65536))
+      (then (return (i32.const -1))))
+    (block $done
+      (loop $next
+        (br_if $done (i32.ge_u (local.get $i) (local.get $len)))
+        (local.set $b (i32.load8_u (i32.add (local.get $ptr) (local.get $i))))
+        (if (i32.and (i32.ge_u (local.get $b) (i32.const 97)) (i32.le_u (local.get $b) (i32.const 122)))
+          (then (local.set $b (i32.sub (local.get $b) (i32.const 32)))))
+        (i32.store8 (i32.add (i32.add (i32.const 131072) (global.get $pending)) (local.get $i)) (local.get $b))
+        (local.set $i (i32.add (local.get $i) (i32.const 1)))
+        (br $next)))
+    (global.set $pending (i32.add (global.get $pending) (local.get $len)))
+    (i32.const 0))
+
+  (func (export "upper_read") (param $ptr i32) (param $cap i32) (result i32)
+    (local $n i32)
+    (local.set $n (select (global.get $pending) (local.get $cap)
+      (i32.lt_u (global.get $pending) (local.get $cap))))
+    (memory.copy (local.get $ptr) (i32.const 131072) (local.get $n))
+    (memory.copy (i32.const 131072) (i32.add (i32.const 131072) (local.get $n))
+      (i32.sub (global.get $pending) (local.get $n)))
+    (global.set $pending (i32.sub (global.get $pending) (local.get $n)))
+    (local.get $n))
+
+  (func (export "upper_finish") (result i32)
+    (i32.const 0)))
@@ -0,0 +1,49 @@
+;; Compiled to echo.wasm via: wat2wasm echo.wat -o echo.wasm
+;; The scratch area at the start of the memory holds the results and the iovec of the WASI calls.
+(module
+  (import "wasi_snapshot_preview1" "fd_write" (func $fd_write (param i32 i32 i32 i32) (result i32)))
+  (import "wasi_snapshot_preview1" "fd_read" (func $fd_read (param i32 i32 i32 i32) (result i32)))
+  (import "wasi_snapshot_preview1" "args_sizes_get" (func $args_sizes_get (param i32 i32) (result i32)))
+  (import "wasi_snapshot_preview1" "args_get" (func $args_get (param i32 i32) (result i32)))
+  (import "wasi_snapshot_preview1" "environ_sizes_get" (func $environ_sizes_get (param i32 i32) (result i32)))
+  (import "wasi_snapshot_preview1" "environ_get" (func $environ_get (param i32 i32) (result i32)))
+  (import "wasi_snapshot_preview1" "path_open"
+    (func $path_open (param i32 i32 i32 i32 i32 i64 i64 i32 i32) (result i32)))
+  (import "wasi_snapshot_preview1" "fd_close" (func $fd_close (param i32) (result i32)))
+  (memory (export "memory") 1)
+
+  ;; writes len bytes at ptr to the file descriptor fd, and returns the WASI errno
+  (func (export "write") (param $fd i32) (param $ptr i32) (param $len i32) (result i32)
+    (i32.store (i32.const 8) (local.get $ptr))
+    (i32.store (i32.const 12) (local.get $len))
+    (call $fd_write (local.get $fd) (i32.const 8) (i32.const 1) (i32.const 16)))
+
+  ;; copies the NUL terminated arguments to buf, and returns their size, -1 on failure
+  (func (export "args") (param $buf i32) (result i32)
+    (drop (call $args_sizes_get (i32.const 0) (i32.const 4)))
+    (if (result i32) (call $args_get (i32.const 256) (local.get $buf))
+      (then (i32.const -1))
+      (else (i32.load (i32.const 4)))))
+
+  ;; copies the NUL terminated environment variables to buf, and returns their size, -1 on failure
+  (func (export "environ") (param $buf i32) (result i32)
+    (drop (call $environ_sizes_get (i32.const 0) (i32.const 4)))
+    (if (result i32) (call $environ_get (i32.const 256) (local.get $buf))
+      (then (i32.const -1))
+      (else (i32.load (i32.const 4)))))
+
+  ;; reads up to cap bytes of the file at path, relative to the first preopened directory, to buf, and returns the
+  ;; number of bytes read, -1 if the file can't be opened and -2 if it can't be read
+  (func (export "read") (param $path i32) (param $pathLen i32) (param $buf i32) (param $cap i32) (result i32)
+    ;; opened with the fd_read right only
+    (if (result i32) (call $path_open (i32.const 3) (i32.const 0) (local.get $path) (local.get $pathLen)
+        (i32.const 0) (i64.const 2) (i64.const 0) (i32.const 0) (i32.const 20))
+      (then (i32.const -1))
+      (else
+        (i32.store (i32.const 8) (local.get $buf))
+        (i32.store (i32.const 12) (local.get $cap))
+        (if (result i32) (call $fd_read (i32.load (i32.const 20)) (i32.const 8) (i32.const 1) (i32.const 16))
+          (then (i32.const -2))
+          (else
+            (drop (call $fd_close (i32.load (i32.const 20))))
+            (i32.load (i32.const 16))))))))
@@ -16,15 +16,17 @@
 */
 package io.quarkiverse.chicory.it;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BiFunction;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.core.MediaType;
@@ -35,12 +37,12 @@ import org.jboss.resteasy.reactive.RestForm;
 import com.dylibso.chicory.runtime.ExportFunction;
 import com.dylibso.chicory.runtime.Instance;
 import com.dylibso.chicory.runtime.Memory;
-import com.dylibso.chicory.runtime.Store;
-import com.dylibso.chicory.wasi.WasiOptions;
-import com.dylibso.chicory.wasi.WasiPreview1;
 import com.dylibso.chicory.wasm.WasmModule;
 
+import io.quarkiverse.chicory.runtime.wasm.WasmBatchInvoker;
+import io.quarkiverse.chicory.runtime.wasm.WasmInstancePool;
 import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 
 @Path("/chicory")
 @ApplicationScoped
@@ -50,11 +52,9 @@ public class ChicoryGoCelResource {
     @Named("go-cel")
     WasmQuarkusContext wasmQuarkusContext;
 
-    Instance instance;
-    ExportFunction malloc;
-    ExportFunction free;
-    ExportFunction evalPolicy;
-    Memory memory;
+    WasmInstancePool pool;
+
+    final CompiledPolicies compiledPolicies = new CompiledPolicies();
 
     @PostConstruct
     public void init() throws IOException {
@@ -62,48 +62,10 @@ public class ChicoryGoCelResource {
         if (wasmModule == null) {
             throw new IllegalStateException("Wasm module " + wasmQuarkusContext.getName() + " not found!");
         }
-
-        // Create WASI support
-        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
-        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
-
-        WasiOptions options = WasiOptions.builder()
-                .withStdout(stdout)
-                .withStderr(stderr)
-                .build();
-
-        WasiPreview1 wasi = WasiPreview1.builder()
-                .withOptions(options)
-                .build();
-
-        Store store = new Store().addFunction(wasi.toHostFunctions());
-
-        // WasmQuarkusContext provides Instance with MachineFactory dynamically
-        instance = Instance.builder(wasmModule)
-                .withMachineFactory(wasmQuarkusContext.getMachineFactory())
-                .withImportValues(store.toImportValues())
-                // Don't auto-run _start(), we'll call it manually
-                .withStart(false)
-                .build();
-
-        // Get exported functions BEFORE calling _start
-        malloc = instance.export("malloc");
-        free = instance.export("free");
-        evalPolicy = instance.export("evalPolicy");
-        memory = instance.memory();
-
-        // Initialize Go runtime by calling _start()
-        // This runs main() which exits, but we catch the expected WasiExitException
-        try {
-            ExportFunction start = instance.export("_start");
-            start.apply();
-        } catch (com.dylibso.chicory.wasi.WasiExitException e) {
-            // Expected - Go main() exits after completing
-            if (e.exitCode() != 0) {
-                throw new RuntimeException("Go runtime initialization failed with exit code: " + e.exitCode());
-            }
-            // Exit code 0 is success - runtime is now initialized and exported functions are ready
-        }
+        // Instances are not thread safe, so each request borrows one from the pool, and a pathological policy can't
+        // hold it for longer than the configured limits. The pooled instances get the WASI host functions declared
+        // for the module, and the Go runtime is initialized by running _start() when they are created
+        pool = wasmQuarkusContext.getInstancePool();
     }
 
     @POST
@@ -113,58 +75,123 @@ public class ChicoryGoCelResource {
             @RestForm String manifestJson,
             @RestForm String celPolicy) {
 
-        byte[] policyBytes = celPolicy.getBytes(StandardCharsets.UTF_8);
         byte[] inputBytes = manifestJson.getBytes(StandardCharsets.UTF_8);
 
-        // Allocate memory for policy string
-        int policyPtr = (int) malloc.apply(policyBytes.length)[0];
-        if (policyPtr == 0) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Failed to allocate memory for policy").build();
+        int returnCode;
+        try {
+            returnCode = pool.execute(instance -> evaluate(instance, inputBytes, celPolicy));
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+        }
+
+        // Interpret result
+        if (returnCode < 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("CEL evaluation failed: " + errorMessage(returnCode)).build();
+        }
+        return Response.ok(returnCode + " - " + message(returnCode)).build();
+    }
+
+    @POST
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Path("validate-batch")
+    public Response validateBatch(
+            @RestForm List<String> manifestJson,
+            @RestForm String celPolicy,
+            @RestForm @DefaultValue("1") int parallelism) {
+
+        // Fail fast on invalid policies, before processing the batch
+        int compiled = pool.execute(instance -> compiledPolicies.handle(instance, celPolicy));
+        if (compiled < 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("CEL evaluation failed: " + errorMessage(compiled)).build();
+        }
+
+        List<byte[]> inputs = manifestJson.stream()
+                .map(manifest -> manifest.getBytes(StandardCharsets.UTF_8))
+                .toList();
+
+        // Each instance processing the batch resolves the policy handle once, then each manifest is evaluated in a
+        // tight loop
+        WasmBatchInvoker invoker = WasmBatchInvoker.builder("evalCompiled")
+                .withInstanceArguments(instance -> {
+                    int handle = compiledPolicies.handle(instance, celPolicy);
+                    if (handle < 0) {
+                        throw new IllegalStateException("CEL evaluation failed: " + errorMessage(handle));
+                    }
+                    return (shared, input) -> new long[] { handle, input.ptr(), input.length() };
+                })
+                .build();
+        // The guest may have dropped a compiled policy that is still tracked, e.g. when the instance was reset, in
+        // which case the handle is forgotten while the instance is still borrowed
+        BiFunction<Instance, long[], Integer> resultMapper = (instance, result) -> {
+            int returnCode = (int) result[0];
+            if (returnCode == CompiledPolicies.UNKNOWN_HANDLE) {
+                compiledPolicies.invalidate(instance, celPolicy);
+            }
+            return returnCode;
+        };
+        List<Integer> results = parallelism > 1
+                ? invoker.invokeParallel(pool, inputs, parallelism, Infrastructure.getDefaultWorkerPool(), resultMapper)
+                : invoker.invoke(pool, inputs, resultMapper);
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < results.size(); i++) {
+            int returnCode = results.get(i);
+            if (returnCode == CompiledPolicies.UNKNOWN_HANDLE) {
+                // Evaluated again on its own, which compiles the policy again
+                byte[] input = inputs.get(i);
+                returnCode = pool.execute(instance -> evaluate(instance, input, celPolicy));
+            }
+            body.append(returnCode).append(" - ")
+                    .append(returnCode < 0 ? "CEL evaluation failed: " + errorMessage(returnCode) : message(returnCode))
+                    .append('\n');
         }
+        return Response.ok(body.toString()).build();
+    }
+
+    /**
+     * Evaluates a policy against an input, on an instance borrowed from the pool.
+     *
+     * @return 1 = policy allows, 0 = policy denies, negative = error
+     */
+    private int evaluate(Instance instance, byte[] inputBytes, String celPolicy) {
+        ExportFunction malloc = instance.export("malloc");
+        ExportFunction free = instance.export("free");
+        Memory memory = instance.memory();
 
         // Allocate memory for input JSON
         int inputPtr = (int) malloc.apply(inputBytes.length)[0];
         if (inputPtr == 0) {
-            free.apply(policyPtr);
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Failed to allocate memory for input").build();
+            throw new IllegalStateException("Failed to allocate memory for input");
         }
 
         try {
-            // Write policy and input to WASM memory
-            memory.write(policyPtr, policyBytes);
+            // Write input to WASM memory
             memory.write(inputPtr, inputBytes);
 
-            // Call evalPolicy(policyPtr, policyLen, inputPtr, inputLen)
-            long[] result = evalPolicy.apply(policyPtr, policyBytes.length, inputPtr, inputBytes.length);
-            int returnCode = (int) result[0];
-
-            // Interpret result
-            String message;
-            if (returnCode == 1) {
-                message = "Policy ALLOWS the request";
-            } else if (returnCode == 0) {
-                message = "Policy DENIES the request";
-            } else {
-                // Negative values are errors
-                String errorMsg = switch (returnCode) {
-                    case -1 -> "JSON parse error";
-                    case -2 -> "CEL environment creation error";
-                    case -3 -> "CEL compilation error";
-                    case -4 -> "CEL program creation error";
-                    case -5 -> "CEL runtime error";
-                    default -> "Unknown error: " + returnCode;
-                };
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity("CEL evaluation failed: " + errorMsg).build();
-            }
-
-            return Response.ok(returnCode + " - " + message).build();
+            // The policy is compiled once per instance, then only evalCompiled(handle, inputPtr, inputLen) is called
+            return compiledPolicies.evaluate(instance, celPolicy, inputPtr, inputBytes.length);
         } finally {
             // Free allocated memory
-            free.apply(policyPtr);
             free.apply(inputPtr);
         }
     }
+
+    private static String message(int returnCode) {
+        return returnCode == 1 ? "Policy ALLOWS the request" : "Policy DENIES the request";
+    }
+
+    private static String errorMessage(int returnCode) {
+        // Negative values are errors
+        return switch (returnCode) {
+            case -1 -> "JSON parse error";
+            case -2 -> "CEL environment creation error";
+            case -3 -> "CEL compilation error";
+            case -4 -> "CEL program creation error";
+            case -5 -> "CEL runtime error";
+            case CompiledPolicies.UNKNOWN_HANDLE -> "Unknown compiled policy handle";
+            default -> "Unknown error: " + returnCode;
+        };
+    }
 }
@@ -0,0 +1,122 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*      http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package io.quarkiverse.chicory.it;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+
+/**
+ * Keeps track of the CEL policies compiled by the go-cel guest, so that each request only pays for the evaluation.
+ * <p>
+ * Compiled programs live in the memory of a given instance, therefore handles are tracked per pooled instance. The
+ * guest keeps its own LRU cache with the same capacity, and when it has evicted a handle, {@code evalCompiled}
+ * returns {@link #UNKNOWN_HANDLE} and the policy is compiled again.
+ */
+class CompiledPolicies {
+
+    static final int UNKNOWN_HANDLE = -6;
+
+    // Same capacity as the guest LRU cache
+    private static final int CAPACITY = 64;
+
+    // Instances dropped by the pool are not retained here
+    private final Map<Instance, Map<String, Integer>> handles = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns the guest handle of a compiled policy, compiling it if needed.
+     * The caller must have exclusive access to the instance.
+     *
+     * @return A positive handle, or a negative error code
+     */
+    int handle(Instance instance, String policy) {
+        Map<String, Integer> instanceHandles = handles.computeIfAbsent(instance, i -> new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > CAPACITY;
+            }
+        });
+        Integer handle = instanceHandles.get(policy);
+        if (handle != null) {
+            return handle;
+        }
+        int compiled = compile(instance, policy);
+        if (compiled > 0) {
+            instanceHandles.put(policy, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Evaluates a policy against an input which has been written to the instance memory already.
+     * The caller must have exclusive access to the instance.
+     *
+     * @return 1 = policy allows, 0 = policy denies, negative = error
+     */
+    int evaluate(Instance instance, String policy, int inputPtr, int inputLen) {
+        ExportFunction evalCompiled = instance.export("evalCompiled");
+        int handle = handle(instance, policy);
+        if (handle < 0) {
+            return handle;
+        }
+        int returnCode = (int) evalCompiled.apply(handle, inputPtr, inputLen)[0];
+        if (returnCode == UNKNOWN_HANDLE) {
+            // evicted by the guest, compile again
+            invalidate(instance, policy);
+            handle = handle(instance, policy);
+            if (handle < 0) {
+                return handle;
+            }
+            returnCode = (int) evalCompiled.apply(handle, inputPtr, inputLen)[0];
+        }
+        return returnCode;
+    }
+
+    /**
+     * Forgets the handle of a policy that the guest doesn't know anymore, i.e. for which {@code evalCompiled} returned
+     * {@link #UNKNOWN_HANDLE}, so that it is compiled again by the next {@link #handle(Instance, String)} call.
+     */
+    void invalidate(Instance instance, String policy) {
+        Map<String, Integer> instanceHandles = handles.get(instance);
+        if (instanceHandles != null) {
+            instanceHandles.remove(policy);
+        }
+    }
+
+    private static int compile(Instance instance, String policy) {
+        byte[] policyBytes = policy.getBytes(StandardCharsets.UTF_8);
+        ExportFunction malloc = instance.export("malloc");
+        ExportFunction free = instance.export("free");
+
+        int policyPtr = (int) malloc.apply(policyBytes.length)[0];
+        if (policyPtr == 0) {
+            throw new IllegalStateException("Failed to allocate memory for policy");
+        }
+        try {
+            instance.memory().write(policyPtr, policyBytes);
+            // The guest keeps its own copy of the policy, so the memory can be freed right away
+            return (int) instance.export("compilePolicy").apply(policyPtr, policyBytes.length)[0];
+        } finally {
+            free.apply(policyPtr);
+        }
+    }
+}
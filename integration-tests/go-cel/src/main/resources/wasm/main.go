@@ -1,7 +1,10 @@
 package main
 
 import (
+	"container/list"
 	"encoding/json"
+	"hash/fnv"
+	"strings"
 	"unsafe"
 
 	"github.com/google/cel-go/cel"
@@ -50,12 +53,8 @@ func evalPolicy(policyPtr, policyLen, inputPtr, inputLen uint32) int32 {
 		return -1
 	}
 
-	// 2: Create CEL environment
-	env, err := cel.NewEnv(
-		cel.Declarations(
-			decls.NewVar("object", decls.NewMapType(decls.String, decls.Dyn)),
-		),
-	)
+	// 2: Get the CEL environment
+	env, err := environment()
 	if err != nil {
 		// CEL environment creation error
 		return -2
@@ -76,6 +75,147 @@ func evalPolicy(policyPtr, policyLen, inputPtr, inputLen uint32) int32 {
 	}
 
 	// 5: Evaluate the expression
+	return eval(prg, input)
+}
+
+// Maximum number of compiled policies kept by the guest, least recently used ones are evicted first
+const policyCacheCapacity = 64
+
+// compiledPolicy is a CEL program kept in the policy cache, and referenced by the host through its handle
+type compiledPolicy struct {
+	handle int32
+	hash   uint64
+	policy string
+	prg    cel.Program
+}
+
+var (
+	// the CEL environment is the same for every policy, so it is created once
+	celEnv *cel.Env
+	// LRU list of *compiledPolicy, most recently used first
+	policyLRU      = list.New()
+	policyByHash   = map[uint64]*list.Element{}
+	policyByHandle = map[int32]*list.Element{}
+	nextHandle     int32 = 1
+)
+
+func environment() (*cel.Env, error) {
+	if celEnv != nil {
+		return celEnv, nil
+	}
+	env, err := cel.NewEnv(
+		cel.Declarations(
+			decls.NewVar("object", decls.NewMapType(decls.String, decls.Dyn)),
+		),
+	)
+	if err != nil {
+		return nil, err
+	}
+	celEnv = env
+	return env, nil
+}
+
+// compilePolicy compiles a CEL expression once, and keeps the resulting program in an LRU cache keyed by the policy
+// hash
+// Parameters:
+//   - policyPtr: pointer to policy string
+//   - policyLen: length of policy string
+//
+// Returns: a positive handle to be passed to evalCompiled, negative = error
+//
+//go:wasmexport compilePolicy
+func compilePolicy(policyPtr, policyLen uint32) int32 {
+	policy := unsafe.String((*byte)(unsafe.Pointer(uintptr(policyPtr))), policyLen)
+	hasher := fnv.New64a()
+	hasher.Write([]byte(policy))
+	hash := hasher.Sum64()
+
+	if el, ok := policyByHash[hash]; ok {
+		entry := el.Value.(*compiledPolicy)
+		// compare the actual policy too, in case of a hash collision the entry is replaced
+		if entry.policy == policy {
+			policyLRU.MoveToFront(el)
+			return entry.handle
+		}
+		removePolicy(el)
+	}
+
+	env, err := environment()
+	if err != nil {
+		// CEL environment creation error
+		return -2
+	}
+	ast, iss := env.Compile(policy)
+	if iss.Err() != nil {
+		// Compilation error
+		return -3
+	}
+	prg, err := env.Program(ast)
+	if err != nil {
+		// Program creation error
+		return -4
+	}
+
+	entry := &compiledPolicy{
+		handle: nextHandle,
+		hash:   hash,
+		// the policy bytes are owned by the host, keep a copy
+		policy: strings.Clone(policy),
+		prg:    prg,
+	}
+	nextHandle++
+	el := policyLRU.PushFront(entry)
+	policyByHash[hash] = el
+	policyByHandle[entry.handle] = el
+	if policyLRU.Len() > policyCacheCapacity {
+		removePolicy(policyLRU.Back())
+	}
+	return entry.handle
+}
+
+// evalCompiled evaluates a policy previously compiled by compilePolicy
+// Parameters:
+//   - handle: the handle returned by compilePolicy
+//   - inputPtr: pointer to input JSON bytes
+//   - inputLen: length of input JSON bytes
+//
+// Returns: 1 = policy allows, 0 = policy denies, -6 = unknown (e.g. evicted) handle, other negative = error
+//
+//go:wasmexport evalCompiled
+func evalCompiled(handle int32, inputPtr, inputLen uint32) int32 {
+	el, ok := policyByHandle[handle]
+	if !ok {
+		// Unknown handle
+		return -6
+	}
+	policyLRU.MoveToFront(el)
+
+	inputJSON := unsafe.Slice((*byte)(unsafe.Pointer(uintptr(inputPtr))), inputLen)
+	var input map[string]any
+	if err := json.Unmarshal(inputJSON, &input); err != nil {
+		// JSON parse error
+		return -1
+	}
+	return eval(el.Value.(*compiledPolicy).prg, input)
+}
+
+// releasePolicy removes a compiled policy from the cache
+//
+//go:wasmexport releasePolicy
+func releasePolicy(handle int32) {
+	if el, ok := policyByHandle[handle]; ok {
+		removePolicy(el)
+	}
+}
+
+func removePolicy(el *list.Element) {
+	entry := el.Value.(*compiledPolicy)
+	policyLRU.Remove(el)
+	delete(policyByHash, entry.hash)
+	delete(policyByHandle, entry.handle)
+}
+
+func eval(prg cel.Program, input map[string]any) int32 {
 	out, _, err := prg.Eval(map[string]any{
 		"object": input,
 	})
@@ -84,12 +224,12 @@ func evalPolicy(policyPtr, policyLen, inputPtr, inputLen uint32) int32 {
 		return -5
 	}
 
-	// 6: Check if result is a boolean true
+	// Check if result is a boolean true
 	if b, ok := out.Value().(bool); ok && b {
 		// Policy allows
 		return 1
 	}
-    // Policy denies
+	// Policy denies
 	return 0
 }
 
@@ -53,6 +53,40 @@ public class ChicoryGoCelResourceTest {
                 .body(is("0 - Policy DENIES the request"));
     }
 
+    @Test
+    public void testBatchPodDefinitionValidation() throws IOException {
+        final String correctManifestJson = readResource("correct-pod.json");
+        final String rejectedManifestJson = readResource("rejected-pod.json");
+
+        given()
+                .multiPart("manifestJson", correctManifestJson)
+                .multiPart("manifestJson", rejectedManifestJson)
+                .multiPart("manifestJson", correctManifestJson)
+                .multiPart("celPolicy", CEL_POLICY)
+                .multiPart("parallelism", "2")
+                .when()
+                .post("/chicory/validate-batch")
+                .then()
+                .statusCode(200)
+                .body(is("1 - Policy ALLOWS the request\n"
+                        + "0 - Policy DENIES the request\n"
+                        + "1 - Policy ALLOWS the request\n"));
+    }
+
+    @Test
+    public void testInvalidPolicyCompilation() throws IOException {
+        final String manifestJson = readResource("correct-pod.json");
+
+        given()
+                .multiPart("manifestJson", manifestJson)
+                .multiPart("celPolicy", "object.spec.containers.all(c,")
+                .when()
+                .post("/chicory/validate-batch")
+                .then()
+                .statusCode(400)
+                .body(is("CEL evaluation failed: CEL compilation error"));
+    }
+
     private static String readResource(String fileName) throws IOException {
         final URL url = Thread.currentThread().getContextClassLoader().getResource(fileName);
         if (url == null) {
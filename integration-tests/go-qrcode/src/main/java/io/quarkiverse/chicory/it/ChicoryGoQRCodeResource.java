@@ -16,7 +16,6 @@
 */
 package io.quarkiverse.chicory.it;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
@@ -64,13 +63,10 @@ public class ChicoryGoQRCodeResource {
             throw new IllegalStateException("Wasm module " + wasmQuarkusContext.getName() + " not found!");
         }
 
-        // STDOUT and STDERR streams to be used by WasiOptions
-        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
-        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
-
+        // STDOUT and STDERR go to the bounded sinks configured for the module
         WasiOptions options = WasiOptions.builder()
-                .withStdout(stdout)
-                .withStderr(stderr)
+                .withStdout(wasmQuarkusContext.getWasiStdout())
+                .withStderr(wasmQuarkusContext.getWasiStderr())
                 .build();
 
         // Create WASI with options
@@ -28,6 +28,7 @@ import jakarta.inject.Named;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Response;
 
+import com.dylibso.chicory.runtime.ExportFunction;
 import com.dylibso.chicory.runtime.HostFunction;
 import com.dylibso.chicory.runtime.ImportValues;
 import com.dylibso.chicory.runtime.Instance;
@@ -35,6 +36,8 @@ import com.dylibso.chicory.wasm.WasmModule;
 import com.dylibso.chicory.wasm.types.FunctionType;
 import com.dylibso.chicory.wasm.types.ValType;
 
+import io.quarkiverse.chicory.runtime.wasm.WasmExport;
+import io.quarkiverse.chicory.runtime.wasm.WasmExportHandle;
 import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
 
 @Path("/chicory")
@@ -45,7 +48,12 @@ public class ChicoryResourceWithImports {
     @Named("operation")
     WasmQuarkusContext wasmQuarkusContext;
 
-    Instance instance;
+    // Resolved at build time, and bound to the instance providing the host function
+    @Inject
+    @WasmExport(module = "operation", value = "operation")
+    WasmExportHandle operationExport;
+
+    ExportFunction operation;
 
     private static final Deque expectedStack = new ArrayDeque<Integer>(2);
 
@@ -71,7 +79,7 @@ public class ChicoryResourceWithImports {
                                         }))
                         .build())
                 .withMachineFactory(wasmQuarkusContext.getMachineFactory());
-        instance = builder.build();
+        operation = operationExport.bind(builder.build());
     }
 
     @GET
@@ -79,10 +87,7 @@ public class ChicoryResourceWithImports {
         expectedStack.add(41);
         expectedStack.add(1);
 
-        var result = instance
-                .exports()
-                .function("operation")
-                .apply(41, 1);
+        var result = operation.apply(41, 1);
 
         return Response.ok("Hello chicory: " + result[0]).build();
     }
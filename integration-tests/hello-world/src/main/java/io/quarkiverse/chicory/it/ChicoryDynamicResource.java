@@ -33,10 +33,8 @@ import jakarta.ws.rs.core.Response;
 import org.jboss.resteasy.reactive.RestForm;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
-import com.dylibso.chicory.runtime.Instance;
-import com.dylibso.chicory.wasm.Parser;
-
 import io.quarkiverse.chicory.runtime.wasm.ExecutionMode;
+import io.quarkiverse.chicory.runtime.wasm.WasmModuleVersion;
 import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
 import io.quarkus.logging.Log;
 
@@ -50,16 +48,15 @@ public class ChicoryDynamicResource {
     @Named(WASM_MODULE_KEY_OPERATION_DYNAMIC)
     WasmQuarkusContext wasmQuarkusContext;
 
-    Instance instance;
-
     @GET
     public Response hello() {
-        if (instance == null) {
+        if (wasmQuarkusContext.getCurrentVersion() == null) {
             return Response.status(Response.Status.METHOD_NOT_ALLOWED)
                     .entity("Instance not yet initialized. Use \"/dynamic/upload\" to upload a Wasm module and initialize an instance")
                     .build();
         }
-        var result = instance.export("operation").apply(41, 1);
+        // runs on the current version, even while a new version is being uploaded
+        var result = wasmQuarkusContext.execute(instance -> instance.export("operation").apply(41, 1));
         return Response.ok("Hello chicory (dynamic): " + result[0]).build();
     }
 
@@ -73,9 +70,8 @@ public class ChicoryDynamicResource {
                 throw new IllegalArgumentException("ERROR: Wasm module NOT uploaded 0");
             }
             Log.info("Wasm module uploaded, execution mode is " + executionMode);
-            instance = Instance.builder(Parser.parse(is.readAllBytes()))
-                    .withMachineFactory(wasmQuarkusContext.getMachineFactory())
-                    .build();
+            final WasmModuleVersion version = wasmQuarkusContext.deploy(is.readAllBytes());
+            Log.info("Wasm module version " + version.version() + " deployed");
             return Response.accepted(wasmQuarkusContext).build();
         }
     }
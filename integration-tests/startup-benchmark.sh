@@ -0,0 +1,54 @@
+#!/bin/bash
+# Compares the startup time and the first request latency of an integration test application, packaged with and
+# without an AppCDS archive.
+#
+# Usage: startup-benchmark.sh <integration-test> <request-path> [runs] [curl arguments...]
+#   e.g. startup-benchmark.sh go-qrcode '/chicory/qrcode?text=hi'
+# The curl arguments are resolved from the integration test directory.
+set -euo pipefail
+
+SCRIPT_DIR=$( cd -- "$( dirname -- "${BASH_SOURCE[0]}" )" &> /dev/null && pwd )
+MODULE=$1
+REQUEST_PATH=$2
+RUNS=${3:-5}
+shift $(( $# < 3 ? $# : 3 ))
+CURL_ARGS=("$@")
+PORT=8080
+
+measure() {
+    local label=$1
+    shift
+    local results=""
+    for i in $(seq 1 ${RUNS}); do
+        local log=$(mktemp)
+        # the archive is only used when the application is run from its directory
+        (cd target/quarkus-app && exec java "$@" -jar quarkus-run.jar) > ${log} 2>&1 &
+        local pid=$!
+        until grep -q "started in" ${log}; do
+            if ! kill -0 ${pid} 2> /dev/null; then
+                cat ${log}
+                exit 1
+            fi
+            sleep 0.05
+        done
+        local started=$(grep -o "started in [0-9.]*s" ${log} | grep -o "[0-9.]*")
+        local request=$(curl -s -o /dev/null -w "%{time_total}" ${CURL_ARGS[@]+"${CURL_ARGS[@]}"} "http://localhost:${PORT}${REQUEST_PATH}")
+        kill ${pid}
+        wait ${pid} 2> /dev/null || true
+        rm ${log}
+        results="${results}${started} ${request}\n"
+    done
+    printf "${results}" | awk -v label=${label} '{ s += $1; r += $2 }
+        END { printf "%-10s started in %.3fs, first request in %.3fs (average of %d runs)\n", label, s / NR, r / NR, NR }'
+}
+
+(
+    cd ${SCRIPT_DIR}/${MODULE}
+    mvn -B -q clean package -DskipTests
+    measure "default"
+)
+(
+    cd ${SCRIPT_DIR}/${MODULE}
+    mvn -B -q clean package -DskipTests -Dquarkus.package.jar.appcds.enabled=true
+    measure "AppCDS" -XX:SharedArchiveFile=app-cds.jsa
+)
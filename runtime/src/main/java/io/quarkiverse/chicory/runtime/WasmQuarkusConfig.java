@@ -5,10 +5,15 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import com.dylibso.chicory.compiler.InterpreterFallback;
 
 import io.quarkiverse.chicory.runtime.wasm.ExecutionMode;
+import io.quarkiverse.chicory.runtime.wasm.InstanceScope;
+import io.quarkiverse.chicory.runtime.wasm.MemoryBackend;
+import io.quarkiverse.chicory.runtime.wasm.MemoryGrowth;
+import io.quarkiverse.chicory.runtime.wasm.WasiOutput;
 import io.quarkus.runtime.annotations.ConfigPhase;
 import io.quarkus.runtime.annotations.ConfigRoot;
 import io.smallrye.config.ConfigMapping;
@@ -68,6 +73,72 @@ public interface WasmQuarkusConfig {
         @WithName("name")
         String name();
 
+        /**
+         * The scope of the injectable {@link io.quarkiverse.chicory.runtime.wasm.WasmInstance} bean that is produced for
+         * this Wasm module. No such bean is produced by default.
+         *
+         * @return {@link InstanceScope} value that identifies how injected instances are shared
+         */
+        @WithName("instance-scope")
+        @WithDefault("None")
+        InstanceScope instanceScope();
+
+        /**
+         * Whether a statically configured Wasm module is parsed while the native image is built, so that the parsed
+         * module is stored in the image heap and no parsing happens when the native application starts. This
+         * increases the native image size by roughly the in-memory size of the parsed module, and has no effect in
+         * JVM mode.
+         *
+         * @return {@code true} if the parsed Wasm module is stored in the native image heap
+         */
+        @WithName("native-image-heap")
+        @WithDefault("true")
+        boolean nativeImageHeap();
+
+        /**
+         * Whether the {@code .meta} Wasm module generated at build time is compressed with deflate, which reduces the
+         * size of the application jar and of the native image, at the cost of decompressing it when the Wasm module is
+         * parsed at runtime.
+         *
+         * @return {@code true} if the generated {@code .meta} Wasm module is compressed
+         */
+        @WithName("compress-meta")
+        @WithDefault("false")
+        boolean compressMeta();
+
+        /**
+         * Whether a change to the {@code wasm-file} or {@code wasm-resource} of a statically configured Wasm module
+         * swaps the Wasm module within its context in <i>dev mode</i>, rather than restarting the application. The
+         * application is still restarted for Wasm modules that run the code generated by the build time compiler, or
+         * whose exports are injected.
+         *
+         * @return {@code true} if the Wasm module is swapped in place when its payload changes in dev mode
+         */
+        @WithName("dev-swap")
+        @WithDefault("false")
+        boolean devSwap();
+
+        /**
+         * A reference to the instance pool configuration per each Wasm module
+         *
+         * @return The {@link PoolConfig} instance representing the configuration of the Wasm module instance pool
+         */
+        PoolConfig pool();
+
+        /**
+         * A reference to the linear memory configuration per each Wasm module
+         *
+         * @return The {@link MemoryConfig} instance representing the configuration of the Wasm module linear memory
+         */
+        MemoryConfig memory();
+
+        /**
+         * A reference to the WASI configuration per each Wasm module
+         *
+         * @return The {@link WasiConfig} instance representing the WASI integration of the Wasm module
+         */
+        WasiConfig wasi();
+
         /**
          * A reference to the Chicory build time compiler configuration per each Wasm module
          *
@@ -76,13 +147,119 @@ public interface WasmQuarkusConfig {
          */
         CompilerConfig compiler();
 
+        /**
+         * Inner interface representing the instance pool configuration for a single Wasm module.
+         */
+        interface PoolConfig {
+
+            /**
+             * Whether the instances released to the pool are reset in place to their state right after instantiation,
+             * so that each call starts from a fresh state. Only the linear memory pages and the mutable globals written
+             * by the previous calls are restored, which is cheaper than instantiating the Wasm module again
+             */
+            @WithName("reset")
+            @WithDefault("false")
+            boolean reset();
+        }
+
+        /**
+         * Inner interface representing the linear memory configuration for a single Wasm module, which applies to the
+         * instances created via the Wasm module context.
+         */
+        interface MemoryConfig {
+
+            /**
+             * Where the linear memory of the instances is stored
+             */
+            @WithName("backend")
+            @WithDefault("Heap")
+            MemoryBackend backend();
+
+            /**
+             * The number of 64 KiB pages reserved when the memory of an instance is created, so that growing the memory
+             * up to this size doesn't copy it. Defaults to the initial size declared by the Wasm module
+             */
+            @WithName("reserved-pages")
+            OptionalInt reservedPages();
+
+            /**
+             * The maximum number of 64 KiB pages the memory of an instance can grow to, which overrides the maximum size
+             * declared by the Wasm module when lower. Growing the memory beyond it fails, as for the declared maximum
+             */
+            @WithName("max-pages")
+            OptionalInt maxPages();
+
+            /**
+             * How the capacity of the memory is reserved ahead of its size. Defaults to {@code doubling}, or to the
+             * default Chicory memory for the {@code heap} backend when no other sizing option is set. {@code maximum}
+             * reserves the whole declared maximum size for each instance, and must therefore be opted in
+             */
+            @WithName("growth")
+            Optional<MemoryGrowth> growth();
+        }
+
+        /**
+         * Inner interface representing the WASI integration of a single Wasm module.
+         */
+        interface WasiConfig {
+
+            /**
+             * Whether the instances created via the Wasm module context get the WASI host functions, which is implied
+             * when files are embedded. The host functions are built once, and shared by all the instances unless
+             * directories are preopened, since the open files belong to each instance. The arguments, the environment
+             * and the preopened directories are configured at runtime
+             */
+            @WithName("enabled")
+            @WithDefault("false")
+            boolean enabled();
+
+            /**
+             * Where the output written by the guest to the WASI {@code stdout} goes
+             */
+            @WithName("stdout")
+            @WithDefault("Log")
+            WasiOutput stdout();
+
+            /**
+             * Where the output written by the guest to the WASI {@code stderr} goes
+             */
+            @WithName("stderr")
+            @WithDefault("Log")
+            WasiOutput stderr();
+
+            /**
+             * The size, in bytes, of the ring buffer of a {@code ring-buffer} output, and the length beyond which the lines
+             * of a {@code log} output are split
+             */
+            @WithName("output-buffer-size")
+            @WithDefault("8192")
+            int outputBufferSize();
+
+            /**
+             * The files and directories embedded at build time into the in-memory WASI filesystem of the guest, as paths
+             * relative to the project base directory. Each of them is placed under the {@code embed-mount} directory,
+             * with its name. The instances created via the Wasm module context get the filesystem preopened
+             */
+            @WithName("embed")
+            Optional<List<String>> embed();
+
+            /**
+             * The guest directory the embedded files are mounted at
+             */
+            @WithName("embed-mount")
+            @WithDefault("/")
+            String embedMount();
+        }
+
         /**
          * Inner interface representing the build time compiler configuration for a single Wasm module.
          */
         interface CompilerConfig {
 
             /**
-             * The execution mode for a configured Wasm module
+             * The execution mode for a configured Wasm module. Statically configured modules always use the code
+             * generated by the build time compiler in production and native mode, while {@code BuildTimeCompiler} can
+             * be set to use it in dev and test mode as well
              *
              * @return {@link ExecutionMode} value that identifies the way Chicory will execute the Wasm module code
              */
@@ -102,6 +279,31 @@ public interface WasmQuarkusConfig {
              */
             @WithName("interpreted-functions")
             Optional<List<Integer>> interpretedFunctions();
+
+            /**
+             * The maximum number of functions compiled into each generated class. Functions are grouped into classes
+             * that are only loaded by the JVM when one of their functions is called for the first time, therefore a
+             * small value reduces class loading, verification and metaspace for large Wasm modules when only a few
+             * exports are used. By default, the Chicory compiler puts up to 12288 functions into each class
+             */
+            @WithName("max-functions-per-class")
+            OptionalInt maxFunctionsPerClass();
+
+            /**
+             * Whether the functions that can't be reached from the kept exports, the start function, the table elements
+             * and the global initializers are replaced by stubs that trap before the Wasm module is compiled, so that no
+             * bytecode is generated for them
+             */
+            @WithName("dead-code-elimination")
+            @WithDefault("false")
+            boolean deadCodeElimination();
+
+            /**
+             * The names of the exported functions that are kept by the dead code elimination, separated by commas. All
+             * the exported functions are kept by default, the exported functions that are not kept trap when called
+             */
+            @WithName("keep-exports")
+            Optional<List<String>> keepExports();
         }
     }
 }
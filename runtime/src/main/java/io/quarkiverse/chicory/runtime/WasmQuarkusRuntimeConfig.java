@@ -0,0 +1,129 @@
+package io.quarkiverse.chicory.runtime;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import io.quarkus.runtime.annotations.ConfigPhase;
+import io.quarkus.runtime.annotations.ConfigRoot;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
+
+/**
+ * Holds the configuration of a Quarkus Chicory application that depends on where the application is deployed, and can
+ * therefore be changed at runtime, without rebuilding the application.
+ */
+@ConfigMapping(prefix = "quarkus.chicory")
+@ConfigRoot(phase = ConfigPhase.RUN_TIME)
+public interface WasmQuarkusRuntimeConfig {
+
+    /**
+     * A reference to the runtime configuration of all the configured Wasm modules.
+     *
+     * @return The runtime configuration of the Wasm modules, keyed like {@link WasmQuarkusConfig#modules()}
+     */
+    Map<String, ModuleConfig> modules();
+
+    /**
+     * Inner interface representing the runtime configuration of a single Wasm module.
+     */
+    interface ModuleConfig {
+
+        /**
+         * A directory watched at runtime by a dynamic Wasm module, i.e. one that defines neither {@code wasm-file}
+         * nor {@code wasm-resource}. Each {@code .wasm} file of the directory is deployed as a plugin of the Wasm
+         * module, named after the file, and is deployed again when changed, or removed when deleted. Relative paths
+         * are resolved against the working directory of the application.
+         *
+         * @return The {@link Path} of the plugin directory
+         */
+        @WithName("plugin-dir")
+        Optional<Path> pluginDir();
+
+        /**
+         * A reference to the runtime instance pool configuration per each Wasm module
+         *
+         * @return The {@link PoolConfig} instance representing the sizing of the Wasm module instance pool
+         */
+        PoolConfig pool();
+
+        /**
+         * A reference to the execution limits configuration per each Wasm module
+         *
+         * @return The {@link LimitsConfig} instance representing the limits enforced on each guest call
+         */
+        LimitsConfig limits();
+
+        /**
+         * A reference to the runtime WASI configuration per each Wasm module
+         *
+         * @return The {@link WasiConfig} instance representing the WASI environment of the guests
+         */
+        WasiConfig wasi();
+
+        /**
+         * Inner interface representing the sizing of the instance pool of a single Wasm module.
+         */
+        interface PoolConfig {
+
+            /**
+             * The maximum number of idle instances kept by the pool, instances released beyond this limit are dropped
+             */
+            @WithName("max-idle")
+            @WithDefault("8")
+            int maxIdle();
+        }
+
+        /**
+         * Inner interface representing the execution limits of a single Wasm module, which are enforced on each guest
+         * call made through the module instance pool or the injectable instances.
+         */
+        interface LimitsConfig {
+
+            /**
+             * The wall-clock timeout of a guest call, after which the call is aborted and the instance discarded
+             */
+            @WithName("timeout")
+            Optional<Duration> timeout();
+
+            /**
+             * The maximum number of instructions executed by a guest call, after which the call is aborted and the
+             * instance discarded. Only enforced by the interpreter, so the application fails to start if it's set for
+             * a Wasm module that is compiled, which is bounded by the timeout only
+             */
+            @WithName("max-instructions")
+            OptionalLong maxInstructions();
+        }
+
+        /**
+         * Inner interface representing the WASI environment of the guests of a single Wasm module, which applies when
+         * WASI is enabled for the Wasm module at build time.
+         */
+        interface WasiConfig {
+
+            /**
+             * The command line arguments passed to the guest, the first one being the program name by convention
+             */
+            @WithName("args")
+            Optional<List<String>> args();
+
+            /**
+             * The environment variables passed to the guest
+             */
+            @WithName("env")
+            Map<String, String> env();
+
+            /**
+             * The host directories preopened for the guest, by guest directory, e.g.
+             * {@code quarkus.chicory.modules.<module-key>.wasi.preopens."/data"=/var/lib/data}. Relative host directories
+             * are resolved against the current directory
+             */
+            @WithName("preopens")
+            Map<String, String> preopens();
+        }
+    }
+}
@@ -106,4 +106,14 @@ public class WasmQuarkusUtils {
         }
         return normalized.substring(0, normalized.lastIndexOf('/'));
     }
+
+    /**
+     * Returns the classpath resource storing the files embedded at build time into the WASI filesystem of a Wasm module.
+     *
+     * @param wasmModuleName The name of the Wasm module that embeds the files
+     * @return The name of the resource, a zip archive of the embedded files
+     */
+    public static String getWasiFilesResource(final String wasmModuleName) {
+        return getWasmModuleClassPath(wasmModuleName) + "/" + getWasmModuleClassName(wasmModuleName) + ".wasi-files.zip";
+    }
 }
@@ -0,0 +1,163 @@
+package io.quarkiverse.chicory.runtime.devui;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.literal.NamedLiteral;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.Export;
+import com.dylibso.chicory.wasm.types.ExportSection;
+import com.dylibso.chicory.wasm.types.ExternalType;
+
+import io.quarkiverse.chicory.runtime.wasm.WasmModuleStats;
+import io.quarkiverse.chicory.runtime.wasm.WasmQuarkusContext;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.InstanceHandle;
+
+/**
+ * The Dev UI JSON-RPC service, which lists the configured Wasm modules along with their {@link WasmModuleStats}, and
+ * runs micro-benchmarks of their exported functions.
+ */
+public class ChicoryJsonRPCService {
+
+    private static final int MAX_ITERATIONS = 1_000_000;
+
+    /**
+     * @return The labels of the latency histogram buckets
+     */
+    public List<String> getLatencyBuckets() {
+        return WasmModuleStats.LATENCY_BUCKETS;
+    }
+
+    /**
+     * Returns the configured Wasm modules, with their execution mode and performance statistics.
+     *
+     * @return A list of Wasm modules
+     */
+    public List<Map<String, Object>> getModules() throws IOException {
+        final List<Map<String, Object>> modules = new ArrayList<>();
+        for (InstanceHandle<WasmQuarkusContext> handle : Arc.container().listAll(WasmQuarkusContext.class,
+                Any.Literal.INSTANCE)) {
+            final WasmQuarkusContext context = handle.get();
+            final WasmModuleStats stats = context.getStats();
+            final WasmModule wasmModule = context.getWasmModule();
+            final Map<String, Object> module = new LinkedHashMap<>();
+            module.put("key", handle.getBean().getName());
+            module.put("name", context.getName());
+            module.put("executionMode", context.getExecutionMode().toString());
+            module.put("dynamic", wasmModule == null);
+            module.put("parsing", timer(stats.parsing()));
+            module.put("machineCreations", timer(stats.machineCreations()));
+            module.put("instantiations", timer(stats.instantiations()));
+            module.put("memoryPages", stats.memoryPages());
+            module.put("maxMemoryPages", stats.maxMemoryPages());
+            final List<Map<String, Object>> exports = new ArrayList<>();
+            final List<String> exportNames = new ArrayList<>();
+            if (wasmModule != null) {
+                final ExportSection exportSection = wasmModule.exportSection();
+                for (int i = 0; i < exportSection.exportCount(); i++) {
+                    final Export export = exportSection.getExport(i);
+                    if (export.exportType() == ExternalType.FUNCTION) {
+                        exportNames.add(export.name());
+                    }
+                }
+            }
+            // dynamic modules only know their exports once called
+            stats.calls().keySet().stream().filter(name -> !exportNames.contains(name)).sorted()
+                    .forEach(exportNames::add);
+            for (String exportName : exportNames) {
+                final Map<String, Object> export = timer(stats.calls().get(exportName));
+                export.put("name", exportName);
+                exports.add(export);
+            }
+            module.put("exports", exports);
+            modules.add(module);
+        }
+        return modules;
+    }
+
+    /**
+     * Runs a micro-benchmark of an exported function, on a dedicated instance of a statically configured Wasm module
+     * that has no imports. The calls made by the benchmark are included in the statistics of the Wasm module.
+     *
+     * @param module The key of the Wasm module
+     * @param export The name of the exported function
+     * @param arguments The arguments of the function, separated by commas
+     * @param iterations The number of measured calls, which are preceded by as many warm-up calls
+     * @return The percentiles of the call durations, in microseconds, and the throughput
+     */
+    public Map<String, Object> benchmark(final String module, final String export, final String arguments,
+            final int iterations) throws IOException {
+        if (iterations <= 0 || iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("The number of iterations must be between 1 and " + MAX_ITERATIONS);
+        }
+        final WasmQuarkusContext context;
+        try (InstanceHandle<WasmQuarkusContext> handle = Arc.container().instance(WasmQuarkusContext.class,
+                NamedLiteral.of(module))) {
+            if (!handle.isAvailable()) {
+                throw new IllegalArgumentException("No Wasm module is configured with key " + module);
+            }
+            context = handle.get();
+        }
+        final WasmModule wasmModule = context.getWasmModule();
+        if (wasmModule == null) {
+            throw new IllegalArgumentException("Wasm module " + module + " is loaded dynamically, it can't be benchmarked");
+        }
+        if (wasmModule.importSection().importCount() > 0) {
+            throw new IllegalArgumentException("Wasm module " + module + " has imports, it can't be benchmarked");
+        }
+        final long[] args = arguments == null || arguments.isBlank() ? new long[0]
+                : Arrays.stream(arguments.split(",")).map(String::trim).mapToLong(Long::parseLong).toArray();
+        final long[] durations = new long[iterations];
+        final long total;
+        final Instance instance = context.instanceBuilder().build();
+        try {
+            final ExportFunction function = instance.export(export);
+            for (int i = 0; i < iterations; i++) {
+                function.apply(args);
+            }
+            final long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                final long callStart = System.nanoTime();
+                function.apply(args);
+                durations[i] = System.nanoTime() - callStart;
+            }
+            total = System.nanoTime() - start;
+        } finally {
+            // the state of the instance is left as the benchmark changed it, so it's never pooled
+            context.getInstancePool().discard(instance);
+        }
+        Arrays.sort(durations);
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("iterations", iterations);
+        result.put("minMicros", micros(durations[0]));
+        result.put("p50Micros", micros(durations[(int) (iterations * 0.5)]));
+        result.put("p90Micros", micros(durations[(int) (iterations * 0.9)]));
+        result.put("p99Micros", micros(durations[(int) (iterations * 0.99)]));
+        result.put("maxMicros", micros(durations[iterations - 1]));
+        result.put("callsPerSecond", Math.round(iterations * 1_000_000_000d / total));
+        return result;
+    }
+
+    private static Map<String, Object> timer(final WasmModuleStats.Timer timer) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        final long count = timer == null ? 0 : timer.count();
+        result.put("count", count);
+        result.put("averageMicros", count == 0 ? 0 : micros(timer.totalNanos() / count));
+        result.put("maxMicros", count == 0 ? 0 : micros(timer.maxNanos()));
+        result.put("histogram", timer == null ? new long[WasmModuleStats.LATENCY_BUCKETS.size()] : timer.histogram());
+        return result;
+    }
+
+    private static double micros(final long nanos) {
+        return Math.round(nanos / 100d) / 10d;
+    }
+}
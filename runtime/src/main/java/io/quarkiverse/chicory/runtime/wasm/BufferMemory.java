@@ -0,0 +1,435 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.dylibso.chicory.runtime.ConstantEvaluators;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Memory;
+import com.dylibso.chicory.runtime.TrapException;
+import com.dylibso.chicory.wasm.types.ActiveDataSegment;
+import com.dylibso.chicory.wasm.types.DataSegment;
+import com.dylibso.chicory.wasm.types.MemoryLimits;
+import com.dylibso.chicory.wasm.types.PassiveDataSegment;
+
+/**
+ * A linear {@link Memory} stored in a {@link ByteBuffer}, whose capacity is reserved ahead of the memory size according
+ * to a {@link MemoryGrowth} strategy, so that {@code memory.grow} only copies the memory when the reservation is
+ * exceeded.
+ * <p>
+ * The buffer is either a heap buffer, or a direct buffer, i.e. off the Java heap, so that large guest heaps are
+ * neither scanned nor copied by the garbage collector. Once the instance using it is discarded, {@link #free()} drops
+ * the buffer, so that any further access fails, and frees a direct buffer right away rather than when the garbage
+ * collector reclaims it. Likewise, a direct buffer replaced by a larger one when the memory grows is freed right away.
+ * <p>
+ * When its writes are tracked, the pages written since the memory was created or last reset are recorded, so that
+ * {@link #reset(Image)} only restores those pages from an {@link Image} of the memory right after instantiation, which
+ * is captured once and shared by all the instances of a Wasm module.
+ */
+final class BufferMemory implements Memory {
+    // the capacity of a ByteBuffer is an int
+    private static final int MAX_RESERVED_PAGES = Integer.MAX_VALUE / PAGE_SIZE;
+    // the size of the chunks used to fill and copy large regions
+    private static final int CHUNK_SIZE = 4096;
+
+    private final MemoryLimits limits;
+    private final boolean direct;
+    private final MemoryGrowth growth;
+    private ByteBuffer buffer;
+    private int pages;
+    private DataSegment[] dataSegments;
+    // the pages written since the memory was created or last reset, null unless the writes are tracked
+    private final BitSet dirtyPages;
+
+    /**
+     * @param limits The memory limits, possibly capped by the module configuration
+     * @param direct Whether the memory is stored off the Java heap
+     * @param growth The strategy that reserves the capacity of the memory
+     * @param reservedPages The minimum number of pages reserved when the memory is created
+     * @param trackWrites Whether the written pages are tracked, so that the memory can be reset
+     */
+    BufferMemory(final MemoryLimits limits, final boolean direct, final MemoryGrowth growth, final int reservedPages,
+            final boolean trackWrites) {
+        this.limits = limits;
+        this.direct = direct;
+        this.growth = growth;
+        this.pages = limits.initialPages();
+        int reserved = Math.max(limits.initialPages(), reservedPages);
+        if (growth == MemoryGrowth.Maximum && limits.maximumPages() < MemoryLimits.MAX_PAGES) {
+            reserved = limits.maximumPages();
+        }
+        this.buffer = allocate(Math.min(Math.min(reserved, limits.maximumPages()), MAX_RESERVED_PAGES));
+        this.dirtyPages = trackWrites ? new BitSet() : null;
+    }
+
+    private ByteBuffer allocate(final int pages) {
+        // buffers are zeroed when allocated, as required for the new pages
+        return (direct ? ByteBuffer.allocateDirect(pages * PAGE_SIZE) : ByteBuffer.allocate(pages * PAGE_SIZE))
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Drops the buffer of the memory, which can't be used afterward. A direct buffer is freed right away, so the memory
+     * must no longer be used by a guest call.
+     */
+    void free() {
+        final ByteBuffer freed = buffer;
+        buffer = null;
+        if (freed != null) {
+            DirectBuffers.free(freed);
+        }
+    }
+
+    private ByteBuffer buffer() {
+        final ByteBuffer result = buffer;
+        if (result == null) {
+            throw new IllegalStateException("The memory was freed, its instance was discarded");
+        }
+        return result;
+    }
+
+    /**
+     * Captures the current content of this memory, i.e. its non-zero pages, its size and its data segments.
+     *
+     * @return A read-only {@link Image} of this memory
+     */
+    Image image() {
+        final byte[][] pageImages = new byte[pages][];
+        final byte[] page = new byte[PAGE_SIZE];
+        for (int i = 0; i < pages; i++) {
+            buffer().get(i * PAGE_SIZE, page, 0, PAGE_SIZE);
+            if (!isZero(page)) {
+                pageImages[i] = page.clone();
+            }
+        }
+        return new Image(pageImages, dataSegments == null ? null : dataSegments.clone());
+    }
+
+    private static boolean isZero(final byte[] page) {
+        for (byte b : page) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restores the pages written since the memory was created or last reset from an image, as well as the size of the
+     * memory and its dropped data segments. The reserved capacity is kept, so that growing the memory again doesn't
+     * copy it.
+     *
+     * @param image The image of the memory of the same Wasm module right after instantiation
+     * @return The number of pages restored
+     * @throws IllegalStateException if the writes are not tracked, or the memory can't hold the image
+     */
+    int reset(final Image image) {
+        if (dirtyPages == null) {
+            throw new IllegalStateException("The writes to the memory are not tracked");
+        }
+        final int imagePages = image.pages.length;
+        if (imagePages > pages) {
+            // the pages beyond the current size are zeroed, so the ones of the image must be restored too
+            final int current = pages;
+            if (grow(imagePages - current) < 0) {
+                throw new IllegalStateException("The memory can't grow to the " + imagePages + " pages of its image");
+            }
+            dirtyPages.set(current, imagePages);
+        }
+        final byte[] zeroes = new byte[PAGE_SIZE];
+        final int restored = dirtyPages.cardinality();
+        for (int i = dirtyPages.nextSetBit(0); i >= 0; i = dirtyPages.nextSetBit(i + 1)) {
+            // the pages grown since the instantiation are zeroed, as they will be when grown again
+            final byte[] page = i < imagePages && image.pages[i] != null ? image.pages[i] : zeroes;
+            buffer().put(i * PAGE_SIZE, page, 0, PAGE_SIZE);
+        }
+        dirtyPages.clear();
+        pages = imagePages;
+        if (image.dataSegments != null) {
+            System.arraycopy(image.dataSegments, 0, dataSegments, 0, image.dataSegments.length);
+        }
+        return restored;
+    }
+
+    /**
+     * @return The number of pages reserved by this memory, i.e. its size before growing it copies the memory
+     */
+    int reservedPages() {
+        return buffer().capacity() / PAGE_SIZE;
+    }
+
+    @Override
+    public int pages() {
+        return pages;
+    }
+
+    @Override
+    public int grow(final int size) {
+        final int previous = pages;
+        if (size < 0 || size > Math.min(limits.maximumPages(), MAX_RESERVED_PAGES) - previous) {
+            return -1;
+        }
+        final int target = previous + size;
+        if (target * (long) PAGE_SIZE > buffer().capacity()) {
+            // the maximum size is reserved upfront when known, so the reservation doubles when it's not
+            final int reserved = growth == MemoryGrowth.Exact ? target : Math.max(target, previous * 2);
+            final ByteBuffer grown = allocate(Math.min(Math.min(reserved, limits.maximumPages()), MAX_RESERVED_PAGES));
+            final ByteBuffer replaced = buffer();
+            grown.put(replaced.duplicate().clear().limit(previous * PAGE_SIZE));
+            buffer = grown;
+            DirectBuffers.free(replaced);
+        }
+        pages = target;
+        return previous;
+    }
+
+    @Override
+    public int initialPages() {
+        return limits.initialPages();
+    }
+
+    @Override
+    public int maximumPages() {
+        return limits.maximumPages();
+    }
+
+    @Override
+    public void initialize(final Instance instance, final DataSegment[] dataSegments) {
+        this.dataSegments = dataSegments;
+        if (dataSegments == null) {
+            return;
+        }
+        for (DataSegment segment : dataSegments) {
+            if (segment instanceof ActiveDataSegment) {
+                final ActiveDataSegment active = (ActiveDataSegment) segment;
+                final int offset = (int) ConstantEvaluators.computeConstantValue(instance, active.offsetInstructions())[0];
+                write(offset, active.data());
+            }
+        }
+    }
+
+    @Override
+    public void initPassiveSegment(final int segmentId, final int dest, final int offset, final int size) {
+        final DataSegment segment = dataSegments[segmentId];
+        if (!(segment instanceof PassiveDataSegment)) {
+            throw new TrapException("out of bounds memory access");
+        }
+        final byte[] data = segment.data();
+        if (offset < 0 || size < 0 || offset + (long) size > data.length) {
+            throw new TrapException("out of bounds memory access");
+        }
+        write(dest, data, offset, size);
+    }
+
+    @Override
+    public void drop(final int segment) {
+        dataSegments[segment] = PassiveDataSegment.EMPTY;
+    }
+
+    private int checkBounds(final int addr, final int size) {
+        if (addr < 0 || size < 0 || addr + (long) size > pages * (long) PAGE_SIZE) {
+            throw new TrapException("out of bounds memory access: attempted to access address " + addr + " of size "
+                    + size + ", but the memory size is " + pages * (long) PAGE_SIZE);
+        }
+        return addr;
+    }
+
+    private int checkWrite(final int addr, final int size) {
+        checkBounds(addr, size);
+        if (dirtyPages != null && size > 0) {
+            dirtyPages.set(addr / PAGE_SIZE, (int) ((addr + (long) size - 1) / PAGE_SIZE) + 1);
+        }
+        return addr;
+    }
+
+    @Override
+    public void write(final int addr, final byte[] data, final int offset, final int size) {
+        buffer().put(checkWrite(addr, size), data, offset, size);
+    }
+
+    @Override
+    public byte read(final int addr) {
+        return buffer().get(checkBounds(addr, 1));
+    }
+
+    @Override
+    public byte[] readBytes(final int addr, final int len) {
+        final byte[] result = new byte[len];
+        buffer().get(checkBounds(addr, len), result, 0, len);
+        return result;
+    }
+
+    @Override
+    public void writeI32(final int addr, final int data) {
+        buffer().putInt(checkWrite(addr, 4), data);
+    }
+
+    @Override
+    public int readInt(final int addr) {
+        return buffer().getInt(checkBounds(addr, 4));
+    }
+
+    @Override
+    public void writeLong(final int addr, final long data) {
+        buffer().putLong(checkWrite(addr, 8), data);
+    }
+
+    @Override
+    public long readLong(final int addr) {
+        return buffer().getLong(checkBounds(addr, 8));
+    }
+
+    @Override
+    public void writeShort(final int addr, final short data) {
+        buffer().putShort(checkWrite(addr, 2), data);
+    }
+
+    @Override
+    public short readShort(final int addr) {
+        return buffer().getShort(checkBounds(addr, 2));
+    }
+
+    @Override
+    public long readU16(final int addr) {
+        return readShort(addr) & 0xFFFFL;
+    }
+
+    @Override
+    public void writeByte(final int addr, final byte data) {
+        buffer().put(checkWrite(addr, 1), data);
+    }
+
+    @Override
+    public long readU8(final int addr) {
+        return read(addr) & 0xFFL;
+    }
+
+    @Override
+    public void writeF32(final int addr, final float data) {
+        buffer().putFloat(checkWrite(addr, 4), data);
+    }
+
+    @Override
+    public long readF32(final int addr) {
+        return readInt(addr);
+    }
+
+    @Override
+    public float readFloat(final int addr) {
+        return buffer().getFloat(checkBounds(addr, 4));
+    }
+
+    @Override
+    public void writeF64(final int addr, final double data) {
+        buffer().putDouble(checkWrite(addr, 8), data);
+    }
+
+    @Override
+    public double readDouble(final int addr) {
+        return buffer().getDouble(checkBounds(addr, 8));
+    }
+
+    @Override
+    public long readF64(final int addr) {
+        return readLong(addr);
+    }
+
+    @Override
+    public void zero() {
+        fill((byte) 0, 0, pages * PAGE_SIZE);
+    }
+
+    @Override
+    public void fill(final byte value, final int fromIndex, final int toIndex) {
+        checkWrite(fromIndex, toIndex - fromIndex);
+        final byte[] chunk = new byte[Math.min(toIndex - fromIndex, CHUNK_SIZE)];
+        Arrays.fill(chunk, value);
+        for (int i = fromIndex; i < toIndex; i += chunk.length) {
+            buffer().put(i, chunk, 0, Math.min(chunk.length, toIndex - i));
+        }
+    }
+
+    @Override
+    public void copy(final int dest, final int src, final int size) {
+        checkBounds(src, size);
+        checkWrite(dest, size);
+        final byte[] chunk = new byte[Math.min(size, CHUNK_SIZE)];
+        // the regions may overlap, so the copy goes backward when the destination is after the source
+        if (dest <= src) {
+            for (int i = 0; i < size; i += chunk.length) {
+                final int length = Math.min(chunk.length, size - i);
+                buffer().get(src + i, chunk, 0, length);
+                buffer().put(dest + i, chunk, 0, length);
+            }
+        } else {
+            for (int i = size; i > 0; i -= chunk.length) {
+                final int length = Math.min(chunk.length, i);
+                buffer().get(src + i - length, chunk, 0, length);
+                buffer().put(dest + i - length, chunk, 0, length);
+            }
+        }
+    }
+
+    /**
+     * The content of a memory right after instantiation. An image is never modified, so it's shared by the memories of
+     * all the instances of a Wasm module.
+     */
+    static final class Image {
+        // the content of the pages, null for the zeroed ones
+        private final byte[][] pages;
+        private final DataSegment[] dataSegments;
+
+        private Image(final byte[][] pages, final DataSegment[] dataSegments) {
+            this.pages = pages;
+            this.dataSegments = dataSegments;
+        }
+    }
+
+    /**
+     * Frees direct buffers via {@code sun.misc.Unsafe.invokeCleaner}, which is available since Java 9, rather than
+     * waiting for the garbage collector to reclaim them. The garbage collector still reclaims them when it's not
+     * available, e.g. when {@code jdk.unsupported} isn't.
+     */
+    private static final class DirectBuffers {
+        private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+        private DirectBuffers() {
+        }
+
+        private static MethodHandle invokeCleaner() {
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                return MethodHandles.lookup()
+                        .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                        .bindTo(theUnsafe.get(null));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Frees a buffer allocated by {@link ByteBuffer#allocateDirect(int)}, which must not be accessed afterward. Heap
+         * buffers are left to the garbage collector.
+         */
+        static void free(final ByteBuffer buffer) {
+            if (INVOKE_CLEANER == null || !buffer.isDirect()) {
+                return;
+            }
+            try {
+                INVOKE_CLEANER.invokeExact(buffer);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // the garbage collector reclaims the buffer instead
+            }
+        }
+    }
+}
@@ -12,20 +12,34 @@ import com.dylibso.chicory.runtime.Machine;
 import io.quarkus.logging.Log;
 
 /**
- * Expects that build-time generated bytecode cannot be used.
+ * Expects that build-time generated bytecode is not used, unless the {@link ExecutionMode#BuildTimeCompiler} execution
+ * mode is configured.
  */
 public class DevTestModeMachineFactoryProvider implements Supplier<Function<Instance, Machine>> {
     private final ExecutionMode executionMode;
+    private final String machineName;
 
     public DevTestModeMachineFactoryProvider(final ExecutionMode executionMode) {
+        this(executionMode, null);
+    }
+
+    public DevTestModeMachineFactoryProvider(final ExecutionMode executionMode, final String machineName) {
         this.executionMode = executionMode;
+        this.machineName = machineName;
     }
 
     @Override
     public Function<Instance, Machine> get() {
         // DEV/TEST mode live reload works, use the configured execution mode for both static and dynamic Wasm
         // modules
-        if (Objects.requireNonNull(executionMode) == ExecutionMode.RuntimeCompiler) {
+        if (Objects.requireNonNull(executionMode) == ExecutionMode.BuildTimeCompiler) {
+            Log.info("  DEV/TEST mode, build-time compiler will be used");
+            final Function<Instance, Machine> machineFactory = GeneratedMachineFactories.get(machineName);
+            if (machineFactory == null) {
+                throw new IllegalStateException("No build time generated machine factory found for " + machineName);
+            }
+            return machineFactory;
+        } else if (executionMode == ExecutionMode.RuntimeCompiler) {
             Log.info("  DEV/TEST mode, runtime compiler will be used");
             return MachineFactoryCompiler::compile;
         } else {
@@ -16,5 +16,12 @@ public enum ExecutionMode {
      * Lower performance than the runtime compiler but works in all environments including
      * native image builds where runtime compilation is not available.
      */
-    Interpreter;
+    Interpreter,
+
+    /**
+     * Uses the machine generated at build time by the Chicory build time compiler, which is always used for statically
+     * configured WASM modules in production and native mode. Setting this mode uses it in dev and test mode as well,
+     * so that the code that is tested is the code that is shipped. Only applies to statically configured WASM modules.
+     */
+    BuildTimeCompiler;
 }
@@ -0,0 +1,30 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Machine;
+
+/**
+ * Holds the machine factories that are generated at build time for the statically configured Wasm modules.
+ * <p>
+ * Each factory directly instantiates the build time compiled {@code <name>Machine} class, so that no reflection is
+ * needed to create machines, and the generated classes don't need to be registered for reflection in native mode.
+ */
+final class GeneratedMachineFactories {
+
+    private static final Map<String, Function<Instance, Machine>> FACTORIES = new ConcurrentHashMap<>();
+
+    private GeneratedMachineFactories() {
+    }
+
+    static void register(final String name, final Function<Instance, Machine> factory) {
+        FACTORIES.put(name, factory);
+    }
+
+    static Function<Instance, Machine> get(final String name) {
+        return FACTORIES.get(name);
+    }
+}
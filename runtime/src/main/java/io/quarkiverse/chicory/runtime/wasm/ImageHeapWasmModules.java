@@ -0,0 +1,35 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dylibso.chicory.wasm.WasmModule;
+
+/**
+ * Holds the statically configured Wasm modules that are parsed during static initialization.
+ * <p>
+ * When a native image is built, static initialization runs at image build time, therefore the parsed
+ * {@link WasmModule} graphs referenced by this class are stored in the image heap, and are available as soon as the
+ * native application starts, without parsing the {@code .meta} resource again.
+ */
+final class ImageHeapWasmModules {
+
+    private static final Map<String, WasmModule> MODULES = new ConcurrentHashMap<>();
+
+    private ImageHeapWasmModules() {
+    }
+
+    static void parse(final String name) {
+        try {
+            MODULES.put(name, WasmQuarkusContext.parseMetaWasmModule(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot parse Wasm module " + name, e);
+        }
+    }
+
+    static WasmModule get(final String name) {
+        return MODULES.get(name);
+    }
+}
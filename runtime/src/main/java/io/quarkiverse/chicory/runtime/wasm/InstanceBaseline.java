@@ -0,0 +1,92 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.Arrays;
+
+import com.dylibso.chicory.runtime.GlobalInstance;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.ExternalType;
+import com.dylibso.chicory.wasm.types.Global;
+import com.dylibso.chicory.wasm.types.MutabilityType;
+import com.dylibso.chicory.wasm.types.ValType;
+
+/**
+ * The state of the instances of a Wasm module right after their instantiation, which the instances are reset to in
+ * place once released to their pool, rather than being discarded and instantiated again.
+ * <p>
+ * The baseline is captured once, from the first instance of the Wasm module, and is read-only, so that it's shared by
+ * all the instances of the Wasm module. The linear memory of each instance tracks its written pages, see
+ * {@link BufferMemory#reset(BufferMemory.Image)}, so only those pages are restored. The mutable globals defined by the
+ * module are compared with their baseline value, as they are few, and written directly by the machines. The tables and
+ * the imported globals are not reset.
+ */
+final class InstanceBaseline {
+    private final BufferMemory.Image memory;
+    private final int[] globalIndexes;
+    private final long[] globalValues;
+
+    private InstanceBaseline(final Instance instance, final BufferMemory memory, final int[] globalIndexes) {
+        this.memory = memory == null ? null : memory.image();
+        this.globalIndexes = globalIndexes;
+        this.globalValues = new long[globalIndexes.length];
+        for (int i = 0; i < globalIndexes.length; i++) {
+            globalValues[i] = instance.global(globalIndexes[i]).getValue();
+        }
+    }
+
+    /**
+     * Captures the current state of an instance, right after its instantiation, as the baseline of its Wasm module.
+     *
+     * @param instance An instance whose memory, if any, is a {@link BufferMemory}
+     * @return The baseline of the Wasm module of the instance
+     * @throws IllegalStateException if the memory of the instance can't track its written pages
+     */
+    static InstanceBaseline capture(final Instance instance) {
+        return new InstanceBaseline(instance, bufferMemory(instance), mutableGlobals(instance.module()));
+    }
+
+    private static BufferMemory bufferMemory(final Instance instance) {
+        if (instance.memory() != null && !(instance.memory() instanceof BufferMemory)) {
+            throw new IllegalStateException("The memory of the instances can't be reset in place, since it's provided by "
+                    + instance.memory().getClass().getName());
+        }
+        return (BufferMemory) instance.memory();
+    }
+
+    private static int[] mutableGlobals(final WasmModule module) {
+        // the globals defined by the module are indexed after the imported ones
+        int imported = 0;
+        for (int i = 0; i < module.importSection().importCount(); i++) {
+            if (module.importSection().getImport(i).importType() == ExternalType.GLOBAL) {
+                imported++;
+            }
+        }
+        final Global[] globals = module.globalSection().globals();
+        int count = 0;
+        final int[] indexes = new int[globals.length];
+        for (int i = 0; i < globals.length; i++) {
+            // v128 globals are not supported, as they don't fit a single value
+            if (globals[i].mutabilityType() == MutabilityType.Var && !ValType.V128.equals(globals[i].valueType())) {
+                indexes[count++] = imported + i;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Restores an instance of the Wasm module to this baseline, i.e. the memory pages and the globals written since its
+     * instantiation or its last reset.
+     *
+     * @param instance An instance of the Wasm module this baseline was captured from
+     * @return The number of memory pages restored
+     */
+    int restore(final Instance instance) {
+        for (int i = 0; i < globalIndexes.length; i++) {
+            final GlobalInstance global = instance.global(globalIndexes[i]);
+            if (global.getValue() != globalValues[i]) {
+                global.setValue(globalValues[i]);
+            }
+        }
+        return memory == null ? 0 : bufferMemory(instance).reset(memory);
+    }
+}
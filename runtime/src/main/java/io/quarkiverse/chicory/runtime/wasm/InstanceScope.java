@@ -0,0 +1,26 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+/**
+ * Defines how injectable {@link WasmInstance} beans share the underlying Chicory instances.
+ */
+public enum InstanceScope {
+    /**
+     * No {@link WasmInstance} bean is produced, and client code is responsible for creating and sharing instances,
+     * e.g. by using the {@link WasmQuarkusContext#getInstancePool()}.
+     */
+    None,
+
+    /**
+     * A {@code @RequestScoped} {@link WasmInstance} bean is produced, backed by the Wasm module instance pool.
+     * An instance is borrowed on first use within a request, and given back to the pool when the request ends.
+     */
+    Request,
+
+    /**
+     * An {@code @ApplicationScoped} {@link WasmInstance} bean is produced, which confines a cached instance to each
+     * calling thread. This fits worker threads that are reused across requests, since no pool access is involved
+     * after the first call on a given thread. The instance is only given back to the pool once its thread has ended, so
+     * {@code pool.reset} and {@code pool.max-idle} don't apply while it is confined to its thread.
+     */
+    PerThread;
+}
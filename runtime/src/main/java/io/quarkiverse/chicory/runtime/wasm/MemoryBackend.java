@@ -0,0 +1,19 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+/**
+ * Defines where the linear memory of the instances of a Wasm module is stored.
+ */
+public enum MemoryBackend {
+    /**
+     * The memory is stored on the Java heap. The default Chicory memory is used, which is copied each time it grows,
+     * unless a sizing policy is configured.
+     */
+    Heap,
+
+    /**
+     * The memory is stored off the Java heap, so that large guest heaps are neither scanned nor copied by the garbage
+     * collector. The reservation doubles when the memory grows beyond it by default, and the memory is freed as soon as
+     * the instance is discarded by the instance pool.
+     */
+    OffHeap;
+}
@@ -0,0 +1,25 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+/**
+ * Defines how the capacity of the linear memory of an instance is reserved ahead of its size, which determines how
+ * often growing the memory copies it.
+ */
+public enum MemoryGrowth {
+    /**
+     * Exactly the requested size is reserved, so that no memory is reserved in vain, and each {@code memory.grow}
+     * copies the memory.
+     */
+    Exact,
+
+    /**
+     * The reservation at least doubles when it's exceeded, so that the copies are amortized.
+     */
+    Doubling,
+
+    /**
+     * The maximum size of the memory, as declared by the Wasm module or capped by the configuration, is reserved
+     * upfront, so that growing the memory never copies it. Behaves like {@link #Doubling} when no maximum size is
+     * known.
+     */
+    Maximum;
+}
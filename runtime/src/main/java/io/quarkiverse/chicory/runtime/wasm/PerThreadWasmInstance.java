@@ -0,0 +1,105 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+
+/**
+ * A {@link WasmInstance} that confines an instance borrowed from the pool to each calling thread.
+ * <p>
+ * Exported functions are subject to the pool {@link WasmExecutionLimits}. If a call fails, the instance of the
+ * calling thread is discarded, and a new one is borrowed on next use. Likewise, the instance of the calling thread is
+ * replaced when it is no longer current, i.e. when the Wasm module has been swapped in <i>dev mode</i>.
+ * <p>
+ * An instance is only given back to the pool once its thread has ended, which is detected when another thread borrows
+ * an instance, so the pool doesn't reset it between the calls of its thread, and doesn't bound the number of instances
+ * confined to threads. When closed, i.e. when the bean is destroyed, the instances of the ended threads are discarded,
+ * while the ones of the running threads, which could still be calling them, are left to the garbage collector.
+ */
+class PerThreadWasmInstance implements WasmInstance, AutoCloseable {
+    private final Supplier<WasmInstancePool> pool;
+    private final Predicate<Instance> isCurrent;
+    // the instance confined to each thread, which is given back once the thread has ended
+    private final Map<Thread, Instance> instances = new ConcurrentHashMap<>();
+
+    PerThreadWasmInstance(final Supplier<WasmInstancePool> pool, final Predicate<Instance> isCurrent) {
+        this.pool = pool;
+        this.isCurrent = isCurrent;
+    }
+
+    @Override
+    public Instance get() {
+        final Thread thread = Thread.currentThread();
+        final Instance result = instances.get(thread);
+        if (result != null) {
+            if (isCurrent == null || isCurrent.test(result)) {
+                return result;
+            }
+            discard(thread, result);
+        }
+        releaseEndedThreads();
+        final Instance borrowed = pool.get().borrow();
+        instances.put(thread, borrowed);
+        return borrowed;
+    }
+
+    @Override
+    public ExportFunction export(final String name) {
+        final Thread thread = Thread.currentThread();
+        final Instance target = get();
+        final ExportFunction export = pool.get().limits().guard(target.export(name));
+        return args -> {
+            try {
+                return export.apply(args);
+            } catch (RuntimeException e) {
+                discard(thread, target);
+                throw e;
+            }
+        };
+    }
+
+    private void discard(final Thread thread, final Instance target) {
+        if (instances.remove(thread, target)) {
+            pool.get().discard(target);
+        }
+    }
+
+    /**
+     * Gives back the instances of the threads that have ended, e.g. the worker threads retired by their executor, so
+     * that they don't hold their memory for the lifetime of the application.
+     */
+    private void releaseEndedThreads() {
+        for (Map.Entry<Thread, Instance> entry : instances.entrySet()) {
+            final Instance ended = entry.getValue();
+            if (entry.getKey().isAlive() || !instances.remove(entry.getKey(), ended)) {
+                continue;
+            }
+            if (isCurrent != null && !isCurrent.test(ended)) {
+                pool.get().discard(ended);
+                continue;
+            }
+            try {
+                pool.get().release(ended);
+            } catch (RuntimeException e) {
+                // the instance couldn't be reset, so the pool discarded it already
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Map.Entry<Thread, Instance> entry : instances.entrySet()) {
+            final Thread thread = entry.getKey();
+            if (thread.isAlive() && thread != Thread.currentThread()) {
+                // discarding frees the off-heap memory right away, which the running thread could still be accessing
+                instances.remove(thread, entry.getValue());
+            } else {
+                discard(thread, entry.getValue());
+            }
+        }
+    }
+}
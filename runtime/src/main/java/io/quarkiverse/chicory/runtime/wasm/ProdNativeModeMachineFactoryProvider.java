@@ -1,7 +1,5 @@
 package io.quarkiverse.chicory.runtime.wasm;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -34,23 +32,11 @@ public class ProdNativeModeMachineFactoryProvider implements Supplier<Function<I
             // PROD/NATIVE mode + Static Wasm payload means a Java API is generated at build time, and SHOULD
             // definitely be used - let's override the execution mode
             Log.info("  PROD/NATIVE mode enabled + static Wasm payload, build-time compiler will be used");
-            return instance -> {
-                // similar to the generated raw Java class "create()"
-                final String machineClazzName = machineName + "Machine";
-                try {
-                    Class<?> machineClazz = Thread.currentThread().getContextClassLoader()
-                            .loadClass(machineClazzName);
-                    Class<?>[] parameterTypes = new Class<?>[] { Instance.class };
-                    Constructor<?> constructor = machineClazz.getConstructor(parameterTypes);
-                    Object[] arguments = new Object[] { instance };
-                    return (Machine) constructor.newInstance(arguments);
-                } catch (ClassNotFoundException e) {
-                    throw new IllegalStateException("Cannot load class: " + machineClazzName, e);
-                } catch (InvocationTargetException | NoSuchMethodException | InstantiationException
-                        | IllegalAccessException e) {
-                    throw new RuntimeException(e);
-                }
-            };
+            final Function<Instance, Machine> machineFactory = GeneratedMachineFactories.get(machineName);
+            if (machineFactory == null) {
+                throw new IllegalStateException("No build time generated machine factory found for " + machineName);
+            }
+            return machineFactory;
         } else {
             // PROD/NATIVE mode + Dynamic Wasm payload, generated Java API does not exist, use the
             // configured execution mode
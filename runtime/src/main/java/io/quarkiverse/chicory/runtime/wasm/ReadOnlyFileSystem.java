@@ -0,0 +1,422 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.ReadOnlyFileSystemException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only view of a {@link FileSystem}, which rejects any change to its files with a
+ * {@link ReadOnlyFileSystemException}, or an {@link AccessDeniedException} when the access is checked.
+ * <p>
+ * The files embedded into the WASI filesystem of a Wasm module are shared by all its instances, so the guests get this
+ * view of them, and can't change what the other instances read. Only the operations used to read files, list
+ * directories and read attributes are delegated.
+ */
+final class ReadOnlyFileSystem extends FileSystem {
+    private final FileSystem delegate;
+    private final Provider provider = new Provider();
+
+    ReadOnlyFileSystem(final FileSystem delegate) {
+        this.delegate = delegate;
+    }
+
+    private ReadOnlyPath wrap(final Path path) {
+        return path == null ? null : new ReadOnlyPath(path);
+    }
+
+    private Path unwrap(final Path path) {
+        if (path instanceof ReadOnlyPath && ((ReadOnlyPath) path).getFileSystem() == this) {
+            return ((ReadOnlyPath) path).delegate;
+        }
+        throw new ProviderMismatchException();
+    }
+
+    @Override
+    public FileSystemProvider provider() {
+        return provider;
+    }
+
+    @Override
+    public void close() {
+        // shared by all the instances of the Wasm module, so it's never closed by one of them
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public String getSeparator() {
+        return delegate.getSeparator();
+    }
+
+    @Override
+    public Iterable<Path> getRootDirectories() {
+        return () -> wrap(delegate.getRootDirectories().iterator());
+    }
+
+    @Override
+    public Iterable<FileStore> getFileStores() {
+        return delegate.getFileStores();
+    }
+
+    @Override
+    public Set<String> supportedFileAttributeViews() {
+        return delegate.supportedFileAttributeViews();
+    }
+
+    @Override
+    public Path getPath(final String first, final String... more) {
+        return wrap(delegate.getPath(first, more));
+    }
+
+    @Override
+    public PathMatcher getPathMatcher(final String syntaxAndPattern) {
+        final PathMatcher matcher = delegate.getPathMatcher(syntaxAndPattern);
+        return path -> matcher.matches(unwrap(path));
+    }
+
+    @Override
+    public UserPrincipalLookupService getUserPrincipalLookupService() {
+        return delegate.getUserPrincipalLookupService();
+    }
+
+    @Override
+    public WatchService newWatchService() throws IOException {
+        return delegate.newWatchService();
+    }
+
+    private Iterator<Path> wrap(final Iterator<Path> paths) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return paths.hasNext();
+            }
+
+            @Override
+            public Path next() {
+                return wrap(paths.next());
+            }
+        };
+    }
+
+    /**
+     * A {@link Path} of the read-only view, which delegates to the {@link Path} of the underlying filesystem.
+     */
+    private final class ReadOnlyPath implements Path {
+        private final Path delegate;
+
+        private ReadOnlyPath(final Path delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public FileSystem getFileSystem() {
+            return ReadOnlyFileSystem.this;
+        }
+
+        @Override
+        public boolean isAbsolute() {
+            return delegate.isAbsolute();
+        }
+
+        @Override
+        public Path getRoot() {
+            return wrap(delegate.getRoot());
+        }
+
+        @Override
+        public Path getFileName() {
+            return wrap(delegate.getFileName());
+        }
+
+        @Override
+        public Path getParent() {
+            return wrap(delegate.getParent());
+        }
+
+        @Override
+        public int getNameCount() {
+            return delegate.getNameCount();
+        }
+
+        @Override
+        public Path getName(final int index) {
+            return wrap(delegate.getName(index));
+        }
+
+        @Override
+        public Path subpath(final int beginIndex, final int endIndex) {
+            return wrap(delegate.subpath(beginIndex, endIndex));
+        }
+
+        @Override
+        public boolean startsWith(final Path other) {
+            return other instanceof ReadOnlyPath && delegate.startsWith(((ReadOnlyPath) other).delegate);
+        }
+
+        @Override
+        public boolean endsWith(final Path other) {
+            return other instanceof ReadOnlyPath && delegate.endsWith(((ReadOnlyPath) other).delegate);
+        }
+
+        @Override
+        public Path normalize() {
+            return wrap(delegate.normalize());
+        }
+
+        @Override
+        public Path resolve(final Path other) {
+            return wrap(delegate.resolve(unwrap(other)));
+        }
+
+        @Override
+        public Path relativize(final Path other) {
+            return wrap(delegate.relativize(unwrap(other)));
+        }
+
+        @Override
+        public URI toUri() {
+            return delegate.toUri();
+        }
+
+        @Override
+        public Path toAbsolutePath() {
+            return wrap(delegate.toAbsolutePath());
+        }
+
+        @Override
+        public Path toRealPath(final LinkOption... options) throws IOException {
+            return wrap(delegate.toRealPath(options));
+        }
+
+        @Override
+        public WatchKey register(final WatchService watcher, final WatchEvent.Kind<?>[] events,
+                final WatchEvent.Modifier... modifiers) throws IOException {
+            return delegate.register(watcher, events, modifiers);
+        }
+
+        @Override
+        public int compareTo(final Path other) {
+            return delegate.compareTo(unwrap(other));
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof ReadOnlyPath && delegate.equals(((ReadOnlyPath) other).delegate);
+        }
+
+        @Override
+        public int hashCode() {
+            return delegate.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    /**
+     * The {@link FileSystemProvider} of the read-only view, which rejects the operations that change files.
+     */
+    private final class Provider extends FileSystemProvider {
+
+        private FileSystemProvider delegate() {
+            return delegate.provider();
+        }
+
+        @Override
+        public String getScheme() {
+            return delegate().getScheme();
+        }
+
+        @Override
+        public FileSystem newFileSystem(final URI uri, final Map<String, ?> env) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileSystem getFileSystem(final URI uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Path getPath(final URI uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SeekableByteChannel newByteChannel(final Path path, final Set<? extends OpenOption> options,
+                final FileAttribute<?>... attrs) throws IOException {
+            checkReadOnly(options);
+            return delegate().newByteChannel(unwrap(path), options, attrs);
+        }
+
+        @Override
+        public FileChannel newFileChannel(final Path path, final Set<? extends OpenOption> options,
+                final FileAttribute<?>... attrs) throws IOException {
+            checkReadOnly(options);
+            return delegate().newFileChannel(unwrap(path), options, attrs);
+        }
+
+        private void checkReadOnly(final Set<? extends OpenOption> options) {
+            // the other options, e.g. CREATE, are ignored when a file is only opened for reading
+            if (options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND)
+                    || options.contains(StandardOpenOption.DELETE_ON_CLOSE)) {
+                throw new ReadOnlyFileSystemException();
+            }
+        }
+
+        @Override
+        public DirectoryStream<Path> newDirectoryStream(final Path dir, final DirectoryStream.Filter<? super Path> filter)
+                throws IOException {
+            final DirectoryStream<Path> stream = delegate().newDirectoryStream(unwrap(dir),
+                    entry -> filter.accept(wrap(entry)));
+            return new DirectoryStream<>() {
+                @Override
+                public Iterator<Path> iterator() {
+                    return wrap(stream.iterator());
+                }
+
+                @Override
+                public void close() throws IOException {
+                    stream.close();
+                }
+            };
+        }
+
+        @Override
+        public void createDirectory(final Path dir, final FileAttribute<?>... attrs) {
+            throw new ReadOnlyFileSystemException();
+        }
+
+        @Override
+        public void delete(final Path path) {
+            throw new ReadOnlyFileSystemException();
+        }
+
+        @Override
+        public void copy(final Path source, final Path target, final CopyOption... options) {
+            throw new ReadOnlyFileSystemException();
+        }
+
+        @Override
+        public void move(final Path source, final Path target, final CopyOption... options) {
+            throw new ReadOnlyFileSystemException();
+        }
+
+        @Override
+        public boolean isSameFile(final Path path, final Path path2) throws IOException {
+            if (!(path2 instanceof ReadOnlyPath)) {
+                return false;
+            }
+            return delegate().isSameFile(unwrap(path), unwrap(path2));
+        }
+
+        @Override
+        public boolean isHidden(final Path path) throws IOException {
+            return delegate().isHidden(unwrap(path));
+        }
+
+        @Override
+        public FileStore getFileStore(final Path path) throws IOException {
+            return delegate().getFileStore(unwrap(path));
+        }
+
+        @Override
+        public void checkAccess(final Path path, final AccessMode... modes) throws IOException {
+            for (AccessMode mode : modes) {
+                if (mode == AccessMode.WRITE) {
+                    throw new AccessDeniedException(path.toString(), null, "read-only file system");
+                }
+            }
+            delegate().checkAccess(unwrap(path), modes);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <V extends FileAttributeView> V getFileAttributeView(final Path path, final Class<V> type,
+                final LinkOption... options) {
+            // the other views can change the attributes, so they are not available
+            if (type != BasicFileAttributeView.class) {
+                return null;
+            }
+            final BasicFileAttributeView view = delegate().getFileAttributeView(unwrap(path),
+                    BasicFileAttributeView.class, options);
+            return view == null ? null : (V) new BasicFileAttributeView() {
+                @Override
+                public String name() {
+                    return view.name();
+                }
+
+                @Override
+                public BasicFileAttributes readAttributes() throws IOException {
+                    return view.readAttributes();
+                }
+
+                @Override
+                public void setTimes(final FileTime lastModifiedTime, final FileTime lastAccessTime,
+                        final FileTime createTime) {
+                    throw new ReadOnlyFileSystemException();
+                }
+            };
+        }
+
+        @Override
+        public <A extends BasicFileAttributes> A readAttributes(final Path path, final Class<A> type,
+                final LinkOption... options) throws IOException {
+            return delegate().readAttributes(unwrap(path), type, options);
+        }
+
+        @Override
+        public Map<String, Object> readAttributes(final Path path, final String attributes,
+                final LinkOption... options) throws IOException {
+            return delegate().readAttributes(unwrap(path), attributes, options);
+        }
+
+        @Override
+        public Path readSymbolicLink(final Path link) throws IOException {
+            return wrap(delegate().readSymbolicLink(unwrap(link)));
+        }
+
+        @Override
+        public void setAttribute(final Path path, final String attribute, final Object value,
+                final LinkOption... options) {
+            throw new ReadOnlyFileSystemException();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+
+/**
+ * A {@link WasmInstance} that borrows an instance from a pool on first use, and gives it back when closed, i.e.
+ * when the request scoped bean is destroyed.
+ * <p>
+ * Exported functions are subject to the pool {@link WasmExecutionLimits}. If a call fails, the instance is discarded
+ * rather than given back, and a new one is borrowed on next use.
+ */
+class RequestScopedWasmInstance implements WasmInstance, AutoCloseable {
+    private final WasmInstancePool pool;
+    private Instance instance;
+
+    RequestScopedWasmInstance(final WasmInstancePool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Instance get() {
+        if (instance == null) {
+            instance = pool.borrow();
+        }
+        return instance;
+    }
+
+    @Override
+    public ExportFunction export(final String name) {
+        final Instance target = get();
+        final ExportFunction export = pool.limits().guard(target.export(name));
+        return args -> {
+            try {
+                return export.apply(args);
+            } catch (RuntimeException e) {
+                if (instance == target) {
+                    instance = null;
+                    pool.discard(target);
+                }
+                throw e;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (instance != null) {
+            pool.release(instance);
+            instance = null;
+        }
+    }
+}
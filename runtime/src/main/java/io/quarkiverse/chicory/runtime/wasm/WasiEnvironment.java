@@ -0,0 +1,174 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+import org.jboss.logging.Logger;
+
+import com.dylibso.chicory.runtime.HostFunction;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.wasi.WasiExitException;
+import com.dylibso.chicory.wasi.WasiOptions;
+import com.dylibso.chicory.wasi.WasiPreview1;
+import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.ExportSection;
+import com.dylibso.chicory.wasm.types.ExternalType;
+
+import io.quarkiverse.chicory.runtime.WasmQuarkusConfig;
+import io.quarkiverse.chicory.runtime.WasmQuarkusRuntimeConfig;
+import io.quarkiverse.chicory.runtime.WasmQuarkusUtils;
+
+/**
+ * The WASI environment of the instances of a Wasm module, on behalf of its {@link WasmQuarkusContext}: the sinks of
+ * the guest output, the {@link WasiOptions} holding the configured arguments, environment and preopened directories,
+ * and the WASI host functions imported by the instances.
+ * <p>
+ * The output sinks are created once and shared by all the instances, whether WASI is enabled or not, so that they can
+ * be passed to the {@link WasiOptions} of instances built by the application.
+ */
+final class WasiEnvironment {
+    static final HostFunction[] NO_HOST_FUNCTIONS = new HostFunction[0];
+
+    private final String name;
+    private final WasmQuarkusConfig.ModuleConfig.WasiConfig buildConfig;
+    // configured at runtime, if any
+    private final WasmQuarkusRuntimeConfig.ModuleConfig.WasiConfig runtimeConfig;
+    private final OutputStream stdout;
+    private final OutputStream stderr;
+    private volatile WasiOptions options;
+    private volatile HostFunction[] hostFunctions;
+
+    /**
+     * @param moduleKey The key of the Wasm module in {@code quarkus.chicory.modules}, which names the output loggers
+     * @param name The name of the Wasm module
+     * @param buildConfig The WASI configuration of the Wasm module fixed at build time
+     * @param runtimeConfig The WASI configuration of the Wasm module at runtime, or {@code null} if none
+     */
+    WasiEnvironment(final String moduleKey, final String name, final WasmQuarkusConfig.ModuleConfig.WasiConfig buildConfig,
+            final WasmQuarkusRuntimeConfig.ModuleConfig.WasiConfig runtimeConfig) {
+        this.name = name;
+        this.buildConfig = buildConfig;
+        this.runtimeConfig = runtimeConfig;
+        this.stdout = output(moduleKey, buildConfig.stdout(), Logger.Level.INFO, buildConfig.outputBufferSize());
+        this.stderr = output(moduleKey, buildConfig.stderr(), Logger.Level.WARN, buildConfig.outputBufferSize());
+    }
+
+    private static OutputStream output(final String moduleKey, final WasiOutput output, final Logger.Level level,
+            final int bufferSize) {
+        switch (output) {
+            case Discard:
+                return OutputStream.nullOutputStream();
+            case RingBuffer:
+                return new WasiRingBuffer(bufferSize);
+            case Log:
+                return new WasiLogOutputStream("io.quarkiverse.chicory.wasi." + moduleKey, level, bufferSize);
+            default:
+                throw new IllegalArgumentException("Unsupported WASI output " + output);
+        }
+    }
+
+    /**
+     * @return {@code true} if the instances import the WASI host functions, i.e. WASI is enabled or files are embedded
+     */
+    boolean isEnabled() {
+        return buildConfig.enabled() || buildConfig.embed().isPresent();
+    }
+
+    OutputStream stdout() {
+        return stdout;
+    }
+
+    OutputStream stderr() {
+        return stderr;
+    }
+
+    /**
+     * Returns the WASI host functions of an instance, or none when WASI is not enabled. Without any preopened
+     * directory, the guests can't open any file, so the WASI state, i.e. the table of the standard streams, never
+     * changes, and the host functions are built once and shared by all the instances. Otherwise, each instance gets its
+     * own WASI state, as the open files belong to it.
+     */
+    HostFunction[] hostFunctions() {
+        if (!isEnabled()) {
+            return NO_HOST_FUNCTIONS;
+        }
+        if ((runtimeConfig != null && !runtimeConfig.preopens().isEmpty()) || buildConfig.embed().isPresent()) {
+            return newHostFunctions();
+        }
+        HostFunction[] result = hostFunctions;
+        if (result == null) {
+            synchronized (this) {
+                result = hostFunctions;
+                if (result == null) {
+                    result = newHostFunctions();
+                    hostFunctions = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private HostFunction[] newHostFunctions() {
+        return WasiPreview1.builder().withOptions(options()).build().toHostFunctions();
+    }
+
+    /**
+     * Returns the {@link WasiOptions} of the instances, which are built once, so that the embedded files are shared by
+     * all the instances.
+     */
+    WasiOptions options() {
+        WasiOptions result = options;
+        if (result == null) {
+            synchronized (this) {
+                result = options;
+                if (result == null) {
+                    final WasiOptions.Builder builder = WasiOptions.builder()
+                            .withStdin(InputStream.nullInputStream())
+                            .withStdout(stdout)
+                            .withStderr(stderr);
+                    if (runtimeConfig != null) {
+                        runtimeConfig.args().ifPresent(builder::withArguments);
+                        runtimeConfig.env().forEach(builder::withEnvironment);
+                        runtimeConfig.preopens().forEach((guest, host) -> builder.withDirectory(guest, Path.of(host)));
+                    }
+                    if (buildConfig.embed().isPresent()) {
+                        builder.withDirectory(buildConfig.embedMount(),
+                                WasiFileSystem.load(WasmQuarkusUtils.getWasiFilesResource(name)));
+                    }
+                    result = builder.build();
+                    options = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the {@code _start} function of a WASI command, if any, whose {@code main} may exit, as Go guests do, once
+     * the runtime is initialized and the exported functions are ready to be called.
+     */
+    void start(final Instance instance) {
+        if (!exportsFunction(instance.module(), "_start")) {
+            return;
+        }
+        try {
+            instance.export("_start").apply();
+        } catch (WasiExitException e) {
+            if (e.exitCode() != 0) {
+                throw new IllegalStateException("Wasm module " + name + " failed to start, with exit code "
+                        + e.exitCode(), e);
+            }
+        }
+    }
+
+    private static boolean exportsFunction(final WasmModule wasmModule, final String name) {
+        final ExportSection exports = wasmModule.exportSection();
+        for (int i = 0; i < exports.exportCount(); i++) {
+            if (exports.getExport(i).exportType() == ExternalType.FUNCTION && exports.getExport(i).name().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
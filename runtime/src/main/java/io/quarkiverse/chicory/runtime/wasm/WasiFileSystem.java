@@ -0,0 +1,64 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.jboss.logging.Logger;
+
+import io.roastedroot.zerofs.Configuration;
+import io.roastedroot.zerofs.ZeroFs;
+
+/**
+ * Loads the files embedded at build time into the WASI filesystem of a Wasm module, i.e. a zip archive resource, into
+ * an in-memory {@link FileSystem}.
+ * <p>
+ * The filesystem is loaded once per Wasm module, and shared by all its instances, so that guests read the embedded
+ * files without any disk access on the request path. It is mounted as a {@link ReadOnlyFileSystem}, so that no guest
+ * can change the files read by the other instances.
+ */
+final class WasiFileSystem {
+    private static final Logger LOG = Logger.getLogger(WasiFileSystem.class);
+
+    private WasiFileSystem() {
+    }
+
+    /**
+     * @param resource The classpath resource storing the embedded files
+     * @return The root of the read-only, in-memory filesystem holding the embedded files
+     */
+    static Path load(final String resource) {
+        final InputStream stream = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource);
+        if (stream == null) {
+            throw new IllegalStateException("The embedded WASI files " + resource + " are not found");
+        }
+        final FileSystem fileSystem = ZeroFs.newFileSystem(
+                Configuration.unix().toBuilder().setAttributeViews("unix").build());
+        final Path root = fileSystem.getPath("/");
+        long size = 0;
+        try (ZipInputStream zip = new ZipInputStream(stream)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                final Path path = root.resolve(entry.getName()).normalize();
+                if (!path.startsWith(root)) {
+                    throw new IllegalStateException("Invalid embedded WASI file " + entry.getName());
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(path);
+                } else {
+                    Files.createDirectories(path.getParent());
+                    size += Files.copy(zip, path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load the embedded WASI files " + resource, e);
+        }
+        LOG.debug("Loaded " + size + " bytes of embedded WASI files from " + resource);
+        return new ReadOnlyFileSystem(fileSystem).getPath("/");
+    }
+}
@@ -0,0 +1,117 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.logging.Logger;
+
+/**
+ * An {@link OutputStream} which splits the output of a guest into lines, and forwards them asynchronously to JBoss
+ * Logging, so that the guest never waits for the log handlers.
+ * <p>
+ * The lines of all the streams are queued for a single forwarding thread. When the queue is full, the lines are
+ * dropped rather than blocking the guest, and the number of dropped lines is logged once the queue drains. Lines are
+ * split beyond a maximum length, so that the memory held by a stream is bounded.
+ */
+final class WasiLogOutputStream extends OutputStream {
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final BlockingQueue<Line> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static final Logger LOG = Logger.getLogger(WasiLogOutputStream.class);
+
+    static {
+        final Thread forwarder = new Thread(WasiLogOutputStream::forward, "chicory-wasi-log");
+        forwarder.setDaemon(true);
+        forwarder.start();
+    }
+
+    private final Logger logger;
+    private final Logger.Level level;
+    private final byte[] line;
+    private int length;
+
+    /**
+     * @param category The logging category of the lines
+     * @param level The level the lines are logged with
+     * @param maxLineLength The length beyond which a line is split
+     */
+    WasiLogOutputStream(final String category, final Logger.Level level, final int maxLineLength) {
+        this.logger = Logger.getLogger(category);
+        this.level = level;
+        this.line = new byte[maxLineLength];
+    }
+
+    @Override
+    public synchronized void write(final int b) {
+        if (b == '\n') {
+            emit();
+        } else {
+            line[length++] = (byte) b;
+            if (length == line.length) {
+                emit();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        for (int i = off; i < off + len; i++) {
+            write(b[i]);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (length > 0) {
+            emit();
+        }
+    }
+
+    private void emit() {
+        int end = length;
+        if (end > 0 && line[end - 1] == '\r') {
+            end--;
+        }
+        final String text = new String(line, 0, end, StandardCharsets.UTF_8);
+        length = 0;
+        if (!logger.isEnabled(level)) {
+            return;
+        }
+        if (!QUEUE.offer(new Line(logger, level, text))) {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    private static void forward() {
+        try {
+            while (true) {
+                final Line line = QUEUE.take();
+                line.logger.log(line.level, line.text);
+                final long dropped = QUEUE.isEmpty() ? DROPPED.getAndSet(0) : 0;
+                if (dropped > 0) {
+                    LOG.warn(dropped + " lines of WASI output were dropped, as they were written faster than logged");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Line {
+        private final Logger logger;
+        private final Logger.Level level;
+        private final String text;
+
+        private Line(final Logger logger, final Logger.Level level, final String text) {
+            this.logger = logger;
+            this.level = level;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+/**
+ * Defines where the output a guest writes to a WASI standard stream, i.e. {@code stdout} or {@code stderr}, goes.
+ * <p>
+ * Whatever the sink, the guest never waits for the output to be consumed, and the memory held by the output is bounded,
+ * so that chatty guests running on long-lived instances can't leak memory.
+ */
+public enum WasiOutput {
+    /**
+     * The output is dropped.
+     */
+    Discard,
+
+    /**
+     * The latest output is kept in a {@link WasiRingBuffer} of {@code output-buffer-size} bytes, older output being
+     * overwritten.
+     */
+    RingBuffer,
+
+    /**
+     * The output is split into lines, which are forwarded asynchronously to JBoss Logging, in the
+     * {@code io.quarkiverse.chicory.wasi.<module-key>} category. Lines longer than {@code output-buffer-size} bytes are
+     * split, and lines are dropped rather than blocking the guest when the logging falls behind.
+     */
+    Log;
+}
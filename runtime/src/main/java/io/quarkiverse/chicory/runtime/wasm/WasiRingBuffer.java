@@ -0,0 +1,99 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * An {@link OutputStream} which keeps the latest bytes written to it, up to its capacity, in a fixed size ring buffer,
+ * so that writing never allocates nor blocks, however much is written.
+ * <p>
+ * This is the sink of the WASI standard streams configured as {@link WasiOutput#RingBuffer}, which instances can
+ * share, so the buffer is thread safe.
+ */
+public final class WasiRingBuffer extends OutputStream {
+    private final byte[] buffer;
+    // the index of the next byte written
+    private int position;
+    private int size;
+    private long written;
+
+    /**
+     * @param capacity The maximum number of bytes kept
+     */
+    public WasiRingBuffer(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive: " + capacity);
+        }
+        this.buffer = new byte[capacity];
+    }
+
+    @Override
+    public synchronized void write(final int b) {
+        buffer[position] = (byte) b;
+        position = (position + 1) % buffer.length;
+        size = Math.min(size + 1, buffer.length);
+        written++;
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        written += len;
+        // only the tail of the bytes fits in the buffer
+        final int kept = Math.min(len, buffer.length);
+        int from = off + len - kept;
+        int remaining = kept;
+        while (remaining > 0) {
+            final int chunk = Math.min(remaining, buffer.length - position);
+            System.arraycopy(b, from, buffer, position, chunk);
+            position = (position + chunk) % buffer.length;
+            from += chunk;
+            remaining -= chunk;
+        }
+        size = Math.min(size + kept, buffer.length);
+    }
+
+    /**
+     * @return The bytes kept by the buffer, from the oldest to the latest
+     */
+    public synchronized byte[] toByteArray() {
+        final byte[] result = new byte[size];
+        final int start = (position - size + buffer.length) % buffer.length;
+        final int first = Math.min(size, buffer.length - start);
+        System.arraycopy(buffer, start, result, 0, first);
+        System.arraycopy(buffer, 0, result, first, size - first);
+        return result;
+    }
+
+    /**
+     * @param charset The charset of the output
+     * @return The bytes kept by the buffer, decoded with the given charset
+     */
+    public String toString(final Charset charset) {
+        return new String(toByteArray(), charset);
+    }
+
+    /**
+     * @return The total number of bytes written to the buffer, including the overwritten ones
+     */
+    public synchronized long written() {
+        return written;
+    }
+
+    /**
+     * @return The maximum number of bytes kept
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Drops the bytes kept by the buffer.
+     */
+    public synchronized void reset() {
+        position = 0;
+        size = 0;
+    }
+}
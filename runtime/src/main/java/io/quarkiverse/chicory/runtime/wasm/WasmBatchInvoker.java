@@ -0,0 +1,337 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Memory;
+
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+/**
+ * Invokes a Wasm exported function for each element of a list of inputs, amortizing the per-call overhead of
+ * allocating guest memory and copying data.
+ * <p>
+ * All the inputs, plus an optional shared input which is the same for every call, are packed contiguously into a
+ * single guest allocation and written to the linear memory at once. The export is then invoked in a tight loop on
+ * the same instance, and the allocation is freed once the whole batch has been processed.
+ * <p>
+ * The guest module is expected to export an allocator, i.e. {@code malloc(size) -> ptr} and {@code free(ptr)} by
+ * default:
+ *
+ * <pre>
+ * WasmBatchInvoker invoker = WasmBatchInvoker.builder("evalPolicy")
+ *         .withSharedInput(policyBytes)
+ *         .withArguments((shared, input) -&gt; new long[] { shared.ptr(), shared.length(), input.ptr(), input.length() })
+ *         .build();
+ * long[][] results = invoker.invoke(pool, inputs);
+ * </pre>
+ */
+public final class WasmBatchInvoker {
+
+    private final String exportName;
+    private final String mallocName;
+    private final String freeName;
+    private final byte[] sharedInput;
+    private final Function<Instance, Arguments> arguments;
+
+    private WasmBatchInvoker(final Builder builder) {
+        this.exportName = builder.exportName;
+        this.mallocName = builder.mallocName;
+        this.freeName = builder.freeName;
+        this.sharedInput = builder.sharedInput;
+        this.arguments = builder.arguments;
+    }
+
+    /**
+     * Creates a {@link Builder} for a batch invoker calling the given export.
+     *
+     * @param exportName The name of the exported function to be invoked for each input
+     * @return A {@link Builder} instance
+     */
+    public static Builder builder(final String exportName) {
+        return new Builder(exportName);
+    }
+
+    /**
+     * Invokes the export for each input on a single instance borrowed from the pool.
+     *
+     * @param pool The {@link WasmInstancePool} providing the instance
+     * @param inputs The inputs, one export invocation each
+     * @return The results of each invocation, in the same order as the inputs
+     */
+    public long[][] invoke(final WasmInstancePool pool, final List<byte[]> inputs) {
+        return pool.execute(instance -> invoke(instance, inputs));
+    }
+
+    /**
+     * Invokes the export for each input on a single instance borrowed from the pool, and maps each result while the
+     * instance is still borrowed, e.g. in order to read an output whose guest pointer and length are returned, before
+     * the instance is reset or reused.
+     *
+     * @param pool The {@link WasmInstancePool} providing the instance
+     * @param inputs The inputs, one export invocation each
+     * @param resultMapper Maps the result of each invocation, given the instance that returned it
+     * @param <R> The type of the mapped results
+     * @return The mapped results of each invocation, in the same order as the inputs
+     */
+    public <R> List<R> invoke(final WasmInstancePool pool, final List<byte[]> inputs,
+            final BiFunction<Instance, long[], R> resultMapper) {
+        Objects.requireNonNull(resultMapper, "Result mapper cannot be null");
+        return pool.execute(instance -> {
+            final long[][] results = invoke(instance, inputs);
+            final List<R> mapped = new ArrayList<>(results.length);
+            for (long[] result : results) {
+                mapped.add(resultMapper.apply(instance, result));
+            }
+            return mapped;
+        });
+    }
+
+    /**
+     * Invokes the export for each input, sharding the inputs across up to {@code parallelism} instances borrowed from
+     * the pool, which are then executed in parallel by the Mutiny default worker pool, i.e. the Quarkus worker pool, so
+     * that the Wasm calls never starve the common {@link ForkJoinPool}.
+     *
+     * @param pool The {@link WasmInstancePool} providing the instances
+     * @param inputs The inputs, one export invocation each
+     * @param parallelism The maximum number of shards, and therefore of instances, used to process the batch
+     * @return The results of each invocation, in the same order as the inputs
+     */
+    public long[][] invokeParallel(final WasmInstancePool pool, final List<byte[]> inputs, final int parallelism) {
+        // resolved on each call, since the Quarkus worker pool is only installed once the application starts
+        return invokeParallel(pool, inputs, parallelism, Infrastructure.getDefaultWorkerPool());
+    }
+
+    /**
+     * Invokes the export for each input, sharding the inputs across up to {@code parallelism} instances borrowed from
+     * the pool, which are then executed in parallel by the given executor.
+     *
+     * @param pool The {@link WasmInstancePool} providing the instances
+     * @param inputs The inputs, one export invocation each
+     * @param parallelism The maximum number of shards, and therefore of instances, used to process the batch
+     * @param executor The {@link Executor} running the shards, which must allow blocking calls
+     * @return The results of each invocation, in the same order as the inputs
+     */
+    public long[][] invokeParallel(final WasmInstancePool pool, final List<byte[]> inputs, final int parallelism,
+            final Executor executor) {
+        return invokeParallel(pool, inputs, parallelism, executor, (instance, result) -> result)
+                .toArray(new long[0][]);
+    }
+
+    /**
+     * Invokes the export for each input, sharding the inputs across up to {@code parallelism} instances borrowed from
+     * the pool, which are then executed in parallel by the given executor. Each result is mapped while the instance
+     * that returned it is still borrowed.
+     *
+     * @param pool The {@link WasmInstancePool} providing the instances
+     * @param inputs The inputs, one export invocation each
+     * @param parallelism The maximum number of shards, and therefore of instances, used to process the batch
+     * @param executor The {@link Executor} running the shards, which must allow blocking calls
+     * @param resultMapper Maps the result of each invocation, given the instance that returned it
+     * @param <R> The type of the mapped results
+     * @return The mapped results of each invocation, in the same order as the inputs
+     */
+    public <R> List<R> invokeParallel(final WasmInstancePool pool, final List<byte[]> inputs, final int parallelism,
+            final Executor executor, final BiFunction<Instance, long[], R> resultMapper) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        final int shardSize = Math.max(1, (inputs.size() + parallelism - 1) / parallelism);
+        final List<CompletableFuture<List<R>>> shards = new ArrayList<>();
+        for (int start = 0; start < inputs.size(); start += shardSize) {
+            final List<byte[]> shard = inputs.subList(start, Math.min(start + shardSize, inputs.size()));
+            shards.add(CompletableFuture.supplyAsync(() -> invoke(pool, shard, resultMapper), executor));
+        }
+        final List<R> results = new ArrayList<>(inputs.size());
+        try {
+            for (CompletableFuture<List<R>> shard : shards) {
+                results.addAll(shard.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Invokes the export for each input on the given instance. The caller must have exclusive access to the instance
+     * for the whole duration of the batch.
+     *
+     * @param instance The {@link Instance} to be used
+     * @param inputs The inputs, one export invocation each
+     * @return The results of each invocation, in the same order as the inputs
+     */
+    public long[][] invoke(final Instance instance, final List<byte[]> inputs) {
+        final long[][] results = new long[inputs.size()][];
+        if (inputs.isEmpty()) {
+            return results;
+        }
+        final ExportFunction export = instance.export(exportName);
+        final ExportFunction malloc = instance.export(mallocName);
+        final ExportFunction free = instance.export(freeName);
+        final Memory memory = instance.memory();
+        final Arguments instanceArguments = arguments.apply(instance);
+
+        // pack the shared input and all the inputs in a single buffer
+        final int sharedLength = sharedInput == null ? 0 : sharedInput.length;
+        long totalLength = sharedLength;
+        for (byte[] input : inputs) {
+            totalLength += input.length;
+        }
+        if (totalLength > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Batch is too large to fit into the guest memory: " + totalLength);
+        }
+        final byte[] packed = new byte[(int) totalLength];
+        if (sharedLength > 0) {
+            System.arraycopy(sharedInput, 0, packed, 0, sharedLength);
+        }
+        int offset = sharedLength;
+        for (byte[] input : inputs) {
+            System.arraycopy(input, 0, packed, offset, input.length);
+            offset += input.length;
+        }
+
+        final int basePtr = packed.length == 0 ? 0 : (int) malloc.apply(packed.length)[0];
+        if (packed.length > 0 && basePtr == 0) {
+            throw new IllegalStateException("Failed to allocate " + packed.length + " bytes of guest memory for the batch");
+        }
+        try {
+            memory.write(basePtr, packed);
+            final Segment shared = new Segment(-1, basePtr, sharedLength);
+            offset = basePtr + sharedLength;
+            for (int i = 0; i < results.length; i++) {
+                final int length = inputs.get(i).length;
+                results[i] = export.apply(instanceArguments.of(shared, new Segment(i, offset, length)));
+                offset += length;
+            }
+        } finally {
+            if (basePtr != 0) {
+                free.apply(basePtr);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Maps the guest memory segments of the shared input and of a given input to the export arguments.
+     */
+    @FunctionalInterface
+    public interface Arguments {
+        /**
+         * Returns the arguments of the export invocation for a given input.
+         *
+         * @param shared The {@link Segment} holding the shared input, which has a zero length if none is set
+         * @param input The {@link Segment} holding the input
+         * @return The export arguments
+         */
+        long[] of(Segment shared, Segment input);
+    }
+
+    /**
+     * A region of the guest linear memory holding an input.
+     */
+    public static final class Segment {
+        private final int index;
+        private final int ptr;
+        private final int length;
+
+        Segment(final int index, final int ptr, final int length) {
+            this.index = index;
+            this.ptr = ptr;
+            this.length = length;
+        }
+
+        /**
+         * @return The index of the input in the batch, or {@code -1} for the shared input
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * @return The guest memory address of the input
+         */
+        public int ptr() {
+            return ptr;
+        }
+
+        /**
+         * @return The input length, in bytes
+         */
+        public int length() {
+            return length;
+        }
+    }
+
+    /**
+     * Builds {@link WasmBatchInvoker} instances.
+     */
+    public static final class Builder {
+        private final String exportName;
+        private String mallocName = "malloc";
+        private String freeName = "free";
+        private byte[] sharedInput;
+        private Function<Instance, Arguments> arguments = instance -> (shared, input) -> new long[] { input.ptr(),
+                input.length() };
+
+        private Builder(final String exportName) {
+            this.exportName = Objects.requireNonNull(exportName, "Export name cannot be null");
+        }
+
+        /**
+         * Sets the names of the guest allocator exports, {@code malloc} and {@code free} by default.
+         */
+        public Builder withAllocator(final String mallocName, final String freeName) {
+            this.mallocName = Objects.requireNonNull(mallocName);
+            this.freeName = Objects.requireNonNull(freeName);
+            return this;
+        }
+
+        /**
+         * Sets an input that is written once per batch and passed to every invocation, e.g. a policy.
+         */
+        public Builder withSharedInput(final byte[] sharedInput) {
+            this.sharedInput = sharedInput;
+            return this;
+        }
+
+        /**
+         * Sets the mapping of the input segments to the export arguments, {@code (input.ptr, input.length)} by
+         * default.
+         */
+        public Builder withArguments(final Arguments arguments) {
+            Objects.requireNonNull(arguments);
+            this.arguments = instance -> arguments;
+            return this;
+        }
+
+        /**
+         * Sets a factory of argument mappings, which is called once per batch for each instance processing the
+         * batch, e.g. in order to pass a handle to guest state that is specific to such instance.
+         */
+        public Builder withInstanceArguments(final Function<Instance, Arguments> arguments) {
+            this.arguments = Objects.requireNonNull(arguments);
+            return this;
+        }
+
+        public WasmBatchInvoker build() {
+            return new WasmBatchInvoker(this);
+        }
+    }
+}
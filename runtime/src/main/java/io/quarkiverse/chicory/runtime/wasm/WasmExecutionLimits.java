@@ -0,0 +1,232 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.dylibso.chicory.runtime.ChicoryInterruptedException;
+import com.dylibso.chicory.runtime.ExecutionListener;
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.MStack;
+import com.dylibso.chicory.runtime.Machine;
+import com.dylibso.chicory.wasm.types.Instruction;
+
+/**
+ * Limits the resources that a single guest call can consume, so that a pathological input can't spin a guest on a
+ * worker thread forever.
+ * <p>
+ * Two limits are supported:
+ * <ul>
+ * <li>a wall-clock timeout, enforced by interrupting the calling thread once the deadline expires. Both the
+ * interpreter and the compiled machines check for interruption at loop back-edges and function calls, and abort the
+ * call.</li>
+ * <li>an instruction budget, enforced by the listener returned by {@link #instructionCounter()}, which is only
+ * notified by the interpreter. Compiled machines are bounded by the timeout only, so a Wasm module context refuses to
+ * start when an instruction budget is set for a Wasm module that is not interpreted.</li>
+ * </ul>
+ * The machines created via {@link #guard(Function)} enforce the limits on each call made from the host, whatever API
+ * is used to make it. A call made while another one is running on the same thread, e.g. by a host function or within
+ * {@link #execute(Supplier)}, shares the limits of the outer call.
+ * <p>
+ * When a limit is exceeded, a {@link WasmLimitExceededException} is thrown and the instance running the call must be
+ * discarded, which {@link WasmInstancePool#execute(Function)} and the injectable {@link WasmInstance} beans take care
+ * of.
+ */
+public final class WasmExecutionLimits {
+
+    /**
+     * No limit at all.
+     */
+    public static final WasmExecutionLimits NONE = new WasmExecutionLimits(null, 0);
+
+    private final Duration timeout;
+    private final long maxInstructions;
+    // the remaining budget of the guest call that is running on the current thread, if any
+    private final ThreadLocal<long[]> remainingInstructions = new ThreadLocal<>();
+    // whether a guest call is running on the current thread, whose limits are shared by the nested calls
+    private final ThreadLocal<Boolean> running = new ThreadLocal<>();
+
+    /**
+     * @param timeout The wall-clock timeout of a guest call, or {@code null} for no timeout
+     * @param maxInstructions The maximum number of instructions executed by a guest call, or {@code 0} for no limit
+     */
+    public WasmExecutionLimits(final Duration timeout, final long maxInstructions) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        if (maxInstructions < 0) {
+            throw new IllegalArgumentException("Maximum number of instructions cannot be negative: " + maxInstructions);
+        }
+        this.timeout = timeout;
+        this.maxInstructions = maxInstructions;
+    }
+
+    /**
+     * @return The wall-clock timeout of a guest call, if any
+     */
+    public Optional<Duration> timeout() {
+        return Optional.ofNullable(timeout);
+    }
+
+    /**
+     * @return The maximum number of instructions executed by a guest call, or {@code 0} for no limit
+     */
+    public long maxInstructions() {
+        return maxInstructions;
+    }
+
+    /**
+     * @return {@code true} if neither a timeout nor an instruction budget is set
+     */
+    public boolean isUnlimited() {
+        return timeout == null && maxInstructions == 0;
+    }
+
+    /**
+     * Returns the listener that enforces the instruction budget, to be set on interpreted instances via
+     * {@link com.dylibso.chicory.runtime.Instance.Builder#withUnsafeExecutionListener(ExecutionListener)}. The budget
+     * is only accounted for within {@link #execute(Supplier)}.
+     *
+     * @return The {@link ExecutionListener}, or {@code null} if no instruction budget is set
+     */
+    public ExecutionListener instructionCounter() {
+        return maxInstructions == 0 ? null : this::count;
+    }
+
+    private void count(final Instruction instruction, final MStack stack) {
+        final long[] remaining = remainingInstructions.get();
+        if (remaining != null && --remaining[0] < 0) {
+            throw new WasmLimitExceededException(WasmLimitExceededException.Limit.Instructions,
+                    "Guest call exceeded the budget of " + maxInstructions + " instructions");
+        }
+    }
+
+    /**
+     * Runs a guest call on the current thread, enforcing the limits, unless it's nested in another call of the current
+     * thread, whose limits it then shares.
+     *
+     * @param call The guest call
+     * @param <T> The type of the call result
+     * @return The call result
+     * @throws WasmLimitExceededException if the call exceeded one of the limits
+     */
+    public <T> T execute(final Supplier<T> call) {
+        if (isUnlimited() || running.get() != null) {
+            return call.get();
+        }
+        running.set(Boolean.TRUE);
+        if (maxInstructions > 0) {
+            remainingInstructions.set(new long[] { maxInstructions });
+        }
+        final Deadline deadline = timeout == null ? null : new Deadline(Thread.currentThread(), timeout);
+        try {
+            return call.get();
+        } catch (ChicoryInterruptedException e) {
+            if (deadline != null && deadline.cancel()) {
+                throw new WasmLimitExceededException(WasmLimitExceededException.Limit.Timeout,
+                        "Guest call exceeded the timeout of " + timeout.toMillis() + "ms");
+            }
+            throw e;
+        } finally {
+            if (deadline != null) {
+                deadline.cancel();
+            }
+            remainingInstructions.remove();
+            running.remove();
+        }
+    }
+
+    /**
+     * Wraps an exported function so that each invocation is run via {@link #execute(Supplier)}.
+     *
+     * @param export The {@link ExportFunction} to be guarded
+     * @return The guarded {@link ExportFunction}
+     */
+    public ExportFunction guard(final ExportFunction export) {
+        if (isUnlimited()) {
+            return export;
+        }
+        return args -> execute(() -> export.apply(args));
+    }
+
+    /**
+     * Wraps a machine factory so that each call made from the host to the machines it creates, e.g. via
+     * {@link Instance#export(String)}, is run via {@link #execute(Supplier)}. The calls between the functions of an
+     * instance don't go through the machine, and are therefore bounded by the call of the host.
+     *
+     * @param machineFactory The machine factory to be guarded
+     * @return The guarded machine factory
+     */
+    public Function<Instance, Machine> guard(final Function<Instance, Machine> machineFactory) {
+        if (isUnlimited()) {
+            return machineFactory;
+        }
+        return instance -> {
+            final Machine machine = machineFactory.apply(instance);
+            return (funcId, args) -> execute(() -> machine.call(funcId, args));
+        };
+    }
+
+    /**
+     * Interrupts a thread when the timeout expires, unless cancelled before.
+     */
+    private static final class Deadline implements Runnable {
+        private final Thread thread;
+        private final ScheduledFuture<?> future;
+        private boolean done;
+        private boolean expired;
+
+        Deadline(final Thread thread, final Duration timeout) {
+            this.thread = thread;
+            this.future = Watchdog.EXECUTOR.schedule(this, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!done) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Must be called by the guarded thread. Clears the interruption caused by the deadline, if any.
+         *
+         * @return {@code true} if the deadline has expired
+         */
+        synchronized boolean cancel() {
+            if (!done) {
+                done = true;
+                if (expired) {
+                    Thread.interrupted();
+                } else {
+                    future.cancel(false);
+                }
+            }
+            return expired;
+        }
+    }
+
+    /**
+     * Lazily starts the single daemon thread that is shared by all the deadlines.
+     */
+    private static final class Watchdog {
+        static final ScheduledExecutorService EXECUTOR;
+
+        static {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "chicory-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            EXECUTOR = executor;
+        }
+    }
+}
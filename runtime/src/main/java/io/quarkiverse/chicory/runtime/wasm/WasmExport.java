@@ -0,0 +1,40 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import jakarta.inject.Qualifier;
+
+/**
+ * Qualifies an injected {@link WasmExportHandle}, i.e. an exported function of a statically configured Wasm module:
+ *
+ * <pre>
+ * &#64;Inject
+ * &#64;WasmExport(module = "my-module", value = "operation")
+ * WasmExportHandle operation;
+ * </pre>
+ *
+ * Exports are resolved at build time against the export section of the Wasm module, so that a missing export fails
+ * the build rather than the first request.
+ */
+@Qualifier
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD, PARAMETER })
+public @interface WasmExport {
+
+    /**
+     * @return The name of the exported function
+     */
+    String value();
+
+    /**
+     * @return The key of the Wasm module exporting the function, which can be omitted if a single Wasm module is
+     *         configured
+     */
+    String module() default "";
+}
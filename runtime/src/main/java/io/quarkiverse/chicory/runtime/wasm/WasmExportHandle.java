@@ -0,0 +1,75 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Machine;
+
+/**
+ * An exported function of a statically configured Wasm module, whose function index has been resolved at build time.
+ * <p>
+ * Beans of this type are produced by the extension for each {@link WasmExport} injection point. Invoking the handle
+ * directly calls the function index on the instance machine, with no per-call lookup of the export by name.
+ * <p>
+ * When invoked via {@link #apply(long...)}, the function runs on an instance borrowed from the module
+ * {@link WasmQuarkusContext#getInstancePool()}. Modules requiring imports, or callers that need to keep using the same
+ * instance, should use {@link #apply(Instance, long...)} or {@link #bind(Instance)} instead.
+ */
+public final class WasmExportHandle implements ExportFunction {
+    private final WasmQuarkusContext context;
+    private final String name;
+    private final int functionIndex;
+
+    WasmExportHandle(final WasmQuarkusContext context, final String name, final int functionIndex) {
+        this.context = context;
+        this.name = name;
+        this.functionIndex = functionIndex;
+    }
+
+    /**
+     * @return The name of the exported function
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return The index of the exported function
+     */
+    public int functionIndex() {
+        return functionIndex;
+    }
+
+    /**
+     * Invokes the exported function on an instance borrowed from the module instance pool, subject to the module
+     * execution limits.
+     *
+     * @param args The function arguments
+     * @return The function results
+     */
+    @Override
+    public long[] apply(final long... args) {
+        return context.getInstancePool().execute(instance -> instance.getMachine().call(functionIndex, args));
+    }
+
+    /**
+     * Invokes the exported function on the given instance, which must have been created from the same Wasm module.
+     *
+     * @param instance The {@link Instance} to be used
+     * @param args The function arguments
+     * @return The function results
+     */
+    public long[] apply(final Instance instance, final long... args) {
+        return instance.getMachine().call(functionIndex, args);
+    }
+
+    /**
+     * Binds the exported function to the given instance, which must have been created from the same Wasm module.
+     *
+     * @param instance The {@link Instance} to be used
+     * @return An {@link ExportFunction} invoking the exported function on the given instance
+     */
+    public ExportFunction bind(final Instance instance) {
+        final Machine machine = instance.getMachine();
+        return args -> machine.call(functionIndex, args);
+    }
+}
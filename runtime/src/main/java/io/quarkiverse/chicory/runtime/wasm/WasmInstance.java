@@ -0,0 +1,50 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Memory;
+
+/**
+ * An injectable handle to a Chicory {@link Instance} of a configured Wasm module.
+ * <p>
+ * Beans of this type are produced by the extension for each Wasm module that configures an
+ * {@code quarkus.chicory.modules.<module-key>.instance-scope}, and can be injected using {@code @Named} qualifiers:
+ *
+ * <pre>
+ * &#64;Inject
+ * &#64;Named("my-module")
+ * WasmInstance wasmInstance;
+ * </pre>
+ *
+ * The returned instance is never shared with other threads for as long as it is used within the configured scope,
+ * see {@link InstanceScope}.
+ */
+public interface WasmInstance {
+
+    /**
+     * Returns the Chicory {@link Instance} bound to the current scope.
+     *
+     * @return An initialized {@link Instance}
+     */
+    Instance get();
+
+    /**
+     * Returns an exported function of the instance bound to the current scope. Invocations are subject to the
+     * module execution limits, and the instance is discarded if an invocation fails.
+     *
+     * @param name The name of the exported function
+     * @return The {@link ExportFunction}
+     */
+    default ExportFunction export(final String name) {
+        return get().export(name);
+    }
+
+    /**
+     * Returns the memory of the instance bound to the current scope.
+     *
+     * @return The instance {@link Memory}
+     */
+    default Memory memory() {
+        return get().memory();
+    }
+}
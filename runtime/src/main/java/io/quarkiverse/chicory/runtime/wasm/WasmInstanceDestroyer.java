@@ -0,0 +1,23 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.Map;
+
+import jakarta.enterprise.context.spi.CreationalContext;
+
+import io.quarkus.arc.BeanDestroyer;
+
+/**
+ * Gives pooled instances back, or discards them, when a {@link WasmInstance} bean is destroyed.
+ */
+public class WasmInstanceDestroyer implements BeanDestroyer<WasmInstance> {
+
+    @Override
+    public void destroy(final WasmInstance wasmInstance, final CreationalContext<WasmInstance> creationalContext,
+            final Map<String, Object> params) {
+        if (wasmInstance instanceof RequestScopedWasmInstance) {
+            ((RequestScopedWasmInstance) wasmInstance).close();
+        } else if (wasmInstance instanceof PerThreadWasmInstance) {
+            ((PerThreadWasmInstance) wasmInstance).close();
+        }
+    }
+}
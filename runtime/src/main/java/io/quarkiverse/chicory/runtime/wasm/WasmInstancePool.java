@@ -0,0 +1,221 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.dylibso.chicory.runtime.Instance;
+
+/**
+ * A pool of {@link Instance} objects created from the same Wasm module.
+ * <p>
+ * Chicory instances are not thread safe, so an instance must be used by one thread at a time. The pool hands out
+ * idle instances when available, and creates new ones through the configured factory otherwise. At most
+ * {@code maxIdle} instances are kept once released, any further instance is dropped.
+ * <p>
+ * The factory is responsible for the whole instance initialization, e.g. import values and calling the start
+ * function, so that borrowed instances are ready to use:
+ *
+ * <pre>
+ * WasmInstancePool pool = new WasmInstancePool(() -&gt; Instance.builder(wasmContext.getWasmModule())
+ *         .withMachineFactory(wasmContext.getMachineFactory())
+ *         .build(), 8);
+ * long[] result = pool.execute(instance -&gt; instance.export("operation").apply(41, 1));
+ * </pre>
+ */
+public class WasmInstancePool {
+
+    /**
+     * The default maximum number of idle instances kept by a pool.
+     */
+    public static final int DEFAULT_MAX_IDLE = 8;
+
+    private final Supplier<Instance> instanceFactory;
+    private final int maxIdle;
+    private final WasmExecutionLimits limits;
+    private final Consumer<Instance> discarder;
+    private final Consumer<Instance> resetter;
+    private final ConcurrentLinkedDeque<Instance> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    public WasmInstancePool(final Supplier<Instance> instanceFactory) {
+        this(instanceFactory, DEFAULT_MAX_IDLE);
+    }
+
+    public WasmInstancePool(final Supplier<Instance> instanceFactory, final int maxIdle) {
+        this(instanceFactory, maxIdle, WasmExecutionLimits.NONE);
+    }
+
+    public WasmInstancePool(final Supplier<Instance> instanceFactory, final int maxIdle,
+            final WasmExecutionLimits limits) {
+        this(instanceFactory, maxIdle, limits, instance -> {
+        });
+    }
+
+    /**
+     * @param instanceFactory Creates the instances of the pool
+     * @param maxIdle The maximum number of idle instances
+     * @param limits The limits enforced on the actions run via {@link #execute(Function)}
+     * @param discarder Releases the resources of the instances discarded by the pool, which are no longer used, e.g.
+     *        their off-heap memory
+     */
+    public WasmInstancePool(final Supplier<Instance> instanceFactory, final int maxIdle,
+            final WasmExecutionLimits limits, final Consumer<Instance> discarder) {
+        this(instanceFactory, maxIdle, limits, discarder, instance -> {
+        });
+    }
+
+    /**
+     * @param instanceFactory Creates the instances of the pool
+     * @param maxIdle The maximum number of idle instances
+     * @param limits The limits enforced on the actions run via {@link #execute(Function)}
+     * @param discarder Releases the resources of the instances discarded by the pool, which are no longer used, e.g.
+     *        their off-heap memory
+     * @param resetter Resets the state of the released instances before they are kept idle, so that each borrower
+     *        gets a fresh state. An instance that can't be reset, i.e. for which the resetter throws, is discarded
+     */
+    public WasmInstancePool(final Supplier<Instance> instanceFactory, final int maxIdle,
+            final WasmExecutionLimits limits, final Consumer<Instance> discarder, final Consumer<Instance> resetter) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Maximum number of idle instances cannot be negative: " + maxIdle);
+        }
+        this.instanceFactory = Objects.requireNonNull(instanceFactory, "Instance factory cannot be null");
+        this.maxIdle = maxIdle;
+        this.limits = Objects.requireNonNull(limits, "Execution limits cannot be null");
+        this.discarder = Objects.requireNonNull(discarder, "Discarder cannot be null");
+        this.resetter = Objects.requireNonNull(resetter, "Resetter cannot be null");
+    }
+
+    /**
+     * Borrows an instance from the pool, creating a new one if no idle instance is available. The caller has
+     * exclusive access to the instance until it is given back via {@link #release(Instance)}.
+     *
+     * @return An initialized {@link Instance}
+     */
+    public Instance borrow() {
+        final Instance instance = idle.pollFirst();
+        if (instance != null) {
+            idleCount.decrementAndGet();
+            return instance;
+        }
+        return Objects.requireNonNull(instanceFactory.get(), "Instance factory returned null");
+    }
+
+    /**
+     * Gives a borrowed instance back to the pool. The instance is dropped if the pool is closed or already holds the
+     * maximum number of idle instances, and is reset otherwise.
+     *
+     * @param instance The borrowed {@link Instance}
+     */
+    public void release(final Instance instance) {
+        if (instance == null) {
+            return;
+        }
+        if (closed) {
+            discarder.accept(instance);
+            return;
+        }
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            try {
+                resetter.accept(instance);
+            } catch (RuntimeException e) {
+                idleCount.decrementAndGet();
+                discarder.accept(instance);
+                throw e;
+            }
+            // LIFO, so that the most recently used instance, which is likely to be warm, is handed out first
+            idle.offerFirst(instance);
+        } else {
+            idleCount.decrementAndGet();
+            discarder.accept(instance);
+        }
+    }
+
+    /**
+     * Drops a borrowed instance instead of giving it back to the pool, e.g. since its state can't be trusted anymore
+     * after a failed call.
+     *
+     * @param instance The borrowed {@link Instance}
+     */
+    public void discard(final Instance instance) {
+        if (instance != null) {
+            discarder.accept(instance);
+        }
+    }
+
+    /**
+     * Runs an action against a borrowed instance, and releases it afterward. If the action fails, the instance is
+     * not given back to the pool, since its state can't be trusted anymore. The action is subject to the pool
+     * {@link WasmExecutionLimits}.
+     *
+     * @param action The action to be executed
+     * @param <T> The type of the action result
+     * @return The action result
+     * @throws WasmLimitExceededException if the action exceeded one of the pool execution limits
+     */
+    public <T> T execute(final Function<Instance, T> action) {
+        final Instance instance = borrow();
+        final T result;
+        try {
+            result = limits.execute(() -> action.apply(instance));
+        } catch (RuntimeException | Error e) {
+            // an instance is only given back when the action completed normally
+            discarder.accept(instance);
+            throw e;
+        }
+        release(instance);
+        return result;
+    }
+
+    /**
+     * Drops all the idle instances held by the pool, e.g. once the Wasm module they were created from is no longer
+     * used. Instances borrowed beforehand can still be given back.
+     */
+    public void clear() {
+        Instance instance;
+        while ((instance = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            discarder.accept(instance);
+        }
+    }
+
+    /**
+     * Drops all the idle instances held by the pool, like {@link #clear()}, and discards the instances given back
+     * afterward, e.g. once the pool has been replaced. Instances borrowed beforehand can still be given back.
+     */
+    public void close() {
+        closed = true;
+        clear();
+    }
+
+    /**
+     * Returns the number of idle instances currently held by the pool.
+     *
+     * @return The number of idle instances
+     */
+    public int idleCount() {
+        return Math.max(idleCount.get(), 0);
+    }
+
+    /**
+     * Returns the maximum number of idle instances held by the pool.
+     *
+     * @return The maximum number of idle instances
+     */
+    public int maxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Returns the limits enforced on actions run via {@link #execute(Function)}.
+     *
+     * @return The {@link WasmExecutionLimits} of the pool
+     */
+    public WasmExecutionLimits limits() {
+        return limits;
+    }
+}
@@ -0,0 +1,40 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import com.dylibso.chicory.runtime.TrapException;
+
+/**
+ * Thrown when a guest call is aborted because it exceeded one of the configured {@link WasmExecutionLimits}.
+ * <p>
+ * The instance that was running the call is left in an undefined state, and must be discarded.
+ */
+public class WasmLimitExceededException extends TrapException {
+
+    /**
+     * The limit that was exceeded.
+     */
+    public enum Limit {
+        /**
+         * The wall-clock deadline of the call has expired.
+         */
+        Timeout,
+
+        /**
+         * The call has executed more instructions than its budget.
+         */
+        Instructions
+    }
+
+    private final Limit limit;
+
+    public WasmLimitExceededException(final Limit limit, final String message) {
+        super(message);
+        this.limit = limit;
+    }
+
+    /**
+     * @return The {@link Limit} that was exceeded
+     */
+    public Limit limit() {
+        return limit;
+    }
+}
@@ -0,0 +1,221 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.jboss.logging.Logger;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.wasm.Parser;
+import com.dylibso.chicory.wasm.WasmModule;
+
+import io.quarkiverse.chicory.runtime.WasmQuarkusUtils;
+
+/**
+ * Deploys the versions of a dynamic Wasm module, and the plugins of its {@code plugin-dir} directory, on behalf of its
+ * {@link WasmQuarkusContext}.
+ * <p>
+ * Each version is parsed, and gets an instance pool warmed up with a first instance off to the side, before being
+ * promoted atomically. The previous version is then retired, and released once its in-flight calls have completed.
+ */
+final class WasmModuleDeployer {
+    private static final Logger LOG = Logger.getLogger(WasmModuleDeployer.class);
+    private static final String PLUGIN_EXTENSION = ".wasm";
+
+    private final String name;
+    private final WasmModuleStats stats;
+    private final Function<WasmModule, Instance.Builder> instanceBuilder;
+    private final Function<Supplier<Instance>, WasmInstancePool> instancePool;
+    private final Consumer<WasmModule> drained;
+    private volatile WasmModuleVersion currentVersion;
+    // only updated by the plugin directory executor, one plugin at a time
+    private final Map<String, WasmModuleVersion> plugins = new ConcurrentHashMap<>();
+
+    /**
+     * @param name The name of the dynamic Wasm module
+     * @param stats The performance statistics of the Wasm module, or {@code null} if not in <i>dev mode</i>
+     * @param instanceBuilder Creates the configured {@link Instance.Builder} of a deployed Wasm module
+     * @param instancePool Creates the instance pool of a version, from the factory of its instances
+     * @param drained Notified of the Wasm module of each retired version, once its in-flight calls have completed
+     */
+    WasmModuleDeployer(final String name, final WasmModuleStats stats,
+            final Function<WasmModule, Instance.Builder> instanceBuilder,
+            final Function<Supplier<Instance>, WasmInstancePool> instancePool, final Consumer<WasmModule> drained) {
+        this.name = name;
+        this.stats = stats;
+        this.instanceBuilder = instanceBuilder;
+        this.instancePool = instancePool;
+        this.drained = drained;
+    }
+
+    /**
+     * Deploys a new version of the Wasm module, which becomes the current version, while the previous one is retired.
+     * Deployments are serialized, and the current version is kept if the payload can't be parsed or instantiated.
+     *
+     * @param payload The Wasm module payload
+     * @param instanceFactory Creates the instances of the new version from a configured {@link Instance.Builder}
+     * @return The promoted {@link WasmModuleVersion}
+     */
+    synchronized WasmModuleVersion deploy(final byte[] payload, final Function<Instance.Builder, Instance> instanceFactory) {
+        final long start = System.nanoTime();
+        final WasmModuleVersion previous = currentVersion;
+        final WasmModuleVersion promoted = newVersion(previous, payload, instanceFactory);
+        currentVersion = promoted;
+        if (previous != null) {
+            retire(previous);
+        }
+        LOG.info("Version " + promoted.version() + " of Wasm module " + name + " deployed in "
+                + (System.nanoTime() - start) / 1_000_000 + "ms");
+        return promoted;
+    }
+
+    /**
+     * Parses a payload, and warms up the instance pool of the new version with a first instance.
+     */
+    private WasmModuleVersion newVersion(final WasmModuleVersion previous, final byte[] payload,
+            final Function<Instance.Builder, Instance> instanceFactory) {
+        final long start = System.nanoTime();
+        final WasmModule deployed = Parser.parse(payload);
+        if (stats != null) {
+            stats.recordParsing(System.nanoTime() - start);
+        }
+        final WasmInstancePool pool = instancePool.apply(() -> {
+            final long instantiationStart = System.nanoTime();
+            final Instance instance = instanceFactory.apply(instanceBuilder.apply(deployed));
+            if (stats != null) {
+                stats.recordInstantiation(System.nanoTime() - instantiationStart);
+            }
+            return instance;
+        });
+        pool.release(pool.borrow());
+        return new WasmModuleVersion(previous == null ? 1 : previous.version() + 1, deployed, pool);
+    }
+
+    /**
+     * Retires a version, whose Wasm module is notified as drained once its in-flight calls have completed.
+     */
+    private void retire(final WasmModuleVersion version) {
+        version.retire();
+        version.drained().thenRun(() -> drained.accept(version.wasmModule()));
+    }
+
+    /**
+     * @return The current version of the Wasm module, or {@code null} if no version has been deployed yet
+     */
+    WasmModuleVersion currentVersion() {
+        return currentVersion;
+    }
+
+    /**
+     * @return An unmodifiable view of the current version of each plugin, keyed by plugin name
+     */
+    Map<String, WasmModuleVersion> plugins() {
+        return Collections.unmodifiableMap(plugins);
+    }
+
+    /**
+     * Runs an action against an instance of the current version of the Wasm module.
+     */
+    <T> T execute(final Function<Instance, T> action) {
+        return execute(() -> currentVersion, "dynamic Wasm module " + name, action);
+    }
+
+    /**
+     * Runs an action against an instance of the current version of a plugin.
+     */
+    <T> T execute(final String plugin, final Function<Instance, T> action) {
+        return execute(() -> plugins.get(plugin), "plugin " + plugin + " of Wasm module " + name, action);
+    }
+
+    private static <T> T execute(final Supplier<WasmModuleVersion> current, final String description,
+            final Function<Instance, T> action) {
+        while (true) {
+            final WasmModuleVersion version = current.get();
+            if (version == null) {
+                throw new IllegalStateException("No version of " + description + " has been deployed");
+            }
+            // a retired version accepts no new calls, so the newer version is used instead
+            if (version.tryAcquire()) {
+                try {
+                    return version.instancePool().execute(action);
+                } finally {
+                    version.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deploys the {@code .wasm} payloads of the plugin directory, and watches the directory, so that a new or changed
+     * payload deploys a new version of its plugin, and a deleted payload removes its plugin. Payloads are parsed and
+     * compiled by the given background executor, one at a time, never by the request threads.
+     *
+     * @param configuredPluginDir The plugin directory, configured at runtime
+     * @param executor The executor that deploys the plugins
+     * @return The {@link WasmModuleWatcher} of the plugin directory
+     * @throws IOException if the plugin directory cannot be read or watched
+     */
+    WasmModuleWatcher watchPluginDir(final Path configuredPluginDir, final Executor executor) throws IOException {
+        // unlike the wasm-file, the plugin directory is resolved at runtime, where the application is deployed
+        final Path pluginDir = configuredPluginDir.toAbsolutePath().normalize();
+        Files.createDirectories(pluginDir);
+        final WasmModuleWatcher watcher = new WasmModuleWatcher(pluginDir, WasmModuleDeployer::isPluginPayload,
+                payload -> executor.execute(() -> deployPlugin(payload)),
+                payload -> executor.execute(() -> removePlugin(payload)),
+                "chicory-plugins-" + WasmQuarkusUtils.getWasmModuleClassName(name));
+        // the payloads created before watching are deployed as well, possibly twice if they changed meanwhile
+        try (Stream<Path> payloads = Files.list(pluginDir)) {
+            payloads.filter(WasmModuleDeployer::isPluginPayload)
+                    .forEach(payload -> executor.execute(() -> deployPlugin(payload)));
+        }
+        LOG.info("Watching " + pluginDir + " to deploy the plugins of Wasm module " + name);
+        return watcher;
+    }
+
+    private static boolean isPluginPayload(final Path path) {
+        return path.getFileName().toString().endsWith(PLUGIN_EXTENSION) && !Files.isDirectory(path);
+    }
+
+    private static String pluginName(final Path payload) {
+        final String fileName = payload.getFileName().toString();
+        return fileName.substring(0, fileName.length() - PLUGIN_EXTENSION.length());
+    }
+
+    private void deployPlugin(final Path payload) {
+        final String plugin = pluginName(payload);
+        final long start = System.nanoTime();
+        final WasmModuleVersion previous = plugins.get(plugin);
+        final WasmModuleVersion promoted;
+        try {
+            promoted = newVersion(previous, Files.readAllBytes(payload), Instance.Builder::build);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Cannot deploy plugin " + plugin + " of Wasm module " + name + " from " + payload
+                    + (previous == null ? "" : ", keeping version " + previous.version()), e);
+            return;
+        }
+        plugins.put(plugin, promoted);
+        if (previous != null) {
+            retire(previous);
+        }
+        LOG.info("Version " + promoted.version() + " of plugin " + plugin + " of Wasm module " + name + " deployed in "
+                + (System.nanoTime() - start) / 1_000_000 + "ms");
+    }
+
+    private void removePlugin(final Path payload) {
+        final String plugin = pluginName(payload);
+        final WasmModuleVersion removed = plugins.remove(plugin);
+        if (removed != null) {
+            retire(removed);
+            LOG.info("Plugin " + plugin + " of Wasm module " + name + " removed");
+        }
+    }
+}
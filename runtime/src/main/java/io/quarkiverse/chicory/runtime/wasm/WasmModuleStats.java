@@ -0,0 +1,203 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Machine;
+import com.dylibso.chicory.runtime.Memory;
+import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.Export;
+import com.dylibso.chicory.wasm.types.ExportSection;
+import com.dylibso.chicory.wasm.types.ExternalType;
+
+/**
+ * The performance statistics of a Wasm module, which are collected in <i>dev mode</i> only, and displayed by the Dev
+ * UI.
+ * <p>
+ * The machine factory of the Wasm module is wrapped, so that the machine creation, which includes the compilation of
+ * the Wasm module by the runtime compiler, and the calls of the exported functions are measured whatever API is used
+ * to call them. Calls between the functions of a Wasm module are not measured.
+ */
+public final class WasmModuleStats {
+
+    /**
+     * The labels of the latency histogram buckets.
+     */
+    public static final List<String> LATENCY_BUCKETS = List.of("<1µs", "<10µs", "<100µs", "<1ms", "<10ms", "<100ms",
+            "<1s", "≥1s");
+
+    private final Timer parsing = new Timer();
+    private final Timer machineCreations = new Timer();
+    private final Timer instantiations = new Timer();
+    private final Map<String, Timer> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger memoryPages = new AtomicInteger();
+    private final AtomicInteger maxMemoryPages = new AtomicInteger();
+    // the names of the exported functions, by Wasm module since it changes when swapped or when a version is deployed,
+    // which are weakly referenced so that the replaced Wasm modules can be collected
+    private final Map<WasmModule, Map<Integer, String>> exportNames = Collections.synchronizedMap(new WeakHashMap<>());
+
+    WasmModuleStats() {
+    }
+
+    /**
+     * Returns a machine factory that creates machines measuring the calls made to the machines created by the given
+     * factory.
+     */
+    Function<Instance, Machine> wrap(final Function<Instance, Machine> machineFactory) {
+        return instance -> {
+            final long start = System.nanoTime();
+            final Machine machine = machineFactory.apply(instance);
+            machineCreations.record(System.nanoTime() - start);
+            return (funcId, args) -> {
+                final long callStart = System.nanoTime();
+                try {
+                    return machine.call(funcId, args);
+                } finally {
+                    calls.computeIfAbsent(functionName(instance, funcId), k -> new Timer())
+                            .record(System.nanoTime() - callStart);
+                    final Memory memory = instance.memory();
+                    if (memory != null) {
+                        memoryPages.set(memory.pages());
+                        maxMemoryPages.accumulateAndGet(memory.pages(), Math::max);
+                    }
+                }
+            };
+        };
+    }
+
+    void recordParsing(final long nanos) {
+        parsing.record(nanos);
+    }
+
+    void recordInstantiation(final long nanos) {
+        instantiations.record(nanos);
+    }
+
+    private String functionName(final Instance instance, final int funcId) {
+        final String name = exportNames.computeIfAbsent(instance.module(), WasmModuleStats::exportNames).get(funcId);
+        return name != null ? name : "function " + funcId;
+    }
+
+    private static Map<Integer, String> exportNames(final WasmModule wasmModule) {
+        final Map<Integer, String> result = new HashMap<>();
+        final ExportSection exports = wasmModule.exportSection();
+        for (int i = 0; i < exports.exportCount(); i++) {
+            final Export export = exports.getExport(i);
+            if (export.exportType() == ExternalType.FUNCTION) {
+                result.putIfAbsent(export.index(), export.name());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The parsing of the Wasm module
+     */
+    public Timer parsing() {
+        return parsing;
+    }
+
+    /**
+     * @return The creations of machines, which include the compilation of the Wasm module when the runtime compiler
+     *         is used
+     */
+    public Timer machineCreations() {
+        return machineCreations;
+    }
+
+    /**
+     * @return The instantiations of the Wasm module made by the instance pool and the injectable instances
+     */
+    public Timer instantiations() {
+        return instantiations;
+    }
+
+    /**
+     * @return The calls of each exported function, by name
+     */
+    public Map<String, Timer> calls() {
+        return calls;
+    }
+
+    /**
+     * @return The number of memory pages used by the most recently called instance
+     */
+    public int memoryPages() {
+        return memoryPages.get();
+    }
+
+    /**
+     * @return The maximum number of memory pages used by an instance
+     */
+    public int maxMemoryPages() {
+        return maxMemoryPages.get();
+    }
+
+    /**
+     * Measures the durations of an operation, with a histogram of the durations whose buckets are the
+     * {@link #LATENCY_BUCKETS}.
+     */
+    public static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(LATENCY_BUCKETS.size());
+
+        Timer() {
+        }
+
+        void record(final long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            int bucket = 0;
+            // the buckets are powers of 10, starting from 1µs
+            for (long bound = 1_000; nanos >= bound && bucket < LATENCY_BUCKETS.size() - 1; bound *= 10) {
+                bucket++;
+            }
+            histogram.incrementAndGet(bucket);
+        }
+
+        /**
+         * @return The number of measured operations
+         */
+        public long count() {
+            return count.sum();
+        }
+
+        /**
+         * @return The total duration of the measured operations, in nanoseconds
+         */
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * @return The longest duration of a measured operation, in nanoseconds
+         */
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * @return The number of measured operations in each of the {@link #LATENCY_BUCKETS}
+         */
+        public long[] histogram() {
+            final long[] result = new long[histogram.length()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = histogram.get(i);
+            }
+            return result;
+        }
+    }
+}
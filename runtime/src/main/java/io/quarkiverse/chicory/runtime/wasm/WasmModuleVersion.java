@@ -0,0 +1,106 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dylibso.chicory.wasm.WasmModule;
+
+/**
+ * A version of a dynamic Wasm module, deployed via {@link WasmQuarkusContext#deploy(byte[])}.
+ * <p>
+ * Each version owns its {@link WasmInstancePool}, which is warmed up before the version is promoted, i.e. before it
+ * becomes the {@link WasmQuarkusContext#getCurrentVersion()}. When a newer version is promoted, this version is
+ * retired: calls started beforehand complete on its instances, and its instances are released once they have all
+ * completed, as signaled by {@link #drained()}.
+ */
+public final class WasmModuleVersion {
+    // set on the in-flight counter once retired, so that no call can start afterward
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    private final int version;
+    private final WasmModule wasmModule;
+    private final WasmInstancePool instancePool;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+
+    WasmModuleVersion(final int version, final WasmModule wasmModule, final WasmInstancePool instancePool) {
+        this.version = version;
+        this.wasmModule = wasmModule;
+        this.instancePool = instancePool;
+    }
+
+    /**
+     * @return The version number, starting from 1 and incremented by each deployment
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * @return The parsed {@link WasmModule} of this version
+     */
+    public WasmModule wasmModule() {
+        return wasmModule;
+    }
+
+    /**
+     * @return The {@link WasmInstancePool} of this version
+     */
+    public WasmInstancePool instancePool() {
+        return instancePool;
+    }
+
+    /**
+     * @return {@code true} if a newer version has been promoted
+     */
+    public boolean isRetired() {
+        return inFlight.get() < 0;
+    }
+
+    /**
+     * Returns a future completed once this version is retired and all its in-flight calls have completed, i.e. when
+     * its instances have been released.
+     *
+     * @return A {@link CompletableFuture} completed when this version is drained
+     */
+    public CompletableFuture<Void> drained() {
+        return drained;
+    }
+
+    /**
+     * Starts a call on this version, unless it has been retired.
+     *
+     * @return {@code false} if this version has been retired, {@code true} if the call must be ended via
+     *         {@link #release()}
+     */
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current < 0) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Ends a call started via {@link #tryAcquire()}.
+     */
+    void release() {
+        if (inFlight.decrementAndGet() == RETIRED) {
+            drain();
+        }
+    }
+
+    void retire() {
+        if (inFlight.getAndUpdate(current -> current | RETIRED) == 0) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        instancePool.clear();
+        drained.complete(null);
+    }
+}
@@ -0,0 +1,128 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Watches the Wasm module payloads of a directory, and notifies the changed and deleted payloads from a background
+ * thread, so that neither the dev mode scanner nor the request threads wait for them.
+ * <p>
+ * This is used in <i>dev mode</i> to swap a statically configured Wasm module within its {@link WasmQuarkusContext}
+ * as soon as its payload changes, rather than restarting the whole application, and to deploy the plugins of a
+ * dynamic Wasm module from its {@code plugin-dir}.
+ */
+final class WasmModuleWatcher implements Closeable {
+    private static final Logger LOG = Logger.getLogger(WasmModuleWatcher.class);
+
+    // a payload is usually written in several steps, so the changes are only applied once no write happened for a while
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Path directory;
+    private final Predicate<Path> filter;
+    private final Consumer<Path> changed;
+    private final Consumer<Path> deleted;
+    private final WatchService watchService;
+
+    /**
+     * @param directory The watched directory
+     * @param filter Selects the watched payloads of the directory
+     * @param changed Notified of each created or modified payload, with its path
+     * @param deleted Notified of each deleted payload, with its path
+     * @param threadName The name of the watching thread
+     * @throws IOException if the directory cannot be watched
+     */
+    WasmModuleWatcher(final Path directory, final Predicate<Path> filter, final Consumer<Path> changed,
+            final Consumer<Path> deleted, final String threadName) throws IOException {
+        this.directory = directory;
+        this.filter = filter;
+        this.changed = changed;
+        this.deleted = deleted;
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final Thread thread = new Thread(() -> {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            watch();
+        }, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                final Set<Path> paths = new LinkedHashSet<>();
+                collect(watchService.take(), paths);
+                if (paths.isEmpty()) {
+                    continue;
+                }
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, paths);
+                }
+                for (Path path : paths) {
+                    notify(path);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOG.debug("Stopped watching " + directory);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(final WatchKey key, final Set<Path> paths) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // events were lost, so all the payloads are checked again
+                try (Stream<Path> files = Files.list(directory)) {
+                    files.filter(filter).forEach(paths::add);
+                } catch (IOException e) {
+                    LOG.warn("Cannot list the payloads of " + directory, e);
+                }
+            } else {
+                final Path path = directory.resolve((Path) event.context());
+                if (filter.test(path)) {
+                    paths.add(path);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void notify(final Path path) {
+        try {
+            if (Files.exists(path)) {
+                changed.accept(path);
+            } else {
+                deleted.accept(path);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Cannot apply the change of " + path, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
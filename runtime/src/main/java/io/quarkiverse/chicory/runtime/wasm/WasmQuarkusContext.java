@@ -2,17 +2,39 @@ package io.quarkiverse.chicory.runtime.wasm;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.InflaterInputStream;
 
 import org.jboss.logging.Logger;
 
+import com.dylibso.chicory.runtime.HostFunction;
+import com.dylibso.chicory.runtime.ImportValues;
 import com.dylibso.chicory.runtime.Instance;
 import com.dylibso.chicory.runtime.Machine;
+import com.dylibso.chicory.runtime.Memory;
+import com.dylibso.chicory.wasi.WasiOptions;
+import com.dylibso.chicory.wasi.WasiPreview1;
 import com.dylibso.chicory.wasm.Parser;
 import com.dylibso.chicory.wasm.WasmModule;
+import com.dylibso.chicory.wasm.types.MemoryLimits;
 
 import io.quarkiverse.chicory.runtime.WasmQuarkusConfig;
+import io.quarkiverse.chicory.runtime.WasmQuarkusRuntimeConfig;
 import io.quarkiverse.chicory.runtime.WasmQuarkusUtils;
 import io.quarkus.runtime.LaunchMode;
 
@@ -40,10 +62,24 @@ public class WasmQuarkusContext {
     private final boolean isNativePackageType;
     private final boolean isDynamic;
     private final String projectBaseDir;
+    private final WasmExecutionLimits executionLimits;
+    private final int maxIdle;
+    private final WasmModuleStats stats;
+    private final Function<MemoryLimits, Memory> memoryFactory;
+    private final WasiEnvironment wasi;
+    // the baseline shared by the pooled instances of each Wasm module, when the pools reset the instances
+    private final Map<WasmModule, InstanceBaseline> baselines = new ConcurrentHashMap<>();
+    private final LongAdder restoredPages = new LongAdder();
+    private volatile Function<Instance, Machine> machineFactory;
+    private volatile CompletableFuture<WasmModule> wasmModule;
+    private volatile WasmInstancePool instancePool;
+    // the versions and plugins of a dynamic Wasm module, if any
+    private final WasmModuleDeployer deployer;
 
     // Client code can't create
     WasmQuarkusContext(final String moduleKey, final WasmQuarkusConfig.ModuleConfig moduleConfig,
-            final boolean isNativePackageType, final String projectBaseDir) {
+            final WasmQuarkusRuntimeConfig.ModuleConfig runtimeConfig, final boolean isNativePackageType,
+            final String projectBaseDir) {
         isDynamic = !(moduleConfig.wasmFile().isPresent() || moduleConfig.wasmResource().isPresent());
         // default to runtime compilation
         ExecutionMode actualExecutionMode = ExecutionMode.RuntimeCompiler;
@@ -73,6 +109,23 @@ public class WasmQuarkusContext {
         this.moduleConfig = moduleConfig;
         this.isNativePackageType = isNativePackageType;
         this.projectBaseDir = projectBaseDir;
+        // the limits and the pool size are configured at runtime, and default to none and to the pool default
+        this.executionLimits = runtimeConfig == null ? WasmExecutionLimits.NONE
+                : new WasmExecutionLimits(runtimeConfig.limits().timeout().orElse(null),
+                        runtimeConfig.limits().maxInstructions().orElse(0));
+        this.maxIdle = runtimeConfig == null ? WasmInstancePool.DEFAULT_MAX_IDLE : runtimeConfig.pool().maxIdle();
+        this.stats = LaunchMode.current() == LaunchMode.DEVELOPMENT ? new WasmModuleStats() : null;
+        this.memoryFactory = memoryFactory(moduleKey, moduleConfig.memory(), moduleConfig.pool().reset());
+        this.wasi = new WasiEnvironment(moduleKey, name, moduleConfig.wasi(),
+                runtimeConfig == null ? null : runtimeConfig.wasi());
+        this.deployer = isDynamic ? new WasmModuleDeployer(name, stats, this::instanceBuilder, this::newInstancePool,
+                baselines::remove) : null;
+        if (executionLimits.maxInstructions() > 0 && (executionMode != ExecutionMode.Interpreter
+                || (!isDynamic && (LaunchMode.current() == LaunchMode.NORMAL || LaunchMode.current() == LaunchMode.RUN)))) {
+            // the instruction counter is only notified by the interpreter, so the budget couldn't be enforced
+            throw new IllegalStateException("Wasm module " + moduleKey + " is not interpreted, so its "
+                    + "limits.max-instructions can't be enforced. Use limits.timeout to bound compiled code instead");
+        }
     }
 
     /**
@@ -84,6 +137,15 @@ public class WasmQuarkusContext {
         return name;
     }
 
+    /**
+     * Tells whether this Wasm module is dynamic, i.e. defines neither a {@code wasm-file} nor a {@code wasm-resource}.
+     *
+     * @return {@code true} if the payloads of this Wasm module are deployed at runtime
+     */
+    boolean isDynamic() {
+        return isDynamic;
+    }
+
     /**
      * Returns the execution mode for this WASM module.
      *
@@ -100,18 +162,306 @@ public class WasmQuarkusContext {
      * @return A {@link Function} that implements a {@link com.dylibso.chicory.compiler.internal.MachineFactory}
      */
     public Function<Instance, Machine> getMachineFactory() {
-        return (LaunchMode.current() == LaunchMode.NORMAL || LaunchMode.current() == LaunchMode.RUN)
-                ? new ProdNativeModeMachineFactoryProvider(isDynamic, this.name, this.executionMode).get()
-                : new DevTestModeMachineFactoryProvider(this.executionMode).get();
+        Function<Instance, Machine> result = machineFactory;
+        if (result == null) {
+            result = (LaunchMode.current() == LaunchMode.NORMAL || LaunchMode.current() == LaunchMode.RUN)
+                    ? new ProdNativeModeMachineFactoryProvider(isDynamic, this.name, this.executionMode).get()
+                    : new DevTestModeMachineFactoryProvider(this.executionMode, this.name).get();
+            if (stats != null) {
+                result = stats.wrap(result);
+            }
+            result = executionLimits.guard(result);
+            machineFactory = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the limits enforced by the machines of the {@link #getMachineFactory()} on each guest call made from the
+     * host to an instance of this Wasm module, as configured via
+     * {@code quarkus.chicory.modules.<module-key>.limits}.
+     *
+     * @return The {@link WasmExecutionLimits} of this Wasm module
+     */
+    public WasmExecutionLimits getExecutionLimits() {
+        return executionLimits;
+    }
+
+    /**
+     * Returns the performance statistics of this Wasm module, which are collected in <i>dev mode</i> only.
+     *
+     * @return The {@link WasmModuleStats} of this Wasm module, or {@code null} if not in <i>dev mode</i>
+     */
+    public WasmModuleStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns an {@link Instance.Builder} for this Wasm module, which is already configured with the
+     * {@link #getMachineFactory()}, with the configured {@link MemoryBackend}, with the instruction counter of the
+     * {@link #getExecutionLimits()} if any, and with the WASI host functions when WASI is enabled. All
+     * the instances created by the returned builders share the cached {@link #getWasmModule()}.
+     * <p>
+     * Since {@link Instance.Builder#withImportValues(ImportValues)} replaces the WASI host functions, a guest which
+     * imports other host functions is instantiated via {@link #instanceBuilder(HostFunction...)} instead.
+     *
+     * @return An {@link Instance.Builder} for this Wasm module
+     * @throws IllegalStateException if this is a dynamic Wasm module
+     * @throws UncheckedIOException if an error occurs while reading or parsing the Wasm module
+     */
+    public Instance.Builder instanceBuilder() {
+        return instanceBuilder(WasiEnvironment.NO_HOST_FUNCTIONS);
+    }
+
+    /**
+     * Returns an {@link Instance.Builder} for this Wasm module configured like {@link #instanceBuilder()}, whose
+     * imports are the given host functions, along with the WASI host functions when WASI is enabled.
+     *
+     * @param hostFunctions The host functions imported by the guest, besides the WASI ones
+     * @return An {@link Instance.Builder} for this Wasm module
+     * @throws IllegalStateException if this is a dynamic Wasm module
+     * @throws UncheckedIOException if an error occurs while reading or parsing the Wasm module
+     */
+    public Instance.Builder instanceBuilder(final HostFunction... hostFunctions) {
+        final WasmModule wasmModule;
+        try {
+            wasmModule = getWasmModule();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load Wasm module " + name, e);
+        }
+        if (wasmModule == null) {
+            throw new IllegalStateException("No payload is configured for dynamic Wasm module " + name);
+        }
+        return instanceBuilder(wasmModule, hostFunctions);
+    }
+
+    private Instance.Builder instanceBuilder(final WasmModule wasmModule) {
+        return instanceBuilder(wasmModule, WasiEnvironment.NO_HOST_FUNCTIONS);
+    }
+
+    private Instance.Builder instanceBuilder(final WasmModule wasmModule, final HostFunction[] hostFunctions) {
+        final Instance.Builder builder = Instance.builder(wasmModule)
+                .withMachineFactory(getMachineFactory());
+        if (memoryFactory != null) {
+            builder.withMemoryFactory(memoryFactory);
+        }
+        if (executionLimits.instructionCounter() != null) {
+            builder.withUnsafeExecutionListener(executionLimits.instructionCounter());
+        }
+        final HostFunction[] wasiHostFunctions = wasi.hostFunctions();
+        if (wasiHostFunctions.length > 0 || hostFunctions.length > 0) {
+            builder.withImportValues(ImportValues.builder().addFunction(wasiHostFunctions).addFunction(hostFunctions).build());
+        }
+        return builder;
+    }
+
+    /**
+     * Returns the WASI host functions of a new instance of this Wasm module, so that they can be combined with other
+     * imports, e.g. when deploying a version of a dynamic Wasm module:
+     *
+     * <pre>
+     * wasmContext.deploy(payload, builder -&gt; builder.withImportValues(ImportValues.builder()
+     *         .addFunction(wasmContext.getWasiHostFunctions())
+     *         .addFunction(hostLog)
+     *         .build()).build());
+     * </pre>
+     *
+     * The host functions are shared by all the instances unless directories are preopened, in which case each call
+     * returns the host functions of a new WASI state, which must be used by a single instance.
+     *
+     * @return The WASI host functions, or an empty array if WASI is not enabled
+     */
+    public HostFunction[] getWasiHostFunctions() {
+        return wasi.hostFunctions().clone();
+    }
+
+    /**
+     * Returns the {@link WasiOptions} of this Wasm module, i.e. its configured arguments, environment, output sinks and
+     * preopened directories, and the in-memory filesystem holding the files embedded at build time, if any, preopened at
+     * the configured mount directory. The options are built once, and the embedded files are shared by all the
+     * instances.
+     *
+     * @return The {@link WasiOptions} to create the {@link WasiPreview1} of the instances with
+     */
+    public WasiOptions getWasiOptions() {
+        return wasi.options();
+    }
+
+    /**
+     * Returns the {@link WasmInstancePool} of this Wasm module, which creates instances via {@link #instanceBuilder()}
+     * and is sized according to {@code quarkus.chicory.modules.<module-key>.pool.max-idle}. Actions run via
+     * {@link WasmInstancePool#execute(Function)} are subject to the {@link #getExecutionLimits()}.
+     *
+     * @return The {@link WasmInstancePool} of this Wasm module
+     * @throws IllegalStateException if this is a dynamic Wasm module
+     */
+    public WasmInstancePool getInstancePool() {
+        if (isDynamic) {
+            throw new IllegalStateException("No payload is configured for dynamic Wasm module " + name);
+        }
+        WasmInstancePool result = instancePool;
+        if (result == null) {
+            synchronized (this) {
+                result = instancePool;
+                if (result == null) {
+                    result = newInstancePool();
+                    instancePool = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of memory pages restored so far by resetting the pooled instances of this Wasm module, i.e.
+     * the pages written by the calls, which measures the cost of {@code quarkus.chicory.modules.<module-key>.pool.reset}.
+     *
+     * @return The number of memory pages restored, {@code 0} when the pool doesn't reset the instances
+     */
+    public long getRestoredPages() {
+        return restoredPages.sum();
+    }
+
+    /**
+     * Returns the sink of the WASI {@code stdout} of this Wasm module, as configured via
+     * {@code quarkus.chicory.modules.<module-key>.wasi.stdout}, to be passed to the {@code WasiOptions} of its
+     * instances. The sink is shared by all the instances, it never blocks them and holds a bounded amount of memory.
+     *
+     * @return The {@link OutputStream} of the guest {@code stdout}, which is a {@link WasiRingBuffer} when the output
+     *         is kept in a ring buffer
+     */
+    public OutputStream getWasiStdout() {
+        return wasi.stdout();
+    }
+
+    /**
+     * Returns the sink of the WASI {@code stderr} of this Wasm module, as configured via
+     * {@code quarkus.chicory.modules.<module-key>.wasi.stderr}, to be passed to the {@code WasiOptions} of its
+     * instances. The sink is shared by all the instances, it never blocks them and holds a bounded amount of memory.
+     *
+     * @return The {@link OutputStream} of the guest {@code stderr}, which is a {@link WasiRingBuffer} when the output
+     *         is kept in a ring buffer
+     */
+    public OutputStream getWasiStderr() {
+        return wasi.stderr();
+    }
+
+    /**
+     * Creates the factory of the linear memory of the instances, according to the configured backend and sizing
+     * policy, or returns {@code null} when the default Chicory memory is used.
+     */
+    private static Function<MemoryLimits, Memory> memoryFactory(final String moduleKey,
+            final WasmQuarkusConfig.ModuleConfig.MemoryConfig memoryConfig, final boolean reset) {
+        final boolean direct = memoryConfig.backend() == MemoryBackend.OffHeap;
+        // the default Chicory memory can't track its written pages, so resetting the instances requires a BufferMemory
+        if (!direct && !reset && memoryConfig.reservedPages().isEmpty() && memoryConfig.maxPages().isEmpty()
+                && memoryConfig.growth().isEmpty()) {
+            return null;
+        }
+        final MemoryGrowth growth = memoryConfig.growth().orElse(MemoryGrowth.Doubling);
+        final int reservedPages = memoryConfig.reservedPages().orElse(0);
+        final int maxPages = memoryConfig.maxPages().orElse(MemoryLimits.MAX_PAGES);
+        return limits -> {
+            MemoryLimits capped = limits;
+            if (maxPages < limits.maximumPages()) {
+                if (maxPages < limits.initialPages()) {
+                    throw new IllegalStateException("Wasm module " + moduleKey + " requires " + limits.initialPages()
+                            + " initial memory pages, more than its max-pages of " + maxPages);
+                }
+                capped = new MemoryLimits(limits.initialPages(), maxPages);
+            }
+            return new BufferMemory(capped, direct, growth, reservedPages, reset);
+        };
+    }
+
+    private WasmInstancePool newInstancePool() {
+        return newInstancePool(this::newInstance);
+    }
+
+    private WasmInstancePool newInstancePool(final Supplier<Instance> instanceFactory) {
+        if (!moduleConfig.pool().reset()) {
+            return new WasmInstancePool(instanceFactory, maxIdle, executionLimits, WasmQuarkusContext::discard);
+        }
+        return new WasmInstancePool(() -> baseline(instanceFactory.get()), maxIdle, executionLimits,
+                WasmQuarkusContext::discard, this::reset);
+    }
+
+    /**
+     * Captures the state of the first pooled instance of a Wasm module, which all its instances are reset to once
+     * released, when the pool resets the instances.
+     */
+    private Instance baseline(final Instance instance) {
+        if (moduleConfig.pool().reset()) {
+            baselines.computeIfAbsent(instance.module(), module -> InstanceBaseline.capture(instance));
+        }
+        return instance;
+    }
+
+    private void reset(final Instance instance) {
+        final InstanceBaseline baseline = baselines.get(instance.module());
+        if (baseline == null) {
+            throw new IllegalStateException("Instance was not created by the pool of Wasm module " + name);
+        }
+        restoredPages.add(baseline.restore(instance));
+    }
+
+    /**
+     * Releases the buffer memory of an instance discarded by an instance pool, if any.
+     */
+    private static void discard(final Instance instance) {
+        if (instance.memory() instanceof BufferMemory) {
+            ((BufferMemory) instance.memory()).free();
+        }
+    }
+
+    /**
+     * Creates a {@link WasmInstance} backing an injectable bean with the given scope.
+     */
+    WasmInstance createWasmInstance(final InstanceScope scope) {
+        switch (scope) {
+            case Request:
+                return new RequestScopedWasmInstance(getInstancePool());
+            case PerThread:
+                // the Wasm module can only be swapped in dev mode, so the instances are never stale otherwise
+                return new PerThreadWasmInstance(this::getInstancePool,
+                        LaunchMode.current() == LaunchMode.DEVELOPMENT ? this::isCurrent : null);
+            default:
+                throw new IllegalArgumentException("No WasmInstance bean is available for scope " + scope);
+        }
+    }
+
+    private boolean isCurrent(final Instance instance) {
+        final CompletableFuture<WasmModule> current = wasmModule;
+        return current == null || instance.module() == current.getNow(null);
+    }
+
+    private Instance newInstance() {
+        final long start = System.nanoTime();
+        final Instance instance;
+        if (wasi.isEnabled()) {
+            instance = instanceBuilder().withStart(false).build();
+            wasi.start(instance);
+        } else {
+            instance = instanceBuilder().build();
+        }
+        if (stats != null) {
+            stats.recordInstantiation(System.nanoTime() - start);
+        }
+        return instance;
     }
 
     /**
      * Returns a {@link WasmModule} instance obtained by parsing the Wasm module payload or .meta file,
-     * based on the configuration and runtime environment. The caller is responsible for the {@link WasmModule} instance
-     * lifecycle management, as it is not stored by the implementation.
+     * based on the configuration and runtime environment. The Wasm module is parsed once, possibly in the background
+     * as soon as the application starts, and then cached, so that all the callers share the same {@link WasmModule}
+     * instance. In native mode, the Wasm module is parsed while building the image unless
+     * {@code quarkus.chicory.modules.<module-key>.native-image-heap} is disabled, and is returned right away.
+     * <p>
+     * In <i>dev mode</i>, the Wasm module is swapped when its payload changes, therefore callers should get it again
+     * rather than keeping instances created from it, or use the {@link #getInstancePool()} instead.
      * <p>
      * For dynamically loaded modules (where neither {@code wasm-file} nor {@code wasm-resource} is configured),
-     * this method returns {@code null}.
+     * this method returns {@code null}, and the deployed versions are available via {@link #getCurrentVersion()}.
      *
      * @return A {@link WasmModule} instance obtained by parsing the Wasm module payload or .meta file,
      *         or {@code null} for dynamic modules
@@ -122,15 +472,304 @@ public class WasmQuarkusContext {
         if (isDynamic) {
             return null;
         }
-        // ... otherwise either wasm-file or wasm-resource is defined, so let's use the Meta wasm in Native/PROD mode
-        // because it is generated by the build time compiler based on the Wasm payload
-        if (isNativePackageType || (LaunchMode.current() == LaunchMode.NORMAL || LaunchMode.current() == LaunchMode.RUN)) {
-            try (InputStream is = WasmQuarkusUtils.getMetaWasmResourceStream(this.name)) {
-                if (is == null) {
-                    throw new IllegalStateException("Meta Wasm module resource for " + this.name + " not found");
+        CompletableFuture<WasmModule> result = wasmModule;
+        if (result == null) {
+            synchronized (this) {
+                result = wasmModule;
+                if (result == null) {
+                    result = new CompletableFuture<>();
+                    parseWasmModule(result);
+                    wasmModule = result;
                 }
-                return Parser.parse(is);
             }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts parsing the Wasm module in the background, so that the parsing cost, which is mostly due to loading and
+     * warming up the Chicory parser, is not paid by the first caller of {@link #getWasmModule()}.
+     */
+    void preloadWasmModule() {
+        if (isDynamic) {
+            return;
+        }
+        synchronized (this) {
+            if (wasmModule != null) {
+                return;
+            }
+            // nothing to do if the Wasm module has been parsed while building the native image
+            final WasmModule stored = ImageHeapWasmModules.get(name);
+            if (stored != null) {
+                wasmModule = CompletableFuture.completedFuture(stored);
+                return;
+            }
+            final CompletableFuture<WasmModule> result = new CompletableFuture<>();
+            wasmModule = result;
+            final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            final Thread thread = new Thread(() -> {
+                Thread.currentThread().setContextClassLoader(classLoader);
+                parseWasmModule(result);
+            }, "chicory-preload-" + WasmQuarkusUtils.getWasmModuleClassName(name));
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void parseWasmModule(final CompletableFuture<WasmModule> result) {
+        final WasmModule stored = ImageHeapWasmModules.get(name);
+        if (stored != null) {
+            result.complete(stored);
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            result.complete(parseWasmModule());
+            final long nanos = System.nanoTime() - start;
+            if (stats != null) {
+                stats.recordParsing(nanos);
+            }
+            LOG.info("Wasm module " + name + " parsed in " + nanos / 1_000_000 + "ms");
+        } catch (IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Deploys a new version of this dynamic Wasm module, whose instances are created via {@link #instanceBuilder()}.
+     *
+     * @param payload The Wasm module payload
+     * @return The promoted {@link WasmModuleVersion}
+     * @see #deploy(byte[], Function)
+     */
+    public WasmModuleVersion deploy(final byte[] payload) {
+        return deploy(payload, Instance.Builder::build);
+    }
+
+    /**
+     * Deploys a new version of this dynamic Wasm module with no downtime. The payload is parsed, and an instance pool
+     * is created and warmed up with a first instance, which compiles the Wasm module when the runtime compiler is used,
+     * off to the side. The new version is then promoted atomically: calls started via {@link #execute(Function)}
+     * afterward run on the new version, while the calls in-flight on the previous version complete on its instances,
+     * which are released once they are drained.
+     * <p>
+     * Deployments are serialized, and the current version is kept if the payload can't be parsed or instantiated.
+     *
+     * @param payload The Wasm module payload
+     * @param instanceFactory Creates the instances of the new version from a {@link Instance.Builder} configured like
+     *        {@link #instanceBuilder()}, e.g. after adding host functions to the {@link #getWasiHostFunctions()}
+     * @return The promoted {@link WasmModuleVersion}
+     * @throws IllegalStateException if this is a statically configured Wasm module
+     */
+    public WasmModuleVersion deploy(final byte[] payload, final Function<Instance.Builder, Instance> instanceFactory) {
+        if (!isDynamic) {
+            throw new IllegalStateException("A payload is configured for static Wasm module " + name);
+        }
+        return deployer.deploy(payload, instanceFactory);
+    }
+
+    /**
+     * Returns the current version of this dynamic Wasm module.
+     *
+     * @return The {@link WasmModuleVersion} promoted by the latest {@link #deploy(byte[], Function)}, or {@code null}
+     *         if no version has been deployed yet
+     */
+    public WasmModuleVersion getCurrentVersion() {
+        return deployer == null ? null : deployer.currentVersion();
+    }
+
+    /**
+     * Runs an action against an instance of the current version of this dynamic Wasm module, which is borrowed from
+     * the version instance pool, and is subject to the {@link #getExecutionLimits()}. The action completes on the
+     * same version even if a newer version is promoted meanwhile.
+     *
+     * @param action The action to be executed
+     * @param <T> The type of the action result
+     * @return The action result
+     * @throws IllegalStateException if no version has been deployed yet
+     * @throws WasmLimitExceededException if the action exceeded one of the execution limits
+     */
+    public <T> T execute(final Function<Instance, T> action) {
+        if (deployer == null) {
+            throw new IllegalStateException("No version of dynamic Wasm module " + name + " has been deployed");
+        }
+        return deployer.execute(action);
+    }
+
+    /**
+     * Returns the plugins deployed from the {@code quarkus.chicory.modules.<module-key>.plugin-dir} directory of this
+     * dynamic Wasm module, keyed by the name of their payload, without the {@code .wasm} extension.
+     *
+     * @return An unmodifiable view of the current version of each plugin
+     */
+    public Map<String, WasmModuleVersion> getPlugins() {
+        return deployer == null ? Collections.emptyMap() : deployer.plugins();
+    }
+
+    /**
+     * Runs an action against an instance of the current version of a plugin deployed from the
+     * {@code quarkus.chicory.modules.<module-key>.plugin-dir} directory, like {@link #execute(Function)} does for the
+     * current version of this dynamic Wasm module.
+     *
+     * @param plugin The name of the plugin payload, without the {@code .wasm} extension
+     * @param action The action to be executed
+     * @param <T> The type of the action result
+     * @return The action result
+     * @throws IllegalStateException if no such plugin is deployed
+     * @throws WasmLimitExceededException if the action exceeded one of the execution limits
+     */
+    public <T> T execute(final String plugin, final Function<Instance, T> action) {
+        if (deployer == null) {
+            throw new IllegalStateException("No version of plugin " + plugin + " of Wasm module " + name
+                    + " has been deployed");
+        }
+        return deployer.execute(plugin, action);
+    }
+
+    /**
+     * Deploys the {@code .wasm} payloads of the {@code quarkus.chicory.modules.<module-key>.plugin-dir} directory of
+     * this dynamic Wasm module, and watches the directory, so that a new or changed payload deploys a new version of
+     * its plugin, and a deleted payload removes its plugin. Payloads are parsed and compiled by the given background
+     * executor, one at a time, never by the request threads.
+     *
+     * @param configuredPluginDir The plugin directory, configured at runtime
+     * @param executor The executor that deploys the plugins
+     * @return The {@link WasmModuleWatcher} of the plugin directory
+     * @throws IOException if the plugin directory cannot be read or watched
+     */
+    WasmModuleWatcher watchPluginDir(final Path configuredPluginDir, final Executor executor) throws IOException {
+        if (deployer == null) {
+            throw new IllegalStateException("A payload is configured for static Wasm module " + name);
+        }
+        return deployer.watchPluginDir(configuredPluginDir, executor);
+    }
+
+    /**
+     * Starts watching the payload of this statically configured Wasm module in <i>dev mode</i>, so that the Wasm
+     * module is swapped by {@link #reload(Path)} when its payload changes.
+     *
+     * @return The {@link WasmModuleWatcher} of the payload, or {@code null} if the payload is not a file
+     * @throws IOException if the payload directory cannot be watched
+     */
+    WasmModuleWatcher watchPayload() throws IOException {
+        final Path payload;
+        if (moduleConfig.wasmFile().isPresent()) {
+            payload = moduleConfig.wasmFileAbsolutePath(Path.of(projectBaseDir));
+        } else {
+            final URL resource = Thread.currentThread().getContextClassLoader()
+                    .getResource(moduleConfig.wasmResource().get());
+            if (resource == null || !"file".equals(resource.getProtocol())) {
+                LOG.warn("Wasm module resource " + moduleConfig.wasmResource().get() + " is not a file, changes to "
+                        + name + " will not be applied until the application is restarted");
+                return null;
+            }
+            try {
+                payload = Path.of(resource.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("Cannot resolve Wasm module resource " + moduleConfig.wasmResource().get(), e);
+            }
+        }
+        LOG.info("Watching " + payload + " to swap Wasm module " + name + " when it changes (dev mode)");
+        return new WasmModuleWatcher(payload.getParent(), payload::equals, this::reload,
+                deleted -> LOG.warn("Payload " + deleted + " of Wasm module " + name + " deleted, keeping the current one"),
+                "chicory-watch-" + WasmQuarkusUtils.getWasmModuleClassName(name));
+    }
+
+    /**
+     * Parses the changed payload of this Wasm module, and swaps it atomically with the current Wasm module. The
+     * instance pool is replaced as well, and warmed up with an instance of the new Wasm module when possible, so that
+     * callers borrow instances of the new Wasm module only. The previous pool is closed, so that its idle instances are
+     * dropped right away, and the ones borrowed by in-flight calls once given back.
+     * <p>
+     * The current Wasm module is kept if the payload can't be parsed.
+     *
+     * @param payload The changed payload
+     */
+    void reload(final Path payload) {
+        final long start = System.nanoTime();
+        final WasmModule reloaded;
+        try {
+            reloaded = Parser.parse(Files.readAllBytes(payload));
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Cannot parse the changed payload " + payload + ", keeping the current Wasm module " + name, e);
+            return;
+        }
+        final long nanos = System.nanoTime() - start;
+        if (stats != null) {
+            stats.recordParsing(nanos);
+        }
+        final WasmInstancePool pool = newInstancePool();
+        // the imports are not available, and the start function could have side effects
+        if (reloaded.importSection().importCount() == 0 && reloaded.startSection().isEmpty()) {
+            try {
+                pool.release(baseline(instanceBuilder(reloaded).build()));
+            } catch (RuntimeException e) {
+                LOG.error("Cannot instantiate the changed Wasm module " + name + ", keeping the current one", e);
+                return;
+            }
+        }
+        final WasmInstancePool previousPool;
+        final WasmModule previousModule;
+        synchronized (this) {
+            previousPool = instancePool;
+            previousModule = wasmModule != null ? wasmModule.getNow(null) : null;
+            wasmModule = CompletableFuture.completedFuture(reloaded);
+            instancePool = pool;
+        }
+        // the idle instances of the previous Wasm module are dropped along with its baseline, and the borrowed ones are
+        // discarded once given back
+        if (previousPool != null) {
+            previousPool.close();
+        }
+        if (previousModule != null) {
+            baselines.remove(previousModule);
+        }
+        LOG.info("Wasm module " + name + " swapped in " + (System.nanoTime() - start) / 1_000_000
+                + "ms, after its payload changed");
+    }
+
+    /**
+     * Parses the {@code .meta} Wasm module generated at build time for a statically configured Wasm module, which is
+     * decompressed on the fly when {@code compress-meta} is enabled.
+     */
+    static WasmModule parseMetaWasmModule(final String name) throws IOException {
+        try (InputStream is = WasmQuarkusUtils.getMetaWasmResourceStream(name)) {
+            if (is == null) {
+                throw new IllegalStateException("Meta Wasm module resource for " + name + " not found");
+            }
+            final PushbackInputStream input = new PushbackInputStream(is);
+            final int first = input.read();
+            if (first < 0) {
+                throw new IllegalStateException("Meta Wasm module resource for " + name + " is empty");
+            }
+            input.unread(first);
+            // a Wasm module starts with the \0asm magic number, whereas a zlib stream never starts with 0
+            if (first == 0) {
+                return Parser.parse(input);
+            }
+            try (InputStream inflated = new InflaterInputStream(input)) {
+                return Parser.parse(inflated);
+            }
+        }
+    }
+
+    private WasmModule parseWasmModule() throws IOException {
+        // either wasm-file or wasm-resource is defined, so let's use the Meta wasm in Native/PROD mode, or when the
+        // build time compiler is configured, because it is generated by the build time compiler based on the Wasm
+        // payload
+        if (isNativePackageType || (LaunchMode.current() == LaunchMode.NORMAL || LaunchMode.current() == LaunchMode.RUN)
+                || executionMode == ExecutionMode.BuildTimeCompiler) {
+            return parseMetaWasmModule(this.name);
         } else {
             // otherwise let's use the Wasm payload itself
             if (moduleConfig.wasmFile().isPresent()) {
@@ -1,9 +1,26 @@
 package io.quarkiverse.chicory.runtime.wasm;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 import org.jboss.logging.Logger;
 
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Machine;
+import com.dylibso.chicory.wasm.WasmModule;
+
 import io.quarkiverse.chicory.runtime.WasmQuarkusConfig;
+import io.quarkiverse.chicory.runtime.WasmQuarkusRuntimeConfig;
+import io.quarkiverse.chicory.runtime.WasmQuarkusUtils;
+import io.quarkus.runtime.ApplicationLifecycleManager;
 import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.ShutdownContext;
 import io.quarkus.runtime.annotations.Recorder;
 
 /**
@@ -14,6 +31,12 @@ public class WasmQuarkusContextRecorder {
 
     private static final Logger LOG = Logger.getLogger(WasmQuarkusContextRecorder.class);
 
+    private final RuntimeValue<WasmQuarkusRuntimeConfig> runtimeConfig;
+
+    public WasmQuarkusContextRecorder(final RuntimeValue<WasmQuarkusRuntimeConfig> runtimeConfig) {
+        this.runtimeConfig = runtimeConfig;
+    }
+
     /**
      * Creates a {@link WasmQuarkusContext} instance based on a configured Wasm module, and returns it as a
      * runtime value.
@@ -22,11 +45,182 @@ public class WasmQuarkusContextRecorder {
      * @param config The application configuration, storing all the configured Wasm modules.
      * @return A {@link RuntimeValue} referencing the configured {@link WasmQuarkusContext}.
      */
-    public RuntimeValue<?> createContext(final String key, final WasmQuarkusConfig config, final boolean isNativePackageType,
+    public RuntimeValue<WasmQuarkusContext> createContext(final String key, final WasmQuarkusConfig config,
+            final boolean isNativePackageType,
             final String projectBaseDir) {
         WasmQuarkusConfig.ModuleConfig moduleConfig = config.modules().get(key);
         LOG.info("A configured Wasm module " + key + " will be created");
-        WasmQuarkusContext wasmQuarkusContext = new WasmQuarkusContext(key, moduleConfig, isNativePackageType, projectBaseDir);
+        // the WASI environment of the guests depends on where the application is deployed, so it's read at runtime
+        WasmQuarkusContext wasmQuarkusContext = new WasmQuarkusContext(key, moduleConfig,
+                runtimeConfig.getValue().modules().get(key), isNativePackageType, projectBaseDir);
         return new RuntimeValue<>(wasmQuarkusContext);
     }
+
+    /**
+     * Starts parsing a statically configured Wasm module in the background, as soon as the application starts.
+     *
+     * @param context The {@link RuntimeValue} referencing the {@link WasmQuarkusContext} of the Wasm module
+     */
+    public void preloadWasmModule(final RuntimeValue<WasmQuarkusContext> context) {
+        context.getValue().preloadWasmModule();
+    }
+
+    /**
+     * Watches the payload of a statically configured Wasm module in <i>dev mode</i>, so that the Wasm module is swapped
+     * within its context when the payload changes, with no application restart. The payload stops being watched when
+     * the application is shut down, i.e. restarted because of any other change.
+     *
+     * @param context The {@link RuntimeValue} referencing the {@link WasmQuarkusContext} of the Wasm module
+     * @param shutdownContext The {@link ShutdownContext} that stops watching the payload
+     */
+    public void watchWasmModule(final RuntimeValue<WasmQuarkusContext> context, final ShutdownContext shutdownContext) {
+        final WasmModuleWatcher watcher;
+        try {
+            watcher = context.getValue().watchPayload();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot watch the payload of Wasm module " + context.getValue().getName(), e);
+        }
+        if (watcher != null) {
+            shutdownContext.addShutdownTask(() -> {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    LOG.debug("Cannot stop watching the payload of Wasm module " + context.getValue().getName(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Deploys the plugins of a dynamic Wasm module from its plugin directory, if one is configured at runtime, and
+     * watches the directory until the application is shut down. Plugins are deployed by a single background thread.
+     *
+     * @param key The configuration key of the Wasm module
+     * @param context The {@link RuntimeValue} referencing the {@link WasmQuarkusContext} of the Wasm module
+     * @param shutdownContext The {@link ShutdownContext} that stops watching the plugin directory
+     * @throws IllegalStateException if a plugin directory is configured for a statically configured Wasm module
+     */
+    public void watchPluginDir(final String key, final RuntimeValue<WasmQuarkusContext> context,
+            final ShutdownContext shutdownContext) {
+        final WasmQuarkusRuntimeConfig.ModuleConfig moduleConfig = runtimeConfig.getValue().modules().get(key);
+        if (moduleConfig == null || moduleConfig.pluginDir().isEmpty()) {
+            return;
+        }
+        if (!context.getValue().isDynamic()) {
+            throw new IllegalStateException("The plugin-dir of Wasm module " + key
+                    + " can't be set together with a wasm-file or a wasm-resource");
+        }
+        final Path pluginDir = moduleConfig.pluginDir().get();
+        LOG.info("Plugins of Wasm module " + key + " will be deployed from " + pluginDir);
+        final String name = context.getValue().getName();
+        final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "chicory-plugin-deployer-" + WasmQuarkusUtils.getWasmModuleClassName(name));
+            thread.setDaemon(true);
+            return thread;
+        });
+        final WasmModuleWatcher watcher;
+        try {
+            watcher = context.getValue().watchPluginDir(pluginDir, executor);
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Cannot watch the plugin directory of Wasm module " + name, e);
+        }
+        shutdownContext.addShutdownTask(() -> {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                LOG.debug("Cannot stop watching the plugin directory of Wasm module " + name, e);
+            }
+            executor.shutdownNow();
+        });
+    }
+
+    /**
+     * Parses a statically configured Wasm module during static initialization, which is run at build time when a
+     * native image is built, so that the parsed module is stored in the image heap.
+     *
+     * @param name The configured name of the Wasm module
+     */
+    public void storeWasmModuleInImageHeap(final String name) {
+        ImageHeapWasmModules.parse(name);
+    }
+
+    /**
+     * Returns a {@link Supplier} of {@link WasmInstance} objects backing the injectable bean of a configured Wasm
+     * module.
+     *
+     * @param context The {@link RuntimeValue} referencing the {@link WasmQuarkusContext} of the Wasm module
+     * @param scope The configured {@link InstanceScope}
+     * @return A {@link Supplier} of {@link WasmInstance} objects
+     */
+    public Supplier<WasmInstance> createWasmInstanceSupplier(final RuntimeValue<WasmQuarkusContext> context,
+            final InstanceScope scope) {
+        return () -> context.getValue().createWasmInstance(scope);
+    }
+
+    /**
+     * Returns a {@link Supplier} of the {@link WasmExportHandle} backing the injectable bean of an exported function,
+     * whose index has been resolved at build time.
+     *
+     * @param context The {@link RuntimeValue} referencing the {@link WasmQuarkusContext} of the Wasm module
+     * @param name The name of the exported function
+     * @param functionIndex The index of the exported function
+     * @return A {@link Supplier} of {@link WasmExportHandle} objects
+     */
+    public Supplier<WasmExportHandle> createExportHandleSupplier(final RuntimeValue<WasmQuarkusContext> context,
+            final String name, final int functionIndex) {
+        return () -> new WasmExportHandle(context.getValue(), name, functionIndex);
+    }
+
+    /**
+     * Registers the machine factory generated at build time for a statically configured Wasm module.
+     *
+     * @param name The configured name of the Wasm module
+     * @param machineFactory The {@link RuntimeValue} referencing the generated machine factory
+     */
+    public void registerMachineFactory(final String name,
+            final RuntimeValue<Function<Instance, Machine>> machineFactory) {
+        GeneratedMachineFactories.register(name, machineFactory.getValue());
+    }
+
+    /**
+     * Warms up a statically configured Wasm module when the application is run to generate an AppCDS archive or an AOT
+     * cache, so that the generated classes of the Wasm module, which are loaded and verified on first use otherwise,
+     * are stored in the archive together with the Chicory classes used to parse and instantiate it.
+     * <p>
+     * All the generated classes are loaded, the {@code .meta} Wasm module is parsed, and it is instantiated with its
+     * build time compiled machine, unless it imports functions or has a start function. This does nothing when the
+     * application is not generating an archive.
+     *
+     * @param name The configured name of the Wasm module
+     * @param classNames The names of the classes generated at build time for the Wasm module
+     */
+    public void warmUpForStartupArchive(final String name, final List<String> classNames) {
+        if (!ApplicationLifecycleManager.isAppCDSGeneration()) {
+            return;
+        }
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        for (String className : classNames) {
+            try {
+                // initializing links the class, otherwise it's not archived
+                Class.forName(className, true, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Generated class " + className + " not found for " + name, e);
+            }
+        }
+        final WasmModule wasmModule;
+        try {
+            wasmModule = WasmQuarkusContext.parseMetaWasmModule(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot parse Wasm module " + name, e);
+        }
+        final Instance.Builder builder = Instance.builder(wasmModule)
+                .withMachineFactory(GeneratedMachineFactories.get(name));
+        // the imports are not available yet, and the start function could have side effects
+        if (wasmModule.importSection().importCount() == 0 && wasmModule.startSection().isEmpty()) {
+            builder.build();
+        }
+        LOG.info("Wasm module " + name + " warmed up for the startup archive");
+    }
 }
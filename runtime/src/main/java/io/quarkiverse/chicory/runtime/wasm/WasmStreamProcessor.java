@@ -0,0 +1,284 @@
+package io.quarkiverse.chicory.runtime.wasm;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import com.dylibso.chicory.runtime.ExportFunction;
+import com.dylibso.chicory.runtime.Instance;
+import com.dylibso.chicory.runtime.Memory;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+/**
+ * Streams a payload through a Wasm guest, chunk by chunk, and emits the guest output as a stream too, so that the
+ * memory used by the stream is bounded by the size of a window in the guest linear memory, whatever the payload size.
+ * <p>
+ * A stream borrows an instance from the pool for its whole duration, and allocates the window once. Each input chunk
+ * is written to the window, in several steps if it is larger than the window, and handed to the guest, which then
+ * copies its pending output to the window, one window at a time. The instance is given back to the pool once the
+ * stream completes, and discarded if it fails or is cancelled, since the guest state can't be trusted anymore.
+ * <p>
+ * The guest calls block, so the instance is borrowed, the guest is called and the instance is given back or discarded
+ * on a worker thread, the Quarkus worker pool by default, and never on the event loop emitting the input chunks or on
+ * the thread cancelling the stream. A cancelled stream gives up its instance once the guest call in progress, if any,
+ * has returned.
+ * <p>
+ * The chunks are byte arrays, so that only Mutiny is needed, e.g. {@code body.map(Buffer::getBytes)} for a Vert.x
+ * body.
+ * <p>
+ * The guest module is expected to export an allocator, i.e. {@code malloc(size) -> ptr} and {@code free(ptr)} by
+ * default, and the following functions, for a stream named {@code name}:
+ * <ul>
+ * <li>{@code name_write(ptr, len) -> status} consumes the input chunk stored at {@code ptr}</li>
+ * <li>{@code name_read(ptr, cap) -> len} copies up to {@code cap} bytes of pending output to {@code ptr}, and returns
+ * their length, {@code 0} once no output is pending</li>
+ * <li>{@code name_finish() -> status} ends the input, the remaining output being read afterward, and prepares the guest
+ * for the next stream</li>
+ * </ul>
+ * A negative status or length fails the stream:
+ *
+ * <pre>
+ * WasmStreamProcessor processor = WasmStreamProcessor.builder("transform")
+ *         .withWindowSize(32 * 1024)
+ *         .build();
+ * Multi&lt;byte[]&gt; output = processor.process(wasmContext.getInstancePool(), body);
+ * </pre>
+ */
+public final class WasmStreamProcessor {
+
+    /**
+     * The default size of the window, in bytes.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+
+    private final String writeName;
+    private final String readName;
+    private final String finishName;
+    private final String mallocName;
+    private final String freeName;
+    private final int windowSize;
+    private final Executor executor;
+
+    private WasmStreamProcessor(final Builder builder) {
+        this.writeName = builder.name + "_write";
+        this.readName = builder.name + "_read";
+        this.finishName = builder.name + "_finish";
+        this.mallocName = builder.mallocName;
+        this.freeName = builder.freeName;
+        this.windowSize = builder.windowSize;
+        this.executor = builder.executor;
+    }
+
+    /**
+     * Creates a {@link Builder} for a stream processor calling the exports of the given stream.
+     *
+     * @param name The name of the stream, i.e. the prefix of its exports
+     * @return A {@link Builder} instance
+     */
+    public static Builder builder(final String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Streams the input through an instance of the Wasm module of a context.
+     *
+     * @param context The {@link WasmQuarkusContext} whose instance pool provides the instance
+     * @param input The input chunks
+     * @return The output chunks, each of them at most as large as the window
+     */
+    public Multi<byte[]> process(final WasmQuarkusContext context, final Multi<byte[]> input) {
+        return process(context.getInstancePool(), input);
+    }
+
+    /**
+     * Streams the input through an instance borrowed from the pool, once the returned stream is subscribed to. Each
+     * guest call is subject to the pool {@link WasmExecutionLimits}, and runs on the worker executor of the processor.
+     *
+     * @param pool The {@link WasmInstancePool} providing the instance
+     * @param input The input chunks
+     * @return The output chunks, each of them at most as large as the window
+     */
+    public Multi<byte[]> process(final WasmInstancePool pool, final Multi<byte[]> input) {
+        Objects.requireNonNull(input, "Input cannot be null");
+        // resolved on each call, since the Quarkus worker pool is only installed once the application starts
+        final Executor worker = executor != null ? executor : Infrastructure.getDefaultWorkerPool();
+        return Multi.createFrom().resource(() -> new Session(pool, worker),
+                session -> session.process(input.emitOn(worker)))
+                .withFinalizer(Session::release, (session, failure) -> session.discard(), Session::discard)
+                .runSubscriptionOn(worker);
+    }
+
+    /**
+     * A stream in progress, which owns an instance and its window. The guest calls and the end of the session are
+     * serialized, so that the instance is never given back or discarded while the guest is called.
+     */
+    private final class Session {
+        private final WasmInstancePool pool;
+        private final Executor worker;
+        private final Instance instance;
+        private final Memory memory;
+        private final ExportFunction write;
+        private final ExportFunction read;
+        private final ExportFunction finish;
+        private final int window;
+        private boolean ended;
+
+        private Session(final WasmInstancePool pool, final Executor worker) {
+            this.pool = pool;
+            this.worker = worker;
+            this.instance = pool.borrow();
+            try {
+                this.memory = instance.memory();
+                this.write = pool.limits().guard(instance.export(writeName));
+                this.read = pool.limits().guard(instance.export(readName));
+                this.finish = pool.limits().guard(instance.export(finishName));
+                this.window = (int) pool.limits().guard(instance.export(mallocName)).apply(windowSize)[0];
+                if (window == 0) {
+                    throw new IllegalStateException(
+                            "Failed to allocate " + windowSize + " bytes of guest memory for the stream window");
+                }
+            } catch (RuntimeException | Error e) {
+                pool.discard(instance);
+                throw e;
+            }
+        }
+
+        private Multi<byte[]> process(final Multi<byte[]> input) {
+            return input.onItem().transformToMultiAndConcatenate(this::write)
+                    .onCompletion().switchTo(this::finish);
+        }
+
+        private Multi<byte[]> write(final byte[] chunk) {
+            // a chunk larger than the window is written in several steps, each of them followed by reading the output
+            return Multi.createFrom().range(0, (chunk.length + windowSize - 1) / windowSize)
+                    .onItem().transformToMultiAndConcatenate(step -> {
+                        final int from = step * windowSize;
+                        final int length = Math.min(windowSize, chunk.length - from);
+                        synchronized (this) {
+                            checkNotEnded();
+                            memory.write(window, chunk, from, length);
+                            check(write.apply(window, length)[0], writeName);
+                        }
+                        return drain();
+                    });
+        }
+
+        private Multi<byte[]> finish() {
+            synchronized (this) {
+                checkNotEnded();
+                check(finish.apply()[0], finishName);
+            }
+            return drain();
+        }
+
+        private Multi<byte[]> drain() {
+            return Multi.createBy().repeating().supplier(this::read).until(output -> output.length == 0);
+        }
+
+        private synchronized byte[] read() {
+            checkNotEnded();
+            final long length = check(read.apply(window, windowSize)[0], readName);
+            if (length > windowSize) {
+                throw new IllegalStateException(readName + " returned " + length + " bytes, more than the window size "
+                        + windowSize);
+            }
+            return memory.readBytes(window, (int) length);
+        }
+
+        private void checkNotEnded() {
+            if (ended) {
+                throw new IllegalStateException("The stream has ended");
+            }
+        }
+
+        private long check(final long status, final String exportName) {
+            if (status < 0) {
+                throw new IllegalStateException(exportName + " failed with status " + status);
+            }
+            return status;
+        }
+
+        private Uni<Void> release() {
+            return end(() -> {
+                try {
+                    pool.limits().guard(instance.export(freeName)).apply(window);
+                } catch (RuntimeException e) {
+                    pool.discard(instance);
+                    return;
+                }
+                pool.release(instance);
+            });
+        }
+
+        private Uni<Void> discard() {
+            return end(() -> pool.discard(instance));
+        }
+
+        /**
+         * Ends the session on the worker executor, once the guest call in progress, if any, has returned.
+         */
+        private Uni<Void> end(final Runnable action) {
+            return Uni.createFrom().voidItem()
+                    .invoke(() -> {
+                        synchronized (this) {
+                            if (!ended) {
+                                ended = true;
+                                action.run();
+                            }
+                        }
+                    })
+                    .runSubscriptionOn(worker);
+        }
+    }
+
+    /**
+     * Builds {@link WasmStreamProcessor} instances.
+     */
+    public static final class Builder {
+        private final String name;
+        private String mallocName = "malloc";
+        private String freeName = "free";
+        private int windowSize = DEFAULT_WINDOW_SIZE;
+        private Executor executor;
+
+        private Builder(final String name) {
+            this.name = Objects.requireNonNull(name, "Stream name cannot be null");
+        }
+
+        /**
+         * Sets the names of the guest allocator exports, {@code malloc} and {@code free} by default.
+         */
+        public Builder withAllocator(final String mallocName, final String freeName) {
+            this.mallocName = Objects.requireNonNull(mallocName);
+            this.freeName = Objects.requireNonNull(freeName);
+            return this;
+        }
+
+        /**
+         * Sets the size of the window, in bytes, which bounds both the input chunks handed to the guest and the output
+         * chunks, {@link #DEFAULT_WINDOW_SIZE} by default.
+         */
+        public Builder withWindowSize(final int windowSize) {
+            if (windowSize <= 0) {
+                throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets the executor on which the instance is borrowed and the guest is called, the Mutiny default worker pool
+         * by default, i.e. the Quarkus worker pool.
+         */
+        public Builder withExecutor(final Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        public WasmStreamProcessor build() {
+            return new WasmStreamProcessor(this);
+        }
+    }
+}